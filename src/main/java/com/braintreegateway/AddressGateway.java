@@ -31,7 +31,12 @@ public class AddressGateway {
      * @return a {@link Result} object.
      */
     public Result<Address> create(String customerId, AddressRequest request) {
-        NodeWrapper node = http.post(configuration.getMerchantPath() + "/customers/" + customerId + "/addresses", request);
+        NodeWrapper node;
+        try {
+            node = http.post(configuration.getMerchantPath() + "/customers/" + customerId + "/addresses", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.CUSTOMER, customerId);
+        }
         return new Result<Address>(node, Address.class);
     }
 
@@ -42,7 +47,11 @@ public class AddressGateway {
      * @return a {@link Result} object.
      */
     public Result<Address> delete(String customerId, String id) {
-        http.delete(configuration.getMerchantPath() + "/customers/" + customerId + "/addresses/" + id);
+        try {
+            http.delete(configuration.getMerchantPath() + "/customers/" + customerId + "/addresses/" + id);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.CUSTOMER, customerId);
+        }
         return new Result<Address>();
     }
 
@@ -68,7 +77,12 @@ public class AddressGateway {
      * @return the {@link Address} or raises a {@link com.braintreegateway.exceptions.NotFoundException}.
      */
     public Result<Address> update(String customerId, String id, AddressRequest request) {
-        NodeWrapper node = http.put(configuration.getMerchantPath() + "/customers/" + customerId + "/addresses/" + id, request);
+        NodeWrapper node;
+        try {
+            node = http.put(configuration.getMerchantPath() + "/customers/" + customerId + "/addresses/" + id, request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.CUSTOMER, customerId);
+        }
         return new Result<Address>(node, Address.class);
     }
 }
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 /**
  * Provides a fluent interface to build up requests around {@link Address Addresses}.
  */
@@ -97,6 +99,11 @@ public class AddressRequest extends Request {
     public String toXML() {
         return buildRequest(this.tagName).toXML();
     }
+
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest(this.tagName).writeXML(writer);
+    }
     
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
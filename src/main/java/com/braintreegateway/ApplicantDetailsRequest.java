@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class ApplicantDetailsRequest extends Request {
     private String companyName;
     private String firstName;
@@ -92,6 +94,11 @@ public class ApplicantDetailsRequest extends Request {
         return buildRequest("applicant_details").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("applicant_details").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
                 addElement("companyName", companyName).
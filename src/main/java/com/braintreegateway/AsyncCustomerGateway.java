@@ -0,0 +1,114 @@
+package com.braintreegateway;
+
+import com.braintreegateway.util.Http;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous counterpart of {@link CustomerGateway}. Every call is submitted to the
+ * {@link Configuration#getExecutorService() configured executor} and returns a
+ * {@link GatewayFuture} immediately. Use {@link BraintreeGateway#customerAsync()} to get an instance:
+ *
+ * <pre>
+ * GatewayFuture&lt;Customer&gt; future = gateway.customerAsync().withTimeout(5, TimeUnit.SECONDS).find(customerId);
+ * </pre>
+ */
+public class AsyncCustomerGateway {
+    private CustomerGateway gateway;
+    private Http http;
+    private Configuration configuration;
+    private AsyncExecutor executor;
+
+    public AsyncCustomerGateway(CustomerGateway gateway, Configuration configuration) {
+        this(gateway, null, configuration, new AsyncExecutor(configuration.getExecutorService()));
+    }
+
+    AsyncCustomerGateway(CustomerGateway gateway, Http http, Configuration configuration) {
+        this(gateway, http, configuration, new AsyncExecutor(configuration.getExecutorService()));
+    }
+
+    private AsyncCustomerGateway(CustomerGateway gateway, Http http, Configuration configuration, AsyncExecutor executor) {
+        this.gateway = gateway;
+        this.http = http;
+        this.configuration = configuration;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a copy of this gateway whose calls fail with a
+     * {@link com.braintreegateway.exceptions.TimeoutException} if they have not completed
+     * within the given time.
+     */
+    public AsyncCustomerGateway withTimeout(long timeout, TimeUnit unit) {
+        return new AsyncCustomerGateway(gateway, http, configuration, executor.withTimeout(timeout, unit));
+    }
+
+    public GatewayFuture<ResourceCollection<Customer>> all() {
+        final CustomerGateway target = gateway();
+        return executor.submit(new Callable<ResourceCollection<Customer>>() {
+            public ResourceCollection<Customer> call() {
+                return target.all();
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Customer>> create(final CustomerRequest request) {
+        final CustomerGateway target = gateway();
+        return executor.submit(new Callable<Result<Customer>>() {
+            public Result<Customer> call() {
+                return target.create(request);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Customer>> delete(final String id) {
+        final CustomerGateway target = gateway();
+        return executor.submit(new Callable<Result<Customer>>() {
+            public Result<Customer> call() {
+                return target.delete(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Customer> find(final String id) {
+        final CustomerGateway target = gateway();
+        return executor.submit(new Callable<Customer>() {
+            public Customer call() {
+                return target.find(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Customer> find(final String id, final String associationFilterId) {
+        final CustomerGateway target = gateway();
+        return executor.submit(new Callable<Customer>() {
+            public Customer call() {
+                return target.find(id, associationFilterId);
+            }
+        });
+    }
+
+    public GatewayFuture<ResourceCollection<Customer>> search(final CustomerSearchRequest query) {
+        final CustomerGateway target = gateway();
+        return executor.submit(new Callable<ResourceCollection<Customer>>() {
+            public ResourceCollection<Customer> call() {
+                return target.search(query);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Customer>> update(final String id, final CustomerRequest request) {
+        final CustomerGateway target = gateway();
+        return executor.submit(new Callable<Result<Customer>>() {
+            public Result<Customer> call() {
+                return target.update(id, request);
+            }
+        });
+    }
+
+    private CustomerGateway gateway() {
+        Http bounded = executor.bound(http);
+        return bounded == null ? gateway : gateway.withHttp(bounded);
+    }
+}
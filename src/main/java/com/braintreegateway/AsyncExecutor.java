@@ -0,0 +1,80 @@
+package com.braintreegateway;
+
+import com.braintreegateway.util.DaemonThreadFactory;
+import com.braintreegateway.util.Http;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs gateway calls on the {@link Configuration#getExecutorService() configured executor}
+ * and enforces an optional per-call deadline. When the deadline passes the call's future fails
+ * and its worker thread is interrupted; calls made through {@link #bound(Http)} also stop
+ * waiting on the network at the deadline, so the worker is freed rather than left blocked.
+ */
+class AsyncExecutor {
+    private static ScheduledExecutorService deadlineScheduler;
+
+    private Executor executor;
+    private long timeoutMillis;
+
+    public AsyncExecutor(Executor executor) {
+        this(executor, 0);
+    }
+
+    private AsyncExecutor(Executor executor, long timeoutMillis) {
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public AsyncExecutor withTimeout(long timeout, TimeUnit unit) {
+        return new AsyncExecutor(executor, unit.toMillis(timeout));
+    }
+
+    /**
+     * @return a copy of {@code http} whose requests give up at this call's deadline, or null if
+     *         there is no timeout or no {@link Http} to copy.
+     */
+    public Http bound(Http http) {
+        if (timeoutMillis <= 0 || http == null) {
+            return null;
+        }
+        return http.withDeadline(System.currentTimeMillis() + timeoutMillis);
+    }
+
+    public <T> GatewayFuture<T> submit(Callable<T> call) {
+        final GatewayFuture<T> future = new GatewayFuture<T>(call);
+        executor.execute(future);
+
+        if (timeoutMillis > 0) {
+            final ScheduledFuture<?> expiry = deadlineScheduler().schedule(new Runnable() {
+                public void run() {
+                    future.expire("Deadline of " + timeoutMillis + "ms exceeded");
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+            future.addCallback(new GatewayCallback<T>() {
+                public void onSuccess(T result) {
+                    expiry.cancel(false);
+                }
+
+                public void onFailure(Throwable cause) {
+                    expiry.cancel(false);
+                }
+            });
+        }
+
+        return future;
+    }
+
+    private static synchronized ScheduledExecutorService deadlineScheduler() {
+        if (deadlineScheduler == null) {
+            deadlineScheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("braintree-deadline"));
+        }
+        return deadlineScheduler;
+    }
+}
@@ -0,0 +1,123 @@
+package com.braintreegateway;
+
+import com.braintreegateway.util.Http;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous counterpart of {@link PaymentMethodGateway}. Every call is submitted to the
+ * {@link Configuration#getExecutorService() configured executor} and returns a
+ * {@link GatewayFuture} immediately. Use {@link BraintreeGateway#paymentMethodAsync()} to get an instance:
+ *
+ * <pre>
+ * GatewayFuture&lt;PaymentMethod&gt; future = gateway.paymentMethodAsync().withTimeout(5, TimeUnit.SECONDS).find(token);
+ * </pre>
+ */
+public class AsyncPaymentMethodGateway {
+    private PaymentMethodGateway gateway;
+    private Http http;
+    private Configuration configuration;
+    private AsyncExecutor executor;
+
+    public AsyncPaymentMethodGateway(PaymentMethodGateway gateway, Configuration configuration) {
+        this(gateway, null, configuration, new AsyncExecutor(configuration.getExecutorService()));
+    }
+
+    AsyncPaymentMethodGateway(PaymentMethodGateway gateway, Http http, Configuration configuration) {
+        this(gateway, http, configuration, new AsyncExecutor(configuration.getExecutorService()));
+    }
+
+    private AsyncPaymentMethodGateway(PaymentMethodGateway gateway, Http http, Configuration configuration, AsyncExecutor executor) {
+        this.gateway = gateway;
+        this.http = http;
+        this.configuration = configuration;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a copy of this gateway whose calls fail with a
+     * {@link com.braintreegateway.exceptions.TimeoutException} if they have not completed
+     * within the given time.
+     */
+    public AsyncPaymentMethodGateway withTimeout(long timeout, TimeUnit unit) {
+        return new AsyncPaymentMethodGateway(gateway, http, configuration, executor.withTimeout(timeout, unit));
+    }
+
+    public GatewayFuture<Result<? extends PaymentMethod>> create(final PaymentMethodRequest request) {
+        final PaymentMethodGateway target = gateway();
+        return executor.submit(new Callable<Result<? extends PaymentMethod>>() {
+            public Result<? extends PaymentMethod> call() {
+                return target.create(request);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<? extends PaymentMethod>> update(final String token, final PaymentMethodRequest request) {
+        final PaymentMethodGateway target = gateway();
+        return executor.submit(new Callable<Result<? extends PaymentMethod>>() {
+            public Result<? extends PaymentMethod> call() {
+                return target.update(token, request);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<? extends PaymentMethod>> delete(final String token) {
+        final PaymentMethodGateway target = gateway();
+        return executor.submit(new Callable<Result<? extends PaymentMethod>>() {
+            public Result<? extends PaymentMethod> call() {
+                return target.delete(token);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<? extends PaymentMethod>> delete(final String token, final PaymentMethodDeleteRequest request) {
+        final PaymentMethodGateway target = gateway();
+        return executor.submit(new Callable<Result<? extends PaymentMethod>>() {
+            public Result<? extends PaymentMethod> call() {
+                return target.delete(token, request);
+            }
+        });
+    }
+
+    public GatewayFuture<PaymentMethod> find(final String token) {
+        final PaymentMethodGateway target = gateway();
+        return executor.submit(new Callable<PaymentMethod>() {
+            public PaymentMethod call() {
+                return target.find(token);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<PaymentMethodNonce>> grant(final String token) {
+        final PaymentMethodGateway target = gateway();
+        return executor.submit(new Callable<Result<PaymentMethodNonce>>() {
+            public Result<PaymentMethodNonce> call() {
+                return target.grant(token);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<PaymentMethodNonce>> grant(final String token, final PaymentMethodGrantRequest grantRequest) {
+        final PaymentMethodGateway target = gateway();
+        return executor.submit(new Callable<Result<PaymentMethodNonce>>() {
+            public Result<PaymentMethodNonce> call() {
+                return target.grant(token, grantRequest);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<? extends PaymentMethod>> revoke(final String token) {
+        final PaymentMethodGateway target = gateway();
+        return executor.submit(new Callable<Result<? extends PaymentMethod>>() {
+            public Result<? extends PaymentMethod> call() {
+                return target.revoke(token);
+            }
+        });
+    }
+
+    private PaymentMethodGateway gateway() {
+        Http bounded = executor.bound(http);
+        return bounded == null ? gateway : new PaymentMethodGateway(bounded, configuration);
+    }
+}
@@ -0,0 +1,142 @@
+package com.braintreegateway;
+
+import com.braintreegateway.util.Http;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous counterpart of {@link SubscriptionGateway}. Every call is submitted to the
+ * {@link Configuration#getExecutorService() configured executor} and returns a
+ * {@link GatewayFuture} immediately. Use {@link BraintreeGateway#subscriptionAsync()} to get an instance:
+ *
+ * <pre>
+ * GatewayFuture&lt;Subscription&gt; future = gateway.subscriptionAsync().withTimeout(5, TimeUnit.SECONDS).find(subscriptionId);
+ * </pre>
+ */
+public class AsyncSubscriptionGateway {
+    private SubscriptionGateway gateway;
+    private Http http;
+    private Configuration configuration;
+    private AsyncExecutor executor;
+
+    public AsyncSubscriptionGateway(SubscriptionGateway gateway, Configuration configuration) {
+        this(gateway, null, configuration, new AsyncExecutor(configuration.getExecutorService()));
+    }
+
+    AsyncSubscriptionGateway(SubscriptionGateway gateway, Http http, Configuration configuration) {
+        this(gateway, http, configuration, new AsyncExecutor(configuration.getExecutorService()));
+    }
+
+    private AsyncSubscriptionGateway(SubscriptionGateway gateway, Http http, Configuration configuration, AsyncExecutor executor) {
+        this.gateway = gateway;
+        this.http = http;
+        this.configuration = configuration;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a copy of this gateway whose calls fail with a
+     * {@link com.braintreegateway.exceptions.TimeoutException} if they have not completed
+     * within the given time.
+     */
+    public AsyncSubscriptionGateway withTimeout(long timeout, TimeUnit unit) {
+        return new AsyncSubscriptionGateway(gateway, http, configuration, executor.withTimeout(timeout, unit));
+    }
+
+    public GatewayFuture<Result<Subscription>> cancel(final String id) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<Result<Subscription>>() {
+            public Result<Subscription> call() {
+                return target.cancel(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Subscription>> create(final SubscriptionRequest request) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<Result<Subscription>>() {
+            public Result<Subscription> call() {
+                return target.create(request);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Subscription>> delete(final String customerId, final String id) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<Result<Subscription>>() {
+            public Result<Subscription> call() {
+                return target.delete(customerId, id);
+            }
+        });
+    }
+
+    public GatewayFuture<Subscription> find(final String id) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<Subscription>() {
+            public Subscription call() {
+                return target.find(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Subscription>> update(final String id, final SubscriptionRequest request) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<Result<Subscription>>() {
+            public Result<Subscription> call() {
+                return target.update(id, request);
+            }
+        });
+    }
+
+    public GatewayFuture<ResourceCollection<Subscription>> search(final SubscriptionSearchRequest searchRequest) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<ResourceCollection<Subscription>>() {
+            public ResourceCollection<Subscription> call() {
+                return target.search(searchRequest);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> retryCharge(final String subscriptionId) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.retryCharge(subscriptionId);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> retryCharge(final String subscriptionId, final BigDecimal amount) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.retryCharge(subscriptionId, amount);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> retryCharge(final String subscriptionId, final Boolean submitForSettlement) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.retryCharge(subscriptionId, submitForSettlement);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> retryCharge(final String subscriptionId, final BigDecimal amount, final Boolean submitForSettlement) {
+        final SubscriptionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.retryCharge(subscriptionId, amount, submitForSettlement);
+            }
+        });
+    }
+
+    private SubscriptionGateway gateway() {
+        Http bounded = executor.bound(http);
+        return bounded == null ? gateway : gateway.withHttp(bounded);
+    }
+}
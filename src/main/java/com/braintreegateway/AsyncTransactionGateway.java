@@ -0,0 +1,214 @@
+package com.braintreegateway;
+
+import com.braintreegateway.util.Http;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous counterpart of {@link TransactionGateway}. Every call is submitted to the
+ * {@link Configuration#getExecutorService() configured executor} and returns a
+ * {@link GatewayFuture} immediately. Use {@link BraintreeGateway#transactionAsync()} to get an instance:
+ *
+ * <pre>
+ * GatewayFuture&lt;Result&lt;Transaction&gt;&gt; future = gateway.transactionAsync().withTimeout(5, TimeUnit.SECONDS).sale(request);
+ * </pre>
+ */
+public class AsyncTransactionGateway {
+    private TransactionGateway gateway;
+    private Http http;
+    private Configuration configuration;
+    private AsyncExecutor executor;
+
+    public AsyncTransactionGateway(TransactionGateway gateway, Configuration configuration) {
+        this(gateway, null, configuration, new AsyncExecutor(configuration.getExecutorService()));
+    }
+
+    AsyncTransactionGateway(TransactionGateway gateway, Http http, Configuration configuration) {
+        this(gateway, http, configuration, new AsyncExecutor(configuration.getExecutorService()));
+    }
+
+    private AsyncTransactionGateway(TransactionGateway gateway, Http http, Configuration configuration, AsyncExecutor executor) {
+        this.gateway = gateway;
+        this.http = http;
+        this.configuration = configuration;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a copy of this gateway whose calls fail with a
+     * {@link com.braintreegateway.exceptions.TimeoutException} if they have not completed
+     * within the given time.
+     */
+    public AsyncTransactionGateway withTimeout(long timeout, TimeUnit unit) {
+        return new AsyncTransactionGateway(gateway, http, configuration, executor.withTimeout(timeout, unit));
+    }
+
+    public GatewayFuture<Result<Transaction>> cloneTransaction(final String id, final TransactionCloneRequest request) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.cloneTransaction(id, request);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> credit(final TransactionRequest request) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.credit(request);
+            }
+        });
+    }
+
+    public GatewayFuture<Transaction> find(final String id) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Transaction>() {
+            public Transaction call() {
+                return target.find(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> refund(final String id) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.refund(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> refund(final String id, final BigDecimal amount) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.refund(id, amount);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> refund(final String id, final TransactionRefundRequest request) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.refund(id, request);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> sale(final TransactionRequest request) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.sale(request);
+            }
+        });
+    }
+
+    public GatewayFuture<ResourceCollection<Transaction>> search(final TransactionSearchRequest query) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<ResourceCollection<Transaction>>() {
+            public ResourceCollection<Transaction> call() {
+                return target.search(query);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> cancelRelease(final String id) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.cancelRelease(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> holdInEscrow(final String id) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.holdInEscrow(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> releaseFromEscrow(final String id) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.releaseFromEscrow(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> submitForSettlement(final String id) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.submitForSettlement(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> submitForSettlement(final String id, final BigDecimal amount) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.submitForSettlement(id, amount);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> submitForSettlement(final String id, final TransactionRequest request) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.submitForSettlement(id, request);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> updateDetails(final String id, final TransactionRequest request) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.updateDetails(id, request);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> voidTransaction(final String id) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.voidTransaction(id);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> submitForPartialSettlement(final String id, final BigDecimal amount) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.submitForPartialSettlement(id, amount);
+            }
+        });
+    }
+
+    public GatewayFuture<Result<Transaction>> submitForPartialSettlement(final String id, final TransactionRequest request) {
+        final TransactionGateway target = gateway();
+        return executor.submit(new Callable<Result<Transaction>>() {
+            public Result<Transaction> call() {
+                return target.submitForPartialSettlement(id, request);
+            }
+        });
+    }
+
+    private TransactionGateway gateway() {
+        Http bounded = executor.bound(http);
+        return bounded == null ? gateway : gateway.withHttp(bounded);
+    }
+}
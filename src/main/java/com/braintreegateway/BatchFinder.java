@@ -0,0 +1,96 @@
+package com.braintreegateway;
+
+import com.braintreegateway.exceptions.UnexpectedException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Looks up many records by id with one search request per page of ids, fetching the pages
+ * concurrently. Pages the executor has not started by the time they are awaited are fetched on
+ * the calling thread, so a lookup made from one of the executor's own threads cannot deadlock
+ * waiting for the pool.
+ */
+abstract class BatchFinder<T> {
+    static final int PAGE_SIZE = 50;
+
+    private Pager<T> pager;
+    private Executor executor;
+
+    BatchFinder(Pager<T> pager, Executor executor) {
+        this.pager = pager;
+        this.executor = executor;
+    }
+
+    abstract String idOf(T item);
+
+    public FindManyResult<T> find(Collection<String> ids) {
+        List<String> uniqueIds = new ArrayList<String>(new LinkedHashSet<String>(ids));
+
+        List<FutureTask<List<T>>> pages = new ArrayList<FutureTask<List<T>>>();
+        for (int start = 0; start < uniqueIds.size(); start += PAGE_SIZE) {
+            pages.add(fetchPage(uniqueIds.subList(start, Math.min(start + PAGE_SIZE, uniqueIds.size()))));
+        }
+
+        Map<String, T> byId = new HashMap<String, T>();
+        for (FutureTask<List<T>> page : pages) {
+            for (T item : await(page)) {
+                byId.put(idOf(item), item);
+            }
+        }
+
+        Map<String, T> found = new LinkedHashMap<String, T>();
+        List<String> missingIds = new ArrayList<String>();
+        for (String id : uniqueIds) {
+            T item = byId.get(id);
+            if (item == null) {
+                missingIds.add(id);
+            } else {
+                found.put(id, item);
+            }
+        }
+        return new FindManyResult<T>(found, missingIds);
+    }
+
+    private FutureTask<List<T>> fetchPage(final List<String> ids) {
+        FutureTask<List<T>> task = new FutureTask<List<T>>(new Callable<List<T>>() {
+            public List<T> call() {
+                return pager.getPage(ids);
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+        return task;
+    }
+
+    private List<T> await(FutureTask<List<T>> task) {
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnexpectedException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new UnexpectedException(cause.getMessage(), cause);
+        }
+    }
+}
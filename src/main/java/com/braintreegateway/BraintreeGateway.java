@@ -74,6 +74,11 @@ public class BraintreeGateway {
         this.http = new Http(configuration);
     }
 
+    private BraintreeGateway(Configuration configuration, Http http) {
+        this.configuration = configuration;
+        this.http = http;
+    }
+
     /**
      * Returns a BraintreeGateway specifically for Partner usage. Unless you are a partner, use the regular constructor instead.
      *
@@ -91,6 +96,15 @@ public class BraintreeGateway {
         return new BraintreeGateway(environment, partnerId, publicKey, privateKey);
     }
 
+    /**
+     * Returns a BraintreeGateway that shares this gateway's configuration but sends its calls
+     * with the given options, for example
+     * {@code gateway.withOptions(new RequestOptions().retryPolicy(RetryPolicy.none())).transaction().find(id)}.
+     */
+    public BraintreeGateway withOptions(RequestOptions options) {
+        return new BraintreeGateway(configuration, new Http(configuration, options));
+    }
+
     /**
      * Returns an {@link AddOnGateway} for interacting with {@link AddOn}
      * objects.
@@ -139,6 +153,16 @@ public class BraintreeGateway {
         return new CustomerGateway(http, configuration);
     }
 
+    /**
+     * Returns an {@link AsyncCustomerGateway} for interacting with {@link Customer}
+     * objects without blocking the calling thread.
+     *
+     * @return an {@link AsyncCustomerGateway}.
+     */
+    public AsyncCustomerGateway customerAsync() {
+        return new AsyncCustomerGateway(customer(), http, configuration);
+    }
+
     /**
      * Returns an {@link DiscountGateway} for interacting with {@link Discount}
      * objects.
@@ -171,6 +195,10 @@ public class BraintreeGateway {
         return new PaymentMethodGateway(http, configuration);
     }
 
+    public AsyncPaymentMethodGateway paymentMethodAsync() {
+        return new AsyncPaymentMethodGateway(paymentMethod(), http, configuration);
+    }
+
     public PaymentMethodNonceGateway paymentMethodNonce() {
         return new PaymentMethodNonceGateway(http, configuration);
     }
@@ -210,6 +238,16 @@ public class BraintreeGateway {
         return new SubscriptionGateway(http, configuration);
     }
 
+    /**
+     * Returns an {@link AsyncSubscriptionGateway} for interacting with
+     * {@link Subscription} objects without blocking the calling thread.
+     *
+     * @return an {@link AsyncSubscriptionGateway}.
+     */
+    public AsyncSubscriptionGateway subscriptionAsync() {
+        return new AsyncSubscriptionGateway(subscription(), http, configuration);
+    }
+
     /**
      * Returns an {@link TransactionGateway} for interacting with
      * {@link Transaction} objects.
@@ -220,6 +258,16 @@ public class BraintreeGateway {
         return new TransactionGateway(http, configuration);
     }
 
+    /**
+     * Returns an {@link AsyncTransactionGateway} for interacting with
+     * {@link Transaction} objects without blocking the calling thread.
+     *
+     * @return an {@link AsyncTransactionGateway}.
+     */
+    public AsyncTransactionGateway transactionAsync() {
+        return new AsyncTransactionGateway(transaction(), http, configuration);
+    }
+
     /**
      * Returns an {@link TransactionLineItemGateway} for interacting with
      * {@link TransactionLineItem} objects.
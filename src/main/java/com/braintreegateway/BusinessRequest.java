@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class BusinessRequest extends Request {
     private String dbaName;
     private String legalName;
@@ -50,6 +52,11 @@ public class BusinessRequest extends Request {
         return buildRequest("business").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("business").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
                 addElement("dbaName", dbaName).
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class ClientTokenOptionsRequest extends Request {
     private Boolean makeDefault;
     private Boolean verifyCard;
@@ -48,6 +50,11 @@ public class ClientTokenOptionsRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("makeDefault", makeDefault).
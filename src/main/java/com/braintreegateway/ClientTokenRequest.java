@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 /**
  * Provides a fluent interface to build up requests for client tokens, which are
  *   used to authenticate requests clients make directly on behalf of merchants
@@ -49,6 +51,11 @@ public class ClientTokenRequest extends Request {
         return buildRequest("clientToken").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("clientToken").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root);
 
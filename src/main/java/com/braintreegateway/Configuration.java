@@ -1,10 +1,22 @@
 package com.braintreegateway;
 
 import com.braintreegateway.exceptions.ConfigurationException;
+import com.braintreegateway.util.CircuitBreakerRegistry;
 import com.braintreegateway.util.ClientLibraryProperties;
+import com.braintreegateway.util.ConcurrencyLimiter;
+import com.braintreegateway.util.DaemonThreadFactory;
+import com.braintreegateway.util.HedgePolicy;
+import com.braintreegateway.util.HmacSigner;
+import com.braintreegateway.util.HttpTransport;
+import com.braintreegateway.util.PooledHttpTransport;
+import com.braintreegateway.util.RequestCoalescer;
+import com.braintreegateway.util.RetryPolicy;
+import com.braintreegateway.util.UrlConnectionTransport;
 
 import java.net.InetSocketAddress;
 import java.net.Proxy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,7 +30,26 @@ public class Configuration {
     private String clientSecret;
     private String merchantId;
     private String privateKey;
+    private HmacSigner hmacSigner;
+    private WebhookDeduplicationCache webhookDeduplicationCache;
+    private EntityCache entityCache;
+    private RequestCoalescer requestCoalescer;
+    private RetryPolicy retryPolicy;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private HedgePolicy hedgePolicy;
     private String publicKey;
+    private boolean connectionPoolEnabled;
+    private boolean indexedParsingEnabled;
+    private boolean lazyHydrationEnabled;
+    private boolean lazyWebhookParsingEnabled;
+    private boolean chunkedRequestsEnabled;
+    private int searchResultLimit;
+    private int maxConnectionsPerHost;
+    private int connectionIdleTimeout;
+    private int validateAfterInactivity;
+    private HttpTransport httpTransport;
+    private ExecutorService executorService;
     private static Logger logger;
 
     static {
@@ -80,6 +111,102 @@ public class Configuration {
         return privateKey;
     }
 
+    /**
+     * @return a signer keyed with the private key, which signs and verifies transparent redirect
+     * data and webhooks.
+     */
+    public synchronized HmacSigner getHmacSigner() {
+        if (hmacSigner == null) {
+            hmacSigner = HmacSigner.sha1(privateKey);
+        }
+        return hmacSigner;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * Caches the transactions, customers and payment methods returned by {@code find}. Null, the
+     * default, turns caching off.
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * Makes concurrent {@code find} calls for the same transaction, customer or payment method
+     * share one request. Null, the default, turns coalescing off.
+     */
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Retries idempotent requests that fail with a timeout, an I/O error or a 429, 500, 502, 503
+     * or 504 response. Null, the default, turns retries off.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Limits how many requests are sent to the gateway at once, adapting the limit to 429 and 503
+     * responses and to latency. Null, the default, sends every request straight away.
+     */
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakerRegistry() {
+        return circuitBreakerRegistry;
+    }
+
+    /**
+     * Fails calls fast, with a {@link com.braintreegateway.exceptions.CircuitBreakerOpenException},
+     * to endpoint families that have been failing or slow. Null, the default, turns circuit
+     * breaking off.
+     */
+    public void setCircuitBreakerRegistry(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    public HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
+
+    /**
+     * Sends a second copy of GETs that are slower than usual and takes whichever response comes
+     * first. Null, the default, turns hedging off.
+     */
+    public void setHedgePolicy(HedgePolicy hedgePolicy) {
+        this.hedgePolicy = hedgePolicy;
+    }
+
+    public WebhookDeduplicationCache getWebhookDeduplicationCache() {
+        return webhookDeduplicationCache;
+    }
+
+    /**
+     * Makes {@link WebhookNotificationGateway#parse(String, String)} reject payloads it has
+     * already parsed. Null, the default, turns deduplication off.
+     */
+    public void setWebhookDeduplicationCache(WebhookDeduplicationCache webhookDeduplicationCache) {
+        this.webhookDeduplicationCache = webhookDeduplicationCache;
+    }
+
     public String getPublicKey() {
         return publicKey;
     }
@@ -151,4 +278,132 @@ public class Configuration {
     public void setConnectTimeout(Integer timeout) {
         this.connectTimeout = timeout;
     }
+
+    public Boolean usesConnectionPool() {
+        return connectionPoolEnabled;
+    }
+
+    /**
+     * Keeps connections to the gateway open between requests so that TCP and TLS
+     * handshakes are not repeated on every call. Must be set before the first request.
+     */
+    public void setConnectionPoolEnabled(Boolean enabled) {
+        this.connectionPoolEnabled = enabled;
+    }
+
+    public Boolean usesIndexedParsing() {
+        return indexedParsingEnabled;
+    }
+
+    /**
+     * Parses responses and webhooks into {@link com.braintreegateway.util.IndexedNodeWrapper}s,
+     * which store each element's children in arrays and cache compiled path expressions, instead
+     * of the default {@link com.braintreegateway.util.SimpleNodeWrapper}s.
+     */
+    public void setIndexedParsingEnabled(Boolean enabled) {
+        this.indexedParsingEnabled = enabled;
+    }
+
+    public Boolean usesLazyHydration() {
+        return lazyHydrationEnabled;
+    }
+
+    /**
+     * Decodes only the core fields of transactions and customers returned by searches.
+     * Nested objects and the remaining fields are decoded the first time they are read.
+     */
+    public void setLazyHydrationEnabled(Boolean enabled) {
+        this.lazyHydrationEnabled = enabled;
+    }
+
+    /**
+     * The most ids a single search returns. Sharded transaction searches bisect any time
+     * window whose results reach this limit.
+     */
+    public int getSearchResultLimit() {
+        return (searchResultLimit == 0) ? 50000 : searchResultLimit;
+    }
+
+    public void setSearchResultLimit(Integer searchResultLimit) {
+        this.searchResultLimit = searchResultLimit;
+    }
+
+    public Boolean usesChunkedRequests() {
+        return chunkedRequestsEnabled;
+    }
+
+    public Boolean usesLazyWebhookParsing() {
+        return lazyWebhookParsingEnabled;
+    }
+
+    /**
+     * Decodes only the kind, timestamp and source merchant id of parsed webhooks. The subject is
+     * decoded the first time one of its getters is called.
+     */
+    public void setLazyWebhookParsingEnabled(Boolean enabled) {
+        this.lazyWebhookParsingEnabled = enabled;
+    }
+
+    /**
+     * Streams request XML to the gateway with chunked transfer encoding as it is written,
+     * instead of sending it with a Content-Length once it has been serialized.
+     */
+    public void setChunkedRequestsEnabled(Boolean enabled) {
+        this.chunkedRequestsEnabled = enabled;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return (maxConnectionsPerHost == 0) ? 20 : maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(Integer maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public int getConnectionIdleTimeout() {
+        return (connectionIdleTimeout == 0) ? 30000 : connectionIdleTimeout;
+    }
+
+    public void setConnectionIdleTimeout(Integer timeout) {
+        this.connectionIdleTimeout = timeout;
+    }
+
+    public int getValidateAfterInactivity() {
+        return (validateAfterInactivity == 0) ? 2000 : validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(Integer validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    /**
+     * Returns the transport used to talk to the gateway, creating a
+     * {@link PooledHttpTransport} if pooling is enabled and an
+     * {@link UrlConnectionTransport} otherwise.
+     */
+    public synchronized HttpTransport getHttpTransport() {
+        if (httpTransport == null) {
+            httpTransport = usesConnectionPool() ? new PooledHttpTransport(this) : new UrlConnectionTransport();
+        }
+        return httpTransport;
+    }
+
+    public synchronized void setHttpTransport(HttpTransport httpTransport) {
+        this.httpTransport = httpTransport;
+    }
+
+    /**
+     * Returns the executor that runs asynchronous gateway calls, creating a fixed pool of
+     * {@link #getMaxConnectionsPerHost()} daemon threads if none has been set.
+     */
+    public synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            executorService = Executors.newFixedThreadPool(getMaxConnectionsPerHost(), new DaemonThreadFactory("braintree-async"));
+        }
+        return executorService;
+    }
+
+    public synchronized void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
 }
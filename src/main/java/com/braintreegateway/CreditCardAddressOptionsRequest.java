@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class CreditCardAddressOptionsRequest extends Request {
 
     private CreditCardAddressRequest parent;
@@ -32,6 +34,11 @@ public class CreditCardAddressOptionsRequest extends Request {
     public String toXML() {
         return buildRequest("options").toXML();
     }
+
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
     
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
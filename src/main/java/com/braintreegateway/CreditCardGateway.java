@@ -56,7 +56,12 @@ public class CreditCardGateway {
      * @return a {@link Result}.
      */
     public Result<CreditCard> create(CreditCardRequest request) {
-        NodeWrapper node = http.post(configuration.getMerchantPath() + "/payment_methods", request);
+        NodeWrapper node;
+        try {
+            node = http.post(configuration.getMerchantPath() + "/payment_methods", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.CUSTOMER, request.getCustomerId());
+        }
         return new Result<CreditCard>(node, CreditCard.class);
     }
 
@@ -68,7 +73,11 @@ public class CreditCardGateway {
      * @return a {@link Result}.
      */
     public Result<CreditCard> delete(String token) {
-        http.delete(configuration.getMerchantPath() + "/payment_methods/credit_card/" + token);
+        try {
+            http.delete(configuration.getMerchantPath() + "/payment_methods/credit_card/" + token);
+        } finally {
+            EntityCache.invalidatePaymentMethod(configuration, token, null);
+        }
         return new Result<CreditCard>();
     }
 
@@ -140,7 +149,12 @@ public class CreditCardGateway {
      * @return a {@link Result}.
      */
     public Result<CreditCard> update(String token, CreditCardRequest request) {
-        NodeWrapper node = http.put(configuration.getMerchantPath() + "/payment_methods/credit_card/" + token, request);
+        NodeWrapper node = null;
+        try {
+            node = http.put(configuration.getMerchantPath() + "/payment_methods/credit_card/" + token, request);
+        } finally {
+            EntityCache.invalidatePaymentMethod(configuration, token, node == null ? null : node.findString("customer-id"));
+        }
         return new Result<CreditCard>(node, CreditCard.class);
     }
 
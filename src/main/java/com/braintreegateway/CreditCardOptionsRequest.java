@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class CreditCardOptionsRequest extends Request {
     private CreditCardRequest parent;
     private String verificationMerchantAccountId;
@@ -58,6 +60,11 @@ public class CreditCardOptionsRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("options");
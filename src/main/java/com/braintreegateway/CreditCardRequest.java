@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 /**
  * Provides a fluent interface to build up requests around {@link CreditCard CreditCards}.
  */
@@ -140,6 +142,11 @@ public class CreditCardRequest extends Request {
         return buildRequest("creditCard").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("creditCard").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("creditCard");
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class CreditCardVerificationBillingAddressRequest extends Request {
     private CreditCardVerificationCreditCardRequest parent;
     private String company;
@@ -88,6 +90,11 @@ public class CreditCardVerificationBillingAddressRequest extends Request {
         return buildRequest("billingAddress").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("billingAddress").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root).
             addElement("company", company).
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class CreditCardVerificationCreditCardRequest extends Request {
     private CreditCardVerificationRequest parent;
     private String cardholderName;
@@ -58,6 +60,11 @@ public class CreditCardVerificationCreditCardRequest extends Request {
         return buildRequest("creditCard").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("creditCard").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("cardholderName", cardholderName).
@@ -5,6 +5,7 @@ import com.braintreegateway.util.Http;
 import com.braintreegateway.util.NodeWrapper;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class CreditCardVerificationGateway {
@@ -16,9 +17,10 @@ public class CreditCardVerificationGateway {
         this.http = http;
     }
 
-    List<CreditCardVerification> fetchCreditCardVerifications(CreditCardVerificationSearchRequest query, List<String> ids) {
-        query.ids().in(ids);
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/verifications/advanced_search", query);
+    List<CreditCardVerification> fetchCreditCardVerifications(PreparedSearch query, List<String> ids) {
+        String request = query.toXML(ids);
+
+        NodeWrapper response = http.post(configuration.getMerchantPath() + "/verifications/advanced_search", request);
 
         List<CreditCardVerification> items = new ArrayList<CreditCardVerification>();
         for (NodeWrapper node : response.findAll("verification")) {
@@ -35,6 +37,21 @@ public class CreditCardVerificationGateway {
         return new CreditCardVerification(http.get(configuration.getMerchantPath() + "/verifications/" + id));
     }
 
+    /**
+     * Finds many {@link CreditCardVerification CreditCardVerifications} by id, with one search request per page of ids. The
+     * pages are fetched concurrently on the {@link Configuration#getExecutorService() configured
+     * executor}.
+     * @param ids the ids of the {@link CreditCardVerification CreditCardVerifications}.
+     * @return a {@link FindManyResult} holding the {@link CreditCardVerification CreditCardVerifications} found and the ids that were not.
+     */
+    public FindManyResult<CreditCardVerification> findMany(Collection<String> ids) {
+        return new BatchFinder<CreditCardVerification>(new CreditCardVerificationPager(this, new CreditCardVerificationSearchRequest()), configuration.getExecutorService()) {
+            String idOf(CreditCardVerification verification) {
+                return verification.getId();
+            }
+        }.find(ids);
+    }
+
     public ResourceCollection<CreditCardVerification> search(CreditCardVerificationSearchRequest query) {
         NodeWrapper node = http.post(configuration.getMerchantPath() + "/verifications/advanced_search_ids", query);
         return new ResourceCollection<CreditCardVerification>(new CreditCardVerificationPager(this, query), node);
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class CreditCardVerificationOptionsRequest extends Request {
     private CreditCardVerificationRequest parent;
     private String merchantAccountId;
@@ -28,6 +30,11 @@ public class CreditCardVerificationOptionsRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root).
             addElement("merchantAccountId", merchantAccountId).
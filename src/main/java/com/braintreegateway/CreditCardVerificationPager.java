@@ -4,11 +4,11 @@ import java.util.List;
 
 public class CreditCardVerificationPager implements Pager<CreditCardVerification> {
     private CreditCardVerificationGateway gateway;
-    private CreditCardVerificationSearchRequest query;
+    private PreparedSearch query;
 
     public CreditCardVerificationPager(CreditCardVerificationGateway gateway, CreditCardVerificationSearchRequest query) {
         this.gateway = gateway;
-        this.query = query;
+        this.query = query.prepare();
     }
 
     public List<CreditCardVerification> getPage(List<String> ids) {
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class CreditCardVerificationRequest extends Request {
 
     private CreditCardVerificationCreditCardRequest creditCardRequest;
@@ -23,6 +25,11 @@ public class CreditCardVerificationRequest extends Request {
         return buildRequest("verification").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("verification").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root).
             addElement("creditCard", creditCardRequest).
@@ -29,7 +29,19 @@ public class Customer {
     private List<UsBankAccount> usBankAccounts;
     private List<Address> addresses;
 
+    private volatile NodeWrapper detailsNode;
+
     public Customer(NodeWrapper node) {
+        this(node, false);
+    }
+
+    /**
+     * @param lazy
+     *            if true, only the identifiers, contact fields and timestamps are decoded now;
+     *            everything else is decoded from the retained node the first
+     *            time one of its getters is called.
+     */
+    Customer(NodeWrapper node, boolean lazy) {
         id = node.findString("id");
         firstName = node.findString("first-name");
         lastName = node.findString("last-name");
@@ -40,6 +52,14 @@ public class Customer {
         website = node.findString("website");
         createdAt = node.findDateTime("created-at");
         updatedAt = node.findDateTime("updated-at");
+        if (lazy) {
+            detailsNode = node;
+        } else {
+            decodeDetails(node);
+        }
+    }
+
+    private void decodeDetails(NodeWrapper node) {
         customFields = node.findMap("custom-fields/*");
         creditCards = new ArrayList<CreditCard>();
         for (NodeWrapper creditCardResponse : node.findAll("credit-cards/credit-card")) {
@@ -87,6 +107,17 @@ public class Customer {
         }
     }
 
+    private void hydrate() {
+        if (detailsNode != null) {
+            synchronized (this) {
+                if (detailsNode != null) {
+                    decodeDetails(detailsNode);
+                    detailsNode = null;
+                }
+            }
+        }
+    }
+
     public Calendar getCreatedAt() {
         return createdAt;
     }
@@ -104,6 +135,7 @@ public class Customer {
     }
 
     public Map<String, String> getCustomFields() {
+        hydrate();
         return customFields;
     }
 
@@ -132,46 +164,57 @@ public class Customer {
     }
 
     public List<Address> getAddresses() {
+        hydrate();
         return Collections.unmodifiableList(addresses);
     }
 
     public List<CreditCard> getCreditCards() {
+        hydrate();
         return Collections.unmodifiableList(creditCards);
     }
 
     public List<PayPalAccount> getPayPalAccounts() {
+        hydrate();
         return Collections.unmodifiableList(paypalAccounts);
     }
 
     public List<CoinbaseAccount> getCoinbaseAccounts() {
+        hydrate();
         return Collections.unmodifiableList(coinbaseAccounts);
     }
 
     public List<ApplePayCard> getApplePayCards() {
+        hydrate();
         return Collections.unmodifiableList(applePayCards);
     }
 
     public List<AndroidPayCard> getAndroidPayCards() {
+        hydrate();
         return Collections.unmodifiableList(androidPayCards);
     }
 
     public List<AmexExpressCheckoutCard> getAmexExpressCheckoutCards() {
+        hydrate();
         return Collections.unmodifiableList(amexExpressCheckoutCards);
     }
 
     public List<VenmoAccount> getVenmoAccounts() {
+        hydrate();
         return Collections.unmodifiableList(venmoAccounts);
     }
 
     public List<VisaCheckoutCard> getVisaCheckoutCards() {
+        hydrate();
         return Collections.unmodifiableList(visaCheckoutCards);
     }
 
     public List<MasterpassCard> getMasterpassCards() {
+        hydrate();
         return Collections.unmodifiableList(masterpassCards);
     }
 
     public List<UsBankAccount> getUsBankAccounts() {
+        hydrate();
         return Collections.unmodifiableList(usBankAccounts);
     }
 
@@ -2,9 +2,11 @@ package com.braintreegateway;
 
 import com.braintreegateway.exceptions.NotFoundException;
 import com.braintreegateway.util.Http;
+import com.braintreegateway.util.NodeBinder;
 import com.braintreegateway.util.NodeWrapper;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -22,10 +24,33 @@ import java.util.List;
 public class CustomerGateway {
     private Configuration configuration;
     private Http http;
+    private boolean streamingBinding;
 
     public CustomerGateway(Http http, Configuration configuration) {
-        this.configuration = configuration;
+        this(http, configuration, false);
+    }
+
+    private CustomerGateway(Http http, Configuration configuration, boolean streamingBinding) {
         this.http = http;
+        this.configuration = configuration;
+        this.streamingBinding = streamingBinding;
+    }
+
+    /**
+     * Returns a copy of this gateway that binds search results record by record while each page
+     * is being read, instead of first parsing the whole page into one node tree. Each record is
+     * still read into its own node tree and decoded by the usual constructor, so this limits
+     * how much of a page is held at once rather than the number of nodes built.
+     */
+    public CustomerGateway withStreamingBinding() {
+        return new CustomerGateway(http, configuration, true);
+    }
+
+    /**
+     * Returns a copy of this gateway that sends its calls through {@code http}.
+     */
+    CustomerGateway withHttp(Http http) {
+        return new CustomerGateway(http, configuration, streamingBinding);
     }
 
     /**
@@ -38,13 +63,18 @@ public class CustomerGateway {
         return new ResourceCollection<Customer>(new CustomerPager(this, new CustomerSearchRequest()), response);
     }
 
-    List<Customer> fetchCustomers(CustomerSearchRequest query, List<String> ids) {
-        query.ids().in(ids);
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/customers/advanced_search", query);
+    List<Customer> fetchCustomers(PreparedSearch query, List<String> ids) {
+        String request = query.toXML(ids);
+
+        if (streamingBinding) {
+            return http.postForRecords(configuration.getMerchantPath() + "/customers/advanced_search", request, null, "customer", customerBinder());
+        }
+
+        NodeWrapper response = http.post(configuration.getMerchantPath() + "/customers/advanced_search", request);
 
         List<Customer> items = new ArrayList<Customer>();
         for (NodeWrapper node : response.findAll("customer")) {
-            items.add(new Customer(node));
+            items.add(new Customer(node, configuration.usesLazyHydration()));
         }
 
         return items;
@@ -80,7 +110,11 @@ public class CustomerGateway {
      * @return a {@link Result}.
      */
     public Result<Customer> delete(String id) {
-        http.delete(configuration.getMerchantPath() + "/customers/" + id);
+        try {
+            http.delete(configuration.getMerchantPath() + "/customers/" + id);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.CUSTOMER, id);
+        }
         return new Result<Customer>();
     }
 
@@ -96,7 +130,7 @@ public class CustomerGateway {
         if(id == null || id.trim().equals(""))
             throw new NotFoundException();
 
-        return new Customer(http.get(configuration.getMerchantPath() + "/customers/" + id));
+        return new Customer(EntityCache.readThrough(configuration, http, EntityCache.CUSTOMER, id, configuration.getMerchantPath() + "/customers/" + id));
     }
 
     /**
@@ -120,6 +154,21 @@ public class CustomerGateway {
         return new Customer(http.get(configuration.getMerchantPath() + "/customers/" + id + queryParams));
     }
 
+    /**
+     * Finds many {@link Customer Customers} by id, with one search request per page of ids. The
+     * pages are fetched concurrently on the {@link Configuration#getExecutorService() configured
+     * executor}.
+     * @param ids the ids of the {@link Customer Customers}.
+     * @return a {@link FindManyResult} holding the {@link Customer Customers} found and the ids that were not.
+     */
+    public FindManyResult<Customer> findMany(Collection<String> ids) {
+        return new BatchFinder<Customer>(new CustomerPager(this, new CustomerSearchRequest()), configuration.getExecutorService()) {
+            String idOf(Customer customer) {
+                return customer.getId();
+            }
+        }.find(ids);
+    }
+
     /**
      * Finds all Transactions that match the query and returns a {@link ResourceCollection}.
      * See: <a href="https://developers.braintreepayments.com/reference/request/transaction/search/java" target="_blank">https://developers.braintreepayments.com/reference/request/transaction/search/java</a>
@@ -156,8 +205,21 @@ public class CustomerGateway {
      * @return a {@link Result}.
      */
     public Result<Customer> update(String id, CustomerRequest request) {
-        NodeWrapper node = http.put(configuration.getMerchantPath() + "/customers/" + id, request);
+        NodeWrapper node;
+        try {
+            node = http.put(configuration.getMerchantPath() + "/customers/" + id, request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.CUSTOMER, id);
+        }
         return new Result<Customer>(node, Customer.class);
     }
 
+    private NodeBinder<Customer> customerBinder() {
+        final boolean lazy = configuration.usesLazyHydration();
+        return new NodeBinder<Customer>() {
+            public Customer bind(NodeWrapper node) {
+                return new Customer(node, lazy);
+            }
+        };
+    }
 }
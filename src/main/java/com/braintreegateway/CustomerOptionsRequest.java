@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class CustomerOptionsRequest extends Request {
     private CustomerRequest parent;
     private CustomerOptionsPayPalRequest customerOptionsPayPalRequest;
@@ -24,6 +26,11 @@ public class CustomerOptionsRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("paypal", customerOptionsPayPalRequest);
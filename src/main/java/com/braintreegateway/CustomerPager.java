@@ -4,11 +4,11 @@ import java.util.List;
 
 public class CustomerPager implements Pager<Customer> {
     private CustomerGateway gateway;
-    private CustomerSearchRequest query;
+    private PreparedSearch query;
 
     public CustomerPager(CustomerGateway gateway, CustomerSearchRequest query) {
         this.gateway = gateway;
-        this.query = query;
+        this.query = query.prepare();
     }
 
     public List<Customer> getPage(List<String> ids) {
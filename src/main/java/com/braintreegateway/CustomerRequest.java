@@ -1,5 +1,6 @@
 package com.braintreegateway;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -149,6 +150,11 @@ public class CustomerRequest extends Request {
         return buildRequest("customer").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("customer").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("customer");
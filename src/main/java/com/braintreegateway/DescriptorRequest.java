@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public abstract class DescriptorRequest extends Request {
 
     protected String name;
@@ -30,6 +32,11 @@ public abstract class DescriptorRequest extends Request {
         return buildRequest("descriptor").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("descriptor").writeXML(writer);
+    }
+
     @Override
     public String toQueryString(String root) {
         return buildRequest(root).toQueryString();
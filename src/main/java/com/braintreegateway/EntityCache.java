@@ -0,0 +1,346 @@
+package com.braintreegateway;
+
+import com.braintreegateway.util.Http;
+import com.braintreegateway.util.NodeWrapper;
+import com.braintreegateway.util.RequestCoalescer;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the responses of recent {@code find} calls on the transaction, customer and payment
+ * method gateways so that repeated lookups of the same id skip the round trip. Entries expire
+ * after a fixed time, and the least recently used entries are evicted once the cache is full.
+ * <p>
+ * The cache holds parsed responses rather than domain objects, so every {@code find} returns a
+ * new object and callers never share one. Entries are invalidated by the gateways' own updates,
+ * voids, refunds and deletes, and by webhooks parsed with the same {@link Configuration}. Changes
+ * made by other processes are seen once the entry expires.
+ * <p>
+ * Set on a {@link Configuration} with {@link Configuration#setEntityCache(EntityCache)}.
+ */
+public class EntityCache {
+    static final String TRANSACTION = "transaction";
+    static final String CUSTOMER = "customer";
+    static final String PAYMENT_METHOD = "payment_method";
+
+    private static final int NODE_OVERHEAD = 64;
+
+    private static class Entry {
+        private final NodeWrapper node;
+        private final long expiresAt;
+        private final long size;
+
+        Entry(NodeWrapper node, long expiresAt, long size) {
+            this.node = node;
+            this.expiresAt = expiresAt;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The loads of one entity in flight. A load invalidated before it completes was perhaps
+     * answered before the change, so its response is not cached.
+     */
+    private static class Load {
+        private int pending;
+        private boolean invalidated;
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, Load> loads = new HashMap<String, Load>();
+    private long memoryUsage;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public EntityCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = unit.toMillis(ttl);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    }
+
+    /**
+     * Fetches {@code url} unless the configuration has a cache holding the entity, sharing the
+     * request with concurrent callers if the configuration has a {@link RequestCoalescer}.
+     */
+    static NodeWrapper readThrough(Configuration configuration, Http http, String type, String id, String url) {
+        EntityCache cache = configuration.getEntityCache();
+        if (cache == null) {
+            return fetch(configuration, http, url);
+        }
+        NodeWrapper node = cache.get(type, id);
+        if (node != null) {
+            return node;
+        }
+        Load load = cache.startLoad(type, id);
+        try {
+            node = fetch(configuration, http, url);
+        } finally {
+            cache.finishLoad(type, id, load, node);
+        }
+        return node;
+    }
+
+    private static NodeWrapper fetch(Configuration configuration, Http http, String url) {
+        RequestCoalescer coalescer = configuration.getRequestCoalescer();
+        if (coalescer == null) {
+            return http.get(url);
+        }
+        return coalescer.get(http, url);
+    }
+
+    static void invalidate(Configuration configuration, String type, String id) {
+        EntityCache cache = configuration.getEntityCache();
+        if (cache != null) {
+            cache.invalidate(type, id);
+        }
+    }
+
+    /**
+     * Drops a cached payment method and the cached customer that owns it, if any.
+     */
+    static void invalidatePaymentMethod(Configuration configuration, String token, String customerId) {
+        EntityCache cache = configuration.getEntityCache();
+        if (cache != null) {
+            cache.invalidatePaymentMethod(token, customerId);
+        }
+    }
+
+    NodeWrapper get(String type, String id) {
+        String key = key(type, id);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= now) {
+                remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.node;
+        }
+    }
+
+    void put(String type, String id, NodeWrapper node) {
+        Entry entry = newEntry(node);
+        synchronized (entries) {
+            store(key(type, id), entry);
+        }
+    }
+
+    /**
+     * Registers a load of an entity that is not cached. Every call must be followed by
+     * {@link #finishLoad(String, String, Load, NodeWrapper)}.
+     */
+    Load startLoad(String type, String id) {
+        String key = key(type, id);
+        synchronized (entries) {
+            Load load = loads.get(key);
+            if (load == null) {
+                load = new Load();
+                loads.put(key, load);
+            }
+            load.pending++;
+            return load;
+        }
+    }
+
+    /**
+     * Caches {@code node}, the response of a load, unless the entity was invalidated while this
+     * or another load of it was in flight. A load that joins a coalesced request started before
+     * the invalidation overlaps that request's load, so its response is not cached either.
+     */
+    void finishLoad(String type, String id, Load load, NodeWrapper node) {
+        String key = key(type, id);
+        Entry entry = node == null ? null : newEntry(node);
+        synchronized (entries) {
+            if (entry != null && !load.invalidated) {
+                store(key, entry);
+            }
+            if (--load.pending == 0) {
+                loads.remove(key);
+            }
+        }
+    }
+
+    void invalidate(String type, String id) {
+        if (id == null) {
+            return;
+        }
+        synchronized (entries) {
+            invalidateKey(key(type, id));
+        }
+    }
+
+    /**
+     * Drops the cached payment method {@code token} and its owner: {@code customerId} if given,
+     * else the customer named by the cached payment method, else every cached customer that
+     * lists the token.
+     */
+    void invalidatePaymentMethod(String token, String customerId) {
+        if (token == null) {
+            return;
+        }
+        synchronized (entries) {
+            Entry paymentMethod = entries.get(key(PAYMENT_METHOD, token));
+            invalidateKey(key(PAYMENT_METHOD, token));
+            if (customerId == null && paymentMethod != null) {
+                customerId = paymentMethod.node.findString("customer-id");
+            }
+            if (customerId != null) {
+                invalidateKey(key(CUSTOMER, customerId));
+                return;
+            }
+            invalidateLoads(CUSTOMER + "/");
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> entry = iterator.next();
+                if (entry.getKey().startsWith(CUSTOMER + "/") && entry.getValue().node.findAllStrings("*/*/token").contains(token)) {
+                    memoryUsage -= entry.getValue().size;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the cached transactions and payment methods a webhook reports a change to. The ids
+     * are read from the webhook's parsed payload, so that the subject of a lazily parsed
+     * notification is not decoded.
+     */
+    void invalidateSubject(NodeWrapper notification) {
+        for (String subject : new String[] { "subject/", "subject/api-error-response/" }) {
+            invalidate(TRANSACTION, notification.findString(subject + "transaction/id"));
+            invalidate(TRANSACTION, notification.findString(subject + "dispute/transaction/id"));
+            invalidateTransactions(notification.findAllStrings(subject + "disbursement/transaction-ids/item"));
+            invalidateTransactions(notification.findAllStrings(subject + "subscription/transactions/transaction/id"));
+            invalidate(PAYMENT_METHOD, notification.findString(subject + "granted-payment-instrument-update/token"));
+        }
+    }
+
+    private void invalidateTransactions(List<String> ids) {
+        if (ids != null) {
+            for (String id : ids) {
+                invalidate(TRANSACTION, id);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            memoryUsage = 0;
+            invalidateLoads("");
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return an estimate, in bytes, of the memory held by the cached responses.
+     */
+    public long getEstimatedMemoryUsage() {
+        synchronized (entries) {
+            return memoryUsage;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, or 0 before the first lookup.
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private Entry newEntry(NodeWrapper node) {
+        return new Entry(node, System.currentTimeMillis() + ttlMillis, estimateSize(node));
+    }
+
+    private void store(String key, Entry entry) {
+        remove(key);
+        entries.put(key, entry);
+        memoryUsage += entry.size;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries) {
+            memoryUsage -= eldest.next().size;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void invalidateKey(String key) {
+        remove(key);
+        Load load = loads.get(key);
+        if (load != null) {
+            load.invalidated = true;
+        }
+    }
+
+    private void invalidateLoads(String prefix) {
+        for (Map.Entry<String, Load> load : loads.entrySet()) {
+            if (load.getKey().startsWith(prefix)) {
+                load.getValue().invalidated = true;
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            memoryUsage -= removed.size;
+        }
+    }
+
+    private static String key(String type, String id) {
+        return type + "/" + id;
+    }
+
+    private static long estimateSize(NodeWrapper node) {
+        long size = NODE_OVERHEAD + 2L * node.getElementName().length();
+        List<NodeWrapper> children = node.findAll("*");
+        if (children.isEmpty()) {
+            String value = node.findString(".");
+            if (value != null) {
+                size += 2L * value.length();
+            }
+        } else {
+            for (NodeWrapper child : children) {
+                size += estimateSize(child);
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,35 @@
+package com.braintreegateway;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of looking up many records by id: the records found, keyed by id in the order
+ * the ids were given, and the ids that matched no record.
+ */
+public class FindManyResult<T> {
+    private final Map<String, T> found;
+    private final List<String> missingIds;
+
+    FindManyResult(Map<String, T> found, List<String> missingIds) {
+        this.found = Collections.unmodifiableMap(found);
+        this.missingIds = Collections.unmodifiableList(missingIds);
+    }
+
+    public Map<String, T> getFound() {
+        return found;
+    }
+
+    public T get(String id) {
+        return found.get(id);
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+
+    public boolean isComplete() {
+        return missingIds.isEmpty();
+    }
+}
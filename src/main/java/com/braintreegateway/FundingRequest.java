@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 import com.braintreegateway.MerchantAccount.FundingDestination;
 
 public class FundingRequest extends Request {
@@ -64,6 +66,11 @@ public class FundingRequest extends Request {
         return buildRequest("funding").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("funding").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
                 addElement("destination", destination).
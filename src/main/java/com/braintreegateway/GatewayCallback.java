@@ -0,0 +1,17 @@
+package com.braintreegateway;
+
+/**
+ * Receives the outcome of a {@link GatewayFuture}.
+ *
+ * @param <T>
+ *            type of the result, e.g. a {@link Result} of {@link Transaction}.
+ */
+public interface GatewayCallback<T> {
+    void onSuccess(T result);
+
+    /**
+     * Called with the exception thrown by the gateway call, or with a
+     * {@link java.util.concurrent.CancellationException} if the call was cancelled.
+     */
+    void onFailure(Throwable cause);
+}
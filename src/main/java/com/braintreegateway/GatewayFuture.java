@@ -0,0 +1,117 @@
+package com.braintreegateway;
+
+import com.braintreegateway.exceptions.TimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The pending result of an asynchronous gateway call. Use {@link #get()} to wait for it,
+ * {@link #cancel(boolean)} to abandon it, or {@link #addCallback(GatewayCallback)} to be
+ * notified without blocking a thread.
+ *
+ * @param <T>
+ *            type of the result, e.g. a {@link Result} of {@link Transaction}.
+ */
+public class GatewayFuture<T> extends FutureTask<T> {
+    private final List<GatewayCallback<T>> callbacks;
+    private Thread runner;
+    private boolean runnerExpired;
+
+    public GatewayFuture(Callable<T> callable) {
+        super(callable);
+        this.callbacks = new ArrayList<GatewayCallback<T>>();
+    }
+
+    /**
+     * Registers a callback that runs once this future completes. If it has already
+     * completed the callback runs immediately on the calling thread, otherwise it runs on
+     * the thread that completes the future.
+     */
+    public void addCallback(GatewayCallback<T> callback) {
+        synchronized (callbacks) {
+            if (!isDone()) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        notify(callback);
+    }
+
+    /**
+     * Runs the call. If {@link #expire(String)} interrupted the thread, the interrupt is cleared
+     * again so that it does not leak into the next task on a pooled thread; any other interrupt,
+     * such as one from shutting the pool down, is kept.
+     */
+    @Override
+    public void run() {
+        boolean interrupted;
+        synchronized (callbacks) {
+            runner = Thread.currentThread();
+            interrupted = runner.isInterrupted();
+        }
+        try {
+            super.run();
+        } finally {
+            synchronized (callbacks) {
+                runner = null;
+                if (runnerExpired) {
+                    Thread.interrupted();
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Fails the call with a {@link TimeoutException} if it has not completed yet, and interrupts
+     * the thread running it so that it stops waiting on a connection, a retry or a queue.
+     */
+    void expire(String message) {
+        if (!isDone()) {
+            setException(new TimeoutException(message));
+            synchronized (callbacks) {
+                if (runner != null) {
+                    runnerExpired = true;
+                    runner.interrupt();
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void done() {
+        List<GatewayCallback<T>> pending;
+        synchronized (callbacks) {
+            pending = new ArrayList<GatewayCallback<T>>(callbacks);
+            callbacks.clear();
+        }
+        for (GatewayCallback<T> callback : pending) {
+            notify(callback);
+        }
+    }
+
+    private void notify(GatewayCallback<T> callback) {
+        T result;
+        try {
+            result = get();
+        } catch (ExecutionException e) {
+            callback.onFailure(e.getCause());
+            return;
+        } catch (CancellationException e) {
+            callback.onFailure(e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            callback.onFailure(e);
+            return;
+        }
+        callback.onSuccess(result);
+    }
+}
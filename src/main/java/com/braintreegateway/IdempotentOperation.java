@@ -0,0 +1,163 @@
+package com.braintreegateway;
+
+import com.braintreegateway.exceptions.AmbiguousOutcomeException;
+import com.braintreegateway.exceptions.BraintreeException;
+import com.braintreegateway.exceptions.CircuitBreakerOpenException;
+import com.braintreegateway.exceptions.ConcurrencyLimitExceededException;
+import com.braintreegateway.exceptions.ConnectionPoolTimeoutException;
+import com.braintreegateway.exceptions.DeadlineExceededException;
+import com.braintreegateway.exceptions.DownForMaintenanceException;
+import com.braintreegateway.exceptions.ServerException;
+import com.braintreegateway.exceptions.TimeoutException;
+import com.braintreegateway.exceptions.UnexpectedException;
+import com.braintreegateway.util.Http;
+import com.braintreegateway.util.RetryPolicy;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Calendar;
+import java.util.logging.Level;
+
+/**
+ * Makes a call that changes a transaction without making it twice. A call that provably never
+ * reached the gateway, because the connection could not be made, no pooled connection became free
+ * or the call was stopped by the circuit breaker or concurrency limiter, is retried, paced and
+ * budgeted by the configured {@link RetryPolicy} or a default one. A call that fails without saying
+ * whether it took effect, with a timeout, an I/O error or a 5xx response, may still be in progress
+ * and searches lag behind, so its outcome is first looked up with {@link #findOutcome()} until it
+ * is found or the configured read timeout has passed. Only then is the call sent again, within the
+ * same retry budget; once the budget or the call's deadline runs out,
+ * {@link AmbiguousOutcomeException} is thrown.
+ */
+abstract class IdempotentOperation<T> {
+    /**
+     * How far the gateway's clock may be behind ours when looking for transactions created since
+     * the first attempt.
+     */
+    static final int CLOCK_SKEW_SECONDS = 300;
+
+    /**
+     * The longest pause between lookups of an unknown outcome, in milliseconds.
+     */
+    static final long RECHECK_INTERVAL = 1000;
+
+    private static final RetryPolicy DEFAULT_RETRY_POLICY = new RetryPolicy();
+
+    private final Configuration configuration;
+    private final Http http;
+    private final String idempotencyKey;
+    private final Calendar startedAt;
+
+    IdempotentOperation(Configuration configuration, Http http, String idempotencyKey) {
+        this.configuration = configuration;
+        this.http = http;
+        this.idempotencyKey = idempotencyKey;
+        this.startedAt = Calendar.getInstance();
+        this.startedAt.add(Calendar.SECOND, -CLOCK_SKEW_SECONDS);
+    }
+
+    abstract Result<T> attempt();
+
+    /**
+     * @return the result of an earlier attempt that took effect, or null if none has been found.
+     */
+    abstract Result<T> findOutcome();
+
+    /**
+     * @return the time from which an earlier attempt's transaction may have been created.
+     */
+    Calendar getStartedAt() {
+        return (Calendar) startedAt.clone();
+    }
+
+    Result<T> execute() {
+        RetryPolicy retryPolicy = configuration.getRetryPolicy() == null ? DEFAULT_RETRY_POLICY : configuration.getRetryPolicy();
+        BraintreeException ambiguousFailure = null;
+        for (int retry = 0; ; retry++) {
+            try {
+                return attempt();
+            } catch (BraintreeException e) {
+                if (isAmbiguous(e)) {
+                    ambiguousFailure = e;
+                    Result<T> outcome = awaitOutcome(e);
+                    if (outcome != null) {
+                        return outcome;
+                    }
+                } else if (!isUndelivered(e)) {
+                    throw giveUp(e, ambiguousFailure);
+                }
+                long delay = retryPolicy.delayBeforeRetry(retry, -1);
+                if (delay < 0 || delay >= http.getRemainingTime()) {
+                    throw giveUp(e, ambiguousFailure);
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw giveUp(e, ambiguousFailure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up the outcome of an attempt that failed with {@code failure} until it is found or the
+     * read timeout or the call's deadline has passed, so that an attempt still being processed has
+     * time to show up.
+     *
+     * @return the outcome, or null if it was not found in time.
+     */
+    private Result<T> awaitOutcome(BraintreeException failure) {
+        long deadline = System.currentTimeMillis() + Math.min(configuration.getTimeout(), http.getRemainingTime());
+        while (true) {
+            try {
+                Result<T> outcome = findOutcome();
+                if (outcome != null) {
+                    configuration.getLogger().log(Level.FINE, "[Braintree] found the outcome of a call that failed with {0}", failure.toString());
+                    return outcome;
+                }
+            } catch (BraintreeException lookupFailure) {
+                configuration.getLogger().log(Level.FINE, "[Braintree] could not look up the outcome of a call: {0}", lookupFailure.toString());
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return null;
+            }
+            try {
+                Thread.sleep(Math.min(remaining, RECHECK_INTERVAL));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new AmbiguousOutcomeException(idempotencyKey, failure);
+            }
+        }
+    }
+
+    /**
+     * @return the exception to throw when no more attempts are made after {@code failure}: an
+     *         {@link AmbiguousOutcomeException} if an earlier attempt may have taken effect.
+     */
+    private BraintreeException giveUp(BraintreeException failure, BraintreeException ambiguousFailure) {
+        return ambiguousFailure == null ? failure : new AmbiguousOutcomeException(idempotencyKey, ambiguousFailure);
+    }
+
+    private static boolean isAmbiguous(BraintreeException e) {
+        if (isUndelivered(e) || e instanceof DeadlineExceededException) {
+            return false;
+        }
+        return e instanceof TimeoutException || e instanceof ServerException || e instanceof DownForMaintenanceException
+            || e instanceof UnexpectedException;
+    }
+
+    /**
+     * @return true if the call failed before any of it was sent to the gateway.
+     */
+    private static boolean isUndelivered(BraintreeException e) {
+        if (e instanceof CircuitBreakerOpenException || e instanceof ConcurrencyLimitExceededException || e instanceof ConnectionPoolTimeoutException) {
+            return true;
+        }
+        Throwable cause = e.getCause();
+        return e instanceof UnexpectedException
+            && (cause instanceof ConnectException || cause instanceof NoRouteToHostException || cause instanceof UnknownHostException);
+    }
+}
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class IndividualRequest extends Request {
     private String firstName;
     private String lastName;
@@ -68,6 +70,11 @@ public class IndividualRequest extends Request {
         return buildRequest("individual").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("individual").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
                 addElement("firstName", firstName).
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public abstract class IndustryRequest extends Request {
 
     protected Transaction.IndustryType industryType;
@@ -24,6 +26,11 @@ public abstract class IndustryRequest extends Request {
         return buildRequest("industry").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("industry").writeXML(writer);
+    }
+
     @Override
     public String toQueryString(String root) {
         return buildRequest(root).toQueryString();
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class MerchantAccountCreateForCurrencyRequest extends Request {
 
     private String currency;
@@ -20,6 +22,11 @@ public class MerchantAccountCreateForCurrencyRequest extends Request {
         return buildRequest("merchant_account").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("merchant_account").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
                 addElement("currency", currency).
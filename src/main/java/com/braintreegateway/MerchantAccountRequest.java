@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 /**
  * Provides a fluent interface to build up requests around {@link MerchantAccount MerchantAccounts}.
  */
@@ -63,6 +65,11 @@ public class MerchantAccountRequest extends Request {
         return buildRequest("merchant_account").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("merchant_account").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
                 addElement("applicantDetails", applicantDetails).
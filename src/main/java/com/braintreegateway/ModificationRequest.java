@@ -1,5 +1,6 @@
 package com.braintreegateway;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 
 public class ModificationRequest extends Request {
@@ -43,6 +44,11 @@ public class ModificationRequest extends Request {
         return buildRequest("modification").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("modification").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("amount", amount).
@@ -3,6 +3,7 @@ package com.braintreegateway;
 import com.braintreegateway.util.NodeWrapper;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -54,14 +55,95 @@ public class PaginatedCollection<T> implements Iterable<T> {
         }
     }
 
+    private class PageRangeIterator implements Iterator<T> {
+        private int nextPage;
+        private int index;
+        private List<T> items;
+
+        public PageRangeIterator() {
+            this.nextPage = firstPage;
+            this.index = 0;
+            this.items = Collections.emptyList();
+        }
+
+        public boolean hasNext() {
+            while (index == items.size() && nextPage <= lastPage) {
+                PaginatedResult<T> results = nextPage == firstPage && firstResult != null ? firstResult : pager.getPage(nextPage);
+                this.items = results.getCurrentPage();
+                this.index = 0;
+                this.nextPage++;
+            }
+
+            return index < items.size();
+        }
+
+        public T next() {
+            T item = items.get(index);
+            index++;
+            return item;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     private SimplePager<T> pager;
     private int pageSize;
+    private int firstPage;
+    private int lastPage;
+    private PaginatedResult<T> firstResult;
 
     public PaginatedCollection(SimplePager<T> pager) {
         this.pager = pager;
     }
 
+    private PaginatedCollection(SimplePager<T> pager, int firstPage, int lastPage, PaginatedResult<T> firstResult) {
+        this.pager = pager;
+        this.firstPage = firstPage;
+        this.lastPage = lastPage;
+        this.firstResult = firstResult;
+    }
+
     public Iterator<T> iterator() {
+        if (lastPage > 0) {
+            return new PageRangeIterator();
+        }
         return new PagedIterator<T>(this);
     }
+
+    /**
+     * Splits this collection into at most {@code parts} collections over consecutive runs of
+     * pages. Each part fetches only its own pages and can be iterated on a separate thread;
+     * together, in order, they return the same items as this collection. The first page is
+     * fetched immediately to learn the size of the collection. Splitting a part divides only
+     * that part's pages, without fetching any.
+     */
+    public List<PaginatedCollection<T>> split(int parts) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("parts must be at least 1");
+        }
+        PaginatedResult<T> first = firstResult;
+        int from = firstPage;
+        int to = lastPage;
+        if (lastPage == 0) {
+            first = pager.getPage(1);
+            from = 1;
+            to = 1;
+            if (first.getPageSize() > 0) {
+                to = Math.max(1, (first.getTotalItems() + first.getPageSize() - 1) / first.getPageSize());
+            }
+        }
+        int pages = to - from + 1;
+        int partCount = Math.min(parts, pages);
+
+        List<PaginatedCollection<T>> collections = new ArrayList<PaginatedCollection<T>>(partCount);
+        int previousLastPage = from - 1;
+        for (int i = 1; i <= partCount; i++) {
+            int partLastPage = from - 1 + (int) ((long) pages * i / partCount);
+            collections.add(new PaginatedCollection<T>(pager, previousLastPage + 1, partLastPage, i == 1 ? first : null));
+            previousLastPage = partLastPage;
+        }
+        return collections;
+    }
 }
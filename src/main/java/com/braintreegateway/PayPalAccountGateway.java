@@ -17,12 +17,21 @@ public class PayPalAccountGateway {
     }
 
     public Result<PayPalAccount> delete(String token) {
-        http.delete(configuration.getMerchantPath() + "/payment_methods/paypal_account/" + token);
+        try {
+            http.delete(configuration.getMerchantPath() + "/payment_methods/paypal_account/" + token);
+        } finally {
+            EntityCache.invalidatePaymentMethod(configuration, token, null);
+        }
         return new Result<PayPalAccount>();
     }
 
     public Result<PayPalAccount> update(String token, PayPalAccountRequest request) {
-        NodeWrapper response = http.put(configuration.getMerchantPath() + "/payment_methods/paypal_account/" + token, request);
+        NodeWrapper response = null;
+        try {
+            response = http.put(configuration.getMerchantPath() + "/payment_methods/paypal_account/" + token, request);
+        } finally {
+            EntityCache.invalidatePaymentMethod(configuration, token, response == null ? null : response.findString("customer-id"));
+        }
         return new Result<PayPalAccount>(response, PayPalAccount.class);
     }
 }
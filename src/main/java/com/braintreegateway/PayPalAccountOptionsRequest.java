@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class PayPalAccountOptionsRequest extends Request {
     private Boolean makeDefault;
     private PayPalAccountRequest parent;
@@ -28,6 +30,11 @@ public class PayPalAccountOptionsRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).addElement("makeDefault", makeDefault);
     }
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class PayPalAccountRequest extends Request {
     private String token;
     private PayPalAccountOptionsRequest optionsRequest;
@@ -19,6 +21,11 @@ public class PayPalAccountRequest extends Request {
         return buildRequest("paypalAccount").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("paypalAccount").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("options", optionsRequest).
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class PaymentMethodAddressOptionsRequest extends Request {
 
     private PaymentMethodAddressRequest parent;
@@ -33,6 +35,11 @@ public class PaymentMethodAddressOptionsRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("updateExisting", updateExisting);
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 /**
  * This class is deprecated. Please consider the the Grant API instead
  */
@@ -31,6 +33,11 @@ public class PaymentMethodForwardRequest extends Request {
         return buildRequest("paymentMethod").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("paymentMethod").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root);
 
@@ -14,22 +14,40 @@ public class PaymentMethodGateway {
     }
 
     public Result<? extends PaymentMethod> create(PaymentMethodRequest request) {
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/payment_methods", request);
+        NodeWrapper response;
+        try {
+            response = http.post(configuration.getMerchantPath() + "/payment_methods", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.CUSTOMER, request.getCustomerId());
+        }
         return parseResponse(response);
     }
 
     public Result<? extends PaymentMethod> update(String token, PaymentMethodRequest request) {
-        NodeWrapper response = http.put(configuration.getMerchantPath() + "/payment_methods/any/" + token, request);
+        NodeWrapper response = null;
+        try {
+            response = http.put(configuration.getMerchantPath() + "/payment_methods/any/" + token, request);
+        } finally {
+            EntityCache.invalidatePaymentMethod(configuration, token, response == null ? null : response.findString("customer-id"));
+        }
         return parseResponse(response);
     }
 
     public Result<? extends PaymentMethod> delete(String token) {
-        http.delete(configuration.getMerchantPath() + "/payment_methods/any/" + token);
+        try {
+            http.delete(configuration.getMerchantPath() + "/payment_methods/any/" + token);
+        } finally {
+            EntityCache.invalidatePaymentMethod(configuration, token, null);
+        }
         return new Result<UnknownPaymentMethod>();
     }
 
     public Result<? extends PaymentMethod> delete(String token, PaymentMethodDeleteRequest request) {
-        http.delete(configuration.getMerchantPath() + "/payment_methods/any/" + token + "?" + request.toQueryString());
+        try {
+            http.delete(configuration.getMerchantPath() + "/payment_methods/any/" + token + "?" + request.toQueryString());
+        } finally {
+            EntityCache.invalidatePaymentMethod(configuration, token, null);
+        }
         return new Result<UnknownPaymentMethod>();
     }
 
@@ -37,7 +55,7 @@ public class PaymentMethodGateway {
         if(token == null || token.trim().equals(""))
             throw new NotFoundException();
 
-        NodeWrapper response = http.get(configuration.getMerchantPath() + "/payment_methods/any/" + token);
+        NodeWrapper response = EntityCache.readThrough(configuration, http, EntityCache.PAYMENT_METHOD, token, configuration.getMerchantPath() + "/payment_methods/any/" + token);
 
         return parseResponse(response).getTarget();
     }
@@ -57,7 +75,12 @@ public class PaymentMethodGateway {
     public Result<? extends PaymentMethod> revoke(String token) {
         PaymentMethodGrantRevokeRequest revokeRequest = new PaymentMethodGrantRevokeRequest();
         String request = revokeRequest.sharedPaymentMethodToken(token).toXML();
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/payment_methods/revoke", request);
+        NodeWrapper response = null;
+        try {
+            response = http.post(configuration.getMerchantPath() + "/payment_methods/revoke", request);
+        } finally {
+            EntityCache.invalidatePaymentMethod(configuration, token, response == null ? null : response.findString("customer-id"));
+        }
         return parseResponse(response);
     }
 
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class PaymentMethodGrantRequest extends Request {
     private String sharedPaymentMethodToken;
     private boolean allowVaulting;
@@ -34,6 +36,11 @@ public class PaymentMethodGrantRequest extends Request {
         return buildRequest("payment-method").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("payment-method").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root).
             addElement("shared-payment-method-token", sharedPaymentMethodToken).
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class PaymentMethodGrantRevokeRequest extends Request {
     private String sharedPaymentMethodToken;
 
@@ -16,6 +18,11 @@ public class PaymentMethodGrantRevokeRequest extends Request {
         return buildRequest("payment-method").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("payment-method").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root).
             addElement("shared-payment-method-token", sharedPaymentMethodToken);
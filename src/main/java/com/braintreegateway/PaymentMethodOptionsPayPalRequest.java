@@ -1,5 +1,6 @@
 package com.braintreegateway;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
@@ -54,6 +55,11 @@ public class PaymentMethodOptionsPayPalRequest extends Request {
         return buildRequest("paypal").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("paypal").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("paypal");
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class PaymentMethodRequest extends Request {
     private String paymentMethodNonce;
     private String customerId;
@@ -132,6 +134,11 @@ public class PaymentMethodRequest extends Request {
         return buildRequest("payment-method").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("payment-method").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root).
             addElement("customer-id", customerId).
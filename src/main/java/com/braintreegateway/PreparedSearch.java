@@ -0,0 +1,30 @@
+package com.braintreegateway;
+
+import java.util.List;
+
+/**
+ * An immutable, pre-rendered {@link SearchRequest} used to fetch pages of search results. Only
+ * the ids of the page are rendered per request, so pages can be fetched concurrently.
+ */
+final class PreparedSearch {
+    static final String IDS = "ids";
+
+    private final String criteriaXML;
+
+    PreparedSearch(String criteriaXML) {
+        this.criteriaXML = criteriaXML;
+    }
+
+    public String toXML() {
+        return criteriaXML + "</search>";
+    }
+
+    public String toXML(List<String> ids) {
+        String idsXML = new SearchCriteria(ids).toXML();
+        StringBuilder builder = new StringBuilder(criteriaXML.length() + idsXML.length() + 40);
+        builder.append(criteriaXML);
+        builder.append(RequestBuilder.wrapInXMLTag(IDS, idsXML, "array"));
+        builder.append("</search>");
+        return builder.toString();
+    }
+}
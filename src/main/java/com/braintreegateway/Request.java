@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 /**
  * Abstract class for fluent interface request builders.
  */
@@ -8,6 +10,14 @@ public abstract class Request {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Writes the same XML as {@link #toXML()}. Requests built with a {@link RequestBuilder}
+     * override this to write their elements directly instead of rendering a string first.
+     */
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        writer.raw(toXML());
+    }
+
     public String toQueryString(String parent) {
         throw new UnsupportedOperationException();
     }
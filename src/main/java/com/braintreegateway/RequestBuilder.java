@@ -3,8 +3,8 @@ package com.braintreegateway;
 import com.braintreegateway.util.QueryString;
 import com.braintreegateway.util.StringUtils;
 
+import java.io.IOException;
 import java.net.URLEncoder;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 public class RequestBuilder {
@@ -12,6 +12,8 @@ public class RequestBuilder {
     private String parent;
     private List<Map.Entry<String, String>> topLevelElements;
     private List<Map.Entry<String, Object>> elements;
+    private RequestBuilder template;
+    private String renderedElements;
 
     public RequestBuilder(String parent) {
         this.parent = parent;
@@ -25,12 +27,58 @@ public class RequestBuilder {
     }
 
     public RequestBuilder addElement(String name, Object value) {
+        if (value != null && template != null && template.getElement(name) != null) {
+            throw new IllegalArgumentException(name + " is set both by the template and by the request");
+        }
         elements.add(new AbstractMap.SimpleEntry<String, Object>(name, value));
         return this;
     }
 
+    /**
+     * Includes the elements of a {@link #freeze() frozen} builder ahead of this builder's own.
+     * Must be called before {@link #addElement(String, Object)}, which rejects elements the
+     * template already sets.
+     */
+    RequestBuilder addTemplate(RequestBuilder template) {
+        this.template = template;
+        return this;
+    }
+
+    /**
+     * Renders this builder's elements once so that builders {@link #addTemplate(RequestBuilder)
+     * including it} write them without serializing them again. The builder must not be changed
+     * afterwards.
+     */
+    RequestBuilder freeze() {
+        StringBuilder builder = new StringBuilder();
+        try {
+            writeElements(new XmlRequestWriter(builder));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        renderedElements = builder.toString();
+        return this;
+    }
+
+    /**
+     * @return the value of the element named {@code name}, or null if it is not set.
+     */
+    Object getElement(String name) {
+        for (Map.Entry<String, Object> entry : elements) {
+            if (entry.getKey().equals(name) && entry.getValue() != null) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
     public String toQueryString() {
         QueryString queryString = new QueryString();
+        if (template != null) {
+            for (Map.Entry<String, Object> entry : template.elements) {
+                queryString.append(parentBracketChildString(StringUtils.underscore(parent), StringUtils.underscore(entry.getKey())), entry.getValue());
+            }
+        }
         for (Map.Entry<String, String> entry : topLevelElements) {
             queryString.append(StringUtils.underscore(entry.getKey()), entry.getValue());
         }
@@ -42,51 +90,47 @@ public class RequestBuilder {
 
     public String toXML() {
         StringBuilder builder = new StringBuilder();
-        builder.append(String.format("<%s>", parent));
-        for (Map.Entry<String, Object> entry : elements) {
-            builder.append(buildXMLElement(entry.getKey(), entry.getValue()));
+        try {
+            writeXML(new XmlRequestWriter(builder));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
         }
-        builder.append(String.format("</%s>", parent));
         return builder.toString();
     }
 
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        writer.startElement(parent);
+        if (template != null) {
+            writer.raw(template.renderedElements);
+        }
+        writeElements(writer);
+        writer.endElement(parent);
+    }
+
+    private void writeElements(XmlRequestWriter writer) throws IOException {
+        for (Map.Entry<String, Object> entry : elements) {
+            writer.element(entry.getKey(), entry.getValue());
+        }
+    }
+
     protected static String buildXMLElement(Object element) {
         return buildXMLElement("", element);
     }
 
-    @SuppressWarnings("unchecked")
     protected static String buildXMLElement(String name, Object element) {
-        if (element == null) {
-            return "";
-        } else if (element instanceof Request) {
-            return ((Request) element).toXML();
-        } else if (element instanceof Calendar) {
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
-            dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-            return String.format("<%s type=\"datetime\">%s</%s>", name, dateFormat.format(((Calendar) element).getTime()), name);
-        } else if (element instanceof Map<?, ?>) {
-            return formatAsXML(name, (Map<String, Object>) element);
-        } else if (element instanceof List<?>) {
-            StringBuilder xml = new StringBuilder();
-            for (Object item : (List<Object>) element) {
-                xml.append(buildXMLElement("item", item));
-            }
-            return wrapInXMLTag(name, xml.toString(), "array");
-        } else {
-            return String.format("<%s>%s</%s>", xmlEscape(name), element == null ? "" : xmlEscape(element.toString()), xmlEscape(name));
+        StringBuilder builder = new StringBuilder();
+        try {
+            new XmlRequestWriter(builder).element(name, element);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
         }
+        return builder.toString();
     }
 
     protected static String formatAsXML(String name, Map<String, Object> map) {
         if (map == null)
             return "";
-        StringBuilder xml = new StringBuilder();
-        xml.append(String.format("<%s>", name));
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            xml.append(buildXMLElement(entry.getKey(), entry.getValue()));
-        }
-        xml.append(String.format("</%s>", name));
-        return xml.toString();
+        return buildXMLElement(name, map);
     }
 
     protected static Object buildQueryStringElement(String name, String value) {
@@ -106,14 +150,15 @@ public class RequestBuilder {
     }
 
     protected static String wrapInXMLTag(String tagName, String xml) {
-        return String.format("<%s>%s</%s>", tagName, xml, tagName);
+        return new StringBuilder().append('<').append(tagName).append('>').append(xml).append("</").append(tagName).append('>').toString();
     }
 
     protected static String wrapInXMLTag(String tagName, String xml, String type) {
-        return String.format("<%s type=\"%s\">%s</%s>", tagName, type, xml, tagName);
+        return new StringBuilder().append('<').append(tagName).append(" type=\"").append(type).append("\">").append(xml)
+            .append("</").append(tagName).append('>').toString();
     }
 
     protected static String xmlEscape(String input) {
-        return input.replaceAll("&", "&amp;").replaceAll("<", "&lt;").replaceAll(">", "&gt;").replaceAll("'", "&apos;").replaceAll("\"", "&quot;");
+        return XmlRequestWriter.escape(input);
     }
 }
@@ -0,0 +1,67 @@
+package com.braintreegateway;
+
+import com.braintreegateway.util.RetryPolicy;
+
+import java.util.Calendar;
+
+/**
+ * Overrides how the calls made through {@link BraintreeGateway#withOptions(RequestOptions)} are
+ * sent, without changing the gateway's {@link Configuration}.
+ */
+public class RequestOptions {
+    private RetryPolicy retryPolicy;
+    private Boolean idempotent;
+    private long deadline;
+
+    /**
+     * Retries with {@code retryPolicy} instead of {@link Configuration#getRetryPolicy()}. Use
+     * {@link RetryPolicy#none()} to turn retries off.
+     */
+    public RequestOptions retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Marks the calls as safe, or unsafe, to send more than once. By default only GETs and
+     * searches are treated as idempotent.
+     */
+    public RequestOptions idempotent(Boolean idempotent) {
+        this.idempotent = idempotent;
+        return this;
+    }
+
+    /**
+     * Bounds every request made with these options, including each page of a
+     * {@link ResourceCollection} or {@link PaginatedCollection} and each retry, by an absolute
+     * deadline. Connect and read timeouts are cut to the time left, and once the deadline has
+     * passed requests fail with a {@link com.braintreegateway.exceptions.DeadlineExceededException}.
+     */
+    public RequestOptions deadline(Calendar deadline) {
+        this.deadline = deadline.getTimeInMillis();
+        return this;
+    }
+
+    /**
+     * Sets the deadline to {@code timeout} milliseconds from now.
+     */
+    public RequestOptions timeout(long timeout) {
+        this.deadline = System.currentTimeMillis() + timeout;
+        return this;
+    }
+
+    /**
+     * @return the deadline in milliseconds since the epoch, or 0 if there is none.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public Boolean isIdempotent() {
+        return idempotent;
+    }
+}
@@ -1,10 +1,19 @@
 package com.braintreegateway;
 
+import com.braintreegateway.exceptions.UnexpectedException;
 import com.braintreegateway.util.NodeWrapper;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A collection used to page through query or search results.
@@ -67,9 +76,92 @@ public class ResourceCollection<T> implements Iterable<T> {
         }
     }
 
+    private class PrefetchingIterator implements Iterator<T> {
+        private LinkedList<FutureTask<List<T>>> pending;
+        private int nextIndexToFetch;
+        private int index;
+        private List<T> items;
+
+        public PrefetchingIterator() {
+            this.pending = new LinkedList<FutureTask<List<T>>>();
+            this.nextIndexToFetch = 0;
+            this.index = 0;
+            this.items = Collections.emptyList();
+        }
+
+        private void fillPrefetchQueue() {
+            while (pending.size() < prefetchDepth && nextIndexToFetch < ids.size()) {
+                int lastIdIndex = Math.min(nextIndexToFetch + pageSize, ids.size());
+                pending.add(fetch(ids.subList(nextIndexToFetch, lastIdIndex)));
+                nextIndexToFetch = lastIdIndex;
+            }
+        }
+
+        private FutureTask<List<T>> fetch(final List<String> batch) {
+            FutureTask<List<T>> task = new FutureTask<List<T>>(new Callable<List<T>>() {
+                public List<T> call() {
+                    try {
+                        return pager.getPage(batch);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            });
+            inFlight.incrementAndGet();
+            try {
+                prefetchExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+            return task;
+        }
+
+        private List<T> await(FutureTask<List<T>> task) {
+            task.run();
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UnexpectedException(e.getMessage(), e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new UnexpectedException(cause.getMessage(), cause);
+            }
+        }
+
+        public boolean hasNext() {
+            fillPrefetchQueue();
+            while (index == items.size() && !pending.isEmpty()) {
+                this.items = await(pending.removeFirst());
+                this.index = 0;
+                fillPrefetchQueue();
+            }
+
+            return index < items.size();
+        }
+
+        public T next() {
+            T item = items.get(index);
+            index++;
+            return item;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     private List<String> ids;
     private Pager<T> pager;
     private int pageSize;
+    private int prefetchDepth;
+    private Executor prefetchExecutor;
+    private final AtomicInteger inFlight = new AtomicInteger();
 
     public ResourceCollection(Pager<T> pager, NodeWrapper response) {
         this.pager = pager;
@@ -77,6 +169,12 @@ public class ResourceCollection<T> implements Iterable<T> {
         ids = response.findAllStrings("ids/*");
     }
 
+    ResourceCollection(Pager<T> pager, List<String> ids, int pageSize) {
+        this.pager = pager;
+        this.ids = ids;
+        this.pageSize = pageSize;
+    }
+
     /**
      * Returns the approximate total size of the collection.
      *
@@ -87,9 +185,64 @@ public class ResourceCollection<T> implements Iterable<T> {
     }
 
     public Iterator<T> iterator() {
+        if (prefetchDepth > 0) {
+            return new PrefetchingIterator();
+        }
         return new PagedIterator<T>(this);
     }
 
+    /**
+     * Makes iterators fetch up to {@code depth} pages ahead of the one being read, concurrently on
+     * the given executor, e.g. {@link Configuration#getExecutorService()}. Items are still returned
+     * in order. A page that no thread has started by the time it is needed is fetched by the
+     * iterating thread, so iterating on one of the executor's own threads cannot wait on itself.
+     * A depth of 0 turns prefetching off.
+     */
+    public ResourceCollection<T> prefetch(int depth, Executor executor) {
+        if (depth > 0 && executor == null) {
+            throw new IllegalArgumentException("an executor is required to prefetch pages");
+        }
+        this.prefetchDepth = depth;
+        this.prefetchExecutor = executor;
+        return this;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * Returns the number of page requests this collection's iterators have started that have not
+     * completed yet.
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Splits this collection into at most {@code parts} collections over consecutive runs of whole
+     * pages. Each part fetches only its own pages and can be iterated on a separate thread;
+     * together, in order, they return the same items as this collection.
+     */
+    public List<ResourceCollection<T>> split(int parts) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("parts must be at least 1");
+        }
+        int pages = (ids.size() + pageSize - 1) / pageSize;
+        int partCount = Math.max(1, Math.min(parts, pages));
+
+        List<ResourceCollection<T>> collections = new ArrayList<ResourceCollection<T>>(partCount);
+        int firstPage = 0;
+        for (int i = 1; i <= partCount; i++) {
+            int lastPage = (int) ((long) pages * i / partCount);
+            int fromIndex = Math.min(firstPage * pageSize, ids.size());
+            int toIndex = Math.min(lastPage * pageSize, ids.size());
+            collections.add(new ResourceCollection<T>(pager, ids.subList(fromIndex, toIndex), pageSize));
+            firstPage = lastPage;
+        }
+        return collections;
+    }
+
     public T getFirst() {
         return pager.getPage(ids.subList(0, 1)).get(0);
     }
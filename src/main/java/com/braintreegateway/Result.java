@@ -31,6 +31,19 @@ public class Result<T> {
     public Result() {
     }
 
+    Result(T target) {
+        this.target = target;
+    }
+
+    /**
+     * A failed result for a declined or rejected transaction whose original response was lost.
+     */
+    Result(Transaction transaction, String message) {
+        this.errors = new ValidationErrors();
+        this.transaction = transaction;
+        this.message = message;
+    }
+
     public Result(NodeWrapper node, Class<T> klass) {
         if (node.isSuccess()) {
             this.target = newInstanceFromNode(klass, node);
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 /**
  * Provides a fluent interface to build up requests around {@link CreditCard CreditCards}.
  */
@@ -34,6 +36,11 @@ public class RiskDataCustomerRequest extends Request {
         return buildRequest("riskData").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("riskData").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("riskData");
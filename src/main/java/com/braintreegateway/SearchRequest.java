@@ -1,6 +1,7 @@
 package com.braintreegateway;
 
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,11 +52,45 @@ public class SearchRequest extends Request {
     public String toXML() {
         StringBuilder builder = new StringBuilder();
         builder.append("<search>");
-        
+        appendCriteria(builder, null, null);
+        builder.append("</search>");
+        return builder.toString();
+    }
+
+    /**
+     * Renders every criterion except {@code ids} now, so that pages of results can be fetched,
+     * concurrently if need be, without reading or mutating this request again.
+     */
+    PreparedSearch prepare() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<search>");
+        appendCriteria(builder, PreparedSearch.IDS, null);
+        return new PreparedSearch(builder.toString());
+    }
+
+    /**
+     * Like {@link #prepare()}, but with the range criterion {@code nodeName} replaced by
+     * {@code min} to {@code max}.
+     */
+    PreparedSearch prepare(String nodeName, Calendar min, Calendar max) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<search>");
+        appendCriteria(builder, PreparedSearch.IDS, nodeName);
+        builder.append(String.format("<%s>", RequestBuilder.xmlEscape(nodeName)));
+        builder.append(new SearchCriteria("min", min).toXML());
+        builder.append(new SearchCriteria("max", max).toXML());
+        builder.append(String.format("</%s>", RequestBuilder.xmlEscape(nodeName)));
+        return new PreparedSearch(builder.toString());
+    }
+
+    private void appendCriteria(StringBuilder builder, String excludedMultipleValueKey, String excludedRangeKey) {
         for (String key : criteria.keySet()) {
             builder.append(RequestBuilder.wrapInXMLTag(key, criteria.get(key).toXML()));
         }
         for (String key : rangeCriteria.keySet()) {
+            if (key.equals(excludedRangeKey)) {
+                continue;
+            }
             builder.append(String.format("<%s>", RequestBuilder.xmlEscape(key)));
             for (SearchCriteria criterium : rangeCriteria.get(key)) {
                 builder.append(criterium.toXML());
@@ -63,12 +98,12 @@ public class SearchRequest extends Request {
             builder.append(String.format("</%s>", RequestBuilder.xmlEscape(key)));
         }
         for (String key : multiValueCriteria.keySet()) {
-            builder.append(RequestBuilder.wrapInXMLTag(key, multiValueCriteria.get(key).toXML(), "array"));
+            if (!key.equals(excludedMultipleValueKey)) {
+                builder.append(RequestBuilder.wrapInXMLTag(key, multiValueCriteria.get(key).toXML(), "array"));
+            }
         }
         for (String key : keyValueCriteria.keySet()) {
             builder.append(RequestBuilder.wrapInXMLTag(key, keyValueCriteria.get(key)));
         }
-        builder.append("</search>");
-        return builder.toString();
     }
 }
@@ -1,5 +1,6 @@
 package com.braintreegateway;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 
@@ -15,6 +16,11 @@ public class SettlementBatchSummaryRequest extends Request {
     public String toXML() {
         return buildRequest("settlement-batch-summary").toXML();
     }
+
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("settlement-batch-summary").writeXML(writer);
+    }
     
     public SettlementBatchSummaryRequest settlementDate(Calendar settlementDate) {
         this.settlementDate = settlementDate;
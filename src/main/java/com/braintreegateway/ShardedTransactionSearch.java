@@ -0,0 +1,155 @@
+package com.braintreegateway;
+
+import com.braintreegateway.exceptions.UnexpectedException;
+import com.braintreegateway.util.NodeWrapper;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+
+/**
+ * Searches a createdAt range as a set of time windows, bisecting windows whose results reach the
+ * search result limit. The outer windows keep the caller's bounds and the windows between them
+ * are split on whole seconds. Search dates have a precision of one second and both ends of a
+ * range are inclusive, so adjacent windows share their boundary second and duplicate ids are
+ * dropped when the windows are merged. Windows the executor has not started by the time they
+ * are awaited are searched on the calling thread, so a search made from one of the executor's
+ * own threads cannot deadlock waiting for the pool.
+ */
+class ShardedTransactionSearch {
+    private static final String CREATED_AT = "created_at";
+    private static final long SECOND = 1000;
+
+    private static class Window {
+        private final long min;
+        private final long max;
+
+        Window(long min, long max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        boolean canBisect() {
+            return max - min >= 2 * SECOND;
+        }
+    }
+
+    private TransactionGateway gateway;
+    private Configuration configuration;
+    private TransactionSearchRequest query;
+
+    public ShardedTransactionSearch(TransactionGateway gateway, Configuration configuration, TransactionSearchRequest query) {
+        this.gateway = gateway;
+        this.configuration = configuration;
+        this.query = query;
+    }
+
+    public ResourceCollection<Transaction> search(Calendar createdAtMin, Calendar createdAtMax, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be at least 1");
+        }
+        long min = createdAtMin.getTimeInMillis();
+        long max = createdAtMax.getTimeInMillis();
+        if (max < min) {
+            throw new IllegalArgumentException("createdAtMax is before createdAtMin");
+        }
+
+        List<Window> pending = new ArrayList<Window>();
+        long firstSecond = (min + SECOND - 1) / SECOND * SECOND;
+        long seconds = Math.max(0, (max / SECOND * SECOND - firstSecond) / SECOND);
+        int windowCount = (int) Math.max(1, Math.min(shards, seconds));
+        long windowMin = min;
+        for (int i = 1; i < windowCount; i++) {
+            long windowMax = firstSecond + seconds * i / windowCount * SECOND;
+            pending.add(new Window(windowMin, windowMax));
+            windowMin = windowMax;
+        }
+        pending.add(new Window(windowMin, max));
+
+        int limit = configuration.getSearchResultLimit();
+        int pageSize = 0;
+        Map<Long, List<String>> idsByWindow = new TreeMap<Long, List<String>>();
+        while (!pending.isEmpty()) {
+            List<FutureTask<NodeWrapper>> searches = new ArrayList<FutureTask<NodeWrapper>>(pending.size());
+            for (Window window : pending) {
+                searches.add(searchWindow(window));
+            }
+
+            List<Window> bisected = new ArrayList<Window>();
+            for (int i = 0; i < pending.size(); i++) {
+                Window window = pending.get(i);
+                NodeWrapper response = await(searches.get(i));
+                List<String> ids = response.findAllStrings("ids/*");
+                pageSize = response.findInteger("page-size");
+
+                if (ids.size() >= limit && window.canBisect()) {
+                    long middle = (window.min + (window.max - window.min) / 2) / SECOND * SECOND;
+                    bisected.add(new Window(window.min, middle));
+                    bisected.add(new Window(middle, window.max));
+                } else {
+                    if (ids.size() >= limit) {
+                        configuration.getLogger().log(Level.WARNING, "[Braintree] {0} transactions were created in one second; results may be incomplete",
+                            new Object[] { ids.size() });
+                    }
+                    idsByWindow.put(window.min, ids);
+                }
+            }
+            pending = bisected;
+        }
+
+        Set<String> ids = new LinkedHashSet<String>();
+        for (List<String> windowIds : idsByWindow.values()) {
+            ids.addAll(windowIds);
+        }
+        return new ResourceCollection<Transaction>(new TransactionPager(gateway, query), new ArrayList<String>(ids), pageSize);
+    }
+
+    private FutureTask<NodeWrapper> searchWindow(Window window) {
+        final String request = query.prepare(CREATED_AT, toCalendar(window.min), toCalendar(window.max)).toXML();
+        FutureTask<NodeWrapper> task = new FutureTask<NodeWrapper>(new Callable<NodeWrapper>() {
+            public NodeWrapper call() {
+                return gateway.searchIds(request);
+            }
+        });
+        try {
+            configuration.getExecutorService().execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+        return task;
+    }
+
+    private Calendar toCalendar(long millis) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    private NodeWrapper await(FutureTask<NodeWrapper> task) {
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnexpectedException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new UnexpectedException(cause.getMessage(), cause);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.braintreegateway;
 
 import com.braintreegateway.exceptions.NotFoundException;
 import com.braintreegateway.util.Http;
+import com.braintreegateway.util.NodeBinder;
 import com.braintreegateway.util.NodeWrapper;
 
 import java.math.BigDecimal;
@@ -22,13 +23,42 @@ import java.util.List;
  * For more detailed information on {@link Subscription Subscriptions}, see <a href="https://developers.braintreepayments.com/reference/response/subscription/java" target="_blank">https://developers.braintreepayments.com/reference/response/subscription/java</a>
  */
 public class SubscriptionGateway {
+    private static final NodeBinder<Subscription> SUBSCRIPTION_BINDER = new NodeBinder<Subscription>() {
+        public Subscription bind(NodeWrapper node) {
+            return new Subscription(node);
+        }
+    };
+
 
     private Http http;
     private Configuration configuration;
+    private boolean streamingBinding;
 
     public SubscriptionGateway(Http http, Configuration configuration) {
+        this(http, configuration, false);
+    }
+
+    private SubscriptionGateway(Http http, Configuration configuration, boolean streamingBinding) {
         this.http = http;
         this.configuration = configuration;
+        this.streamingBinding = streamingBinding;
+    }
+
+    /**
+     * Returns a copy of this gateway that binds search results record by record while each page
+     * is being read, instead of first parsing the whole page into one node tree. Each record is
+     * still read into its own node tree and decoded by the usual constructor, so this limits
+     * how much of a page is held at once rather than the number of nodes built.
+     */
+    public SubscriptionGateway withStreamingBinding() {
+        return new SubscriptionGateway(http, configuration, true);
+    }
+
+    /**
+     * Returns a copy of this gateway that sends its calls through {@code http}.
+     */
+    SubscriptionGateway withHttp(Http http) {
+        return new SubscriptionGateway(http, configuration, streamingBinding);
     }
 
     /**
@@ -88,9 +118,14 @@ public class SubscriptionGateway {
         return new ResourceCollection<Subscription>(new SubscriptionPager(this, searchRequest), node);
     }
 
-    List<Subscription> fetchSubscriptions(SubscriptionSearchRequest search, List<String> ids) {
-        search.ids().in(ids);
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/subscriptions/advanced_search", search);
+    List<Subscription> fetchSubscriptions(PreparedSearch search, List<String> ids) {
+        String request = search.toXML(ids);
+
+        if (streamingBinding) {
+            return http.postForRecords(configuration.getMerchantPath() + "/subscriptions/advanced_search", request, null, "subscription", SUBSCRIPTION_BINDER);
+        }
+
+        NodeWrapper response = http.post(configuration.getMerchantPath() + "/subscriptions/advanced_search", request);
 
         List<Subscription> items = new ArrayList<Subscription>();
         for (NodeWrapper node : response.findAll("subscription")) {
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class SubscriptionOptionsPayPalRequest extends Request {
     private SubscriptionOptionsRequest parent;
     private String description;
@@ -22,6 +24,11 @@ public class SubscriptionOptionsPayPalRequest extends Request {
         return buildRequest("paypal").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("paypal").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("description", description);
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class SubscriptionOptionsRequest extends Request {
     private Boolean doNotInheritAddOnsOrDiscounts;
     private SubscriptionRequest parent;
@@ -52,6 +54,11 @@ public class SubscriptionOptionsRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("doNotInheritAddOnsOrDiscounts", doNotInheritAddOnsOrDiscounts).
@@ -4,11 +4,11 @@ import java.util.List;
 
 public class SubscriptionPager implements Pager<Subscription> {
     private SubscriptionGateway gateway;
-    private SubscriptionSearchRequest search;
+    private PreparedSearch search;
 
     public SubscriptionPager(SubscriptionGateway gateway, SubscriptionSearchRequest search) {
         this.gateway = gateway;
-        this.search = search;
+        this.search = search.prepare();
     }
 
     public List<Subscription> getPage(List<String> ids) {
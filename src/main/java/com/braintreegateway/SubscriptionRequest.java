@@ -1,5 +1,6 @@
 package com.braintreegateway;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Calendar;
 
@@ -25,6 +26,14 @@ public class SubscriptionRequest extends Request {
     private BigDecimal price;
     private Integer trialDuration;
     private Subscription.DurationUnit trialDurationUnit;
+    private RequestBuilder template;
+
+    public SubscriptionRequest() {
+    }
+
+    SubscriptionRequest(RequestBuilder template) {
+        this.template = template;
+    }
 
     public ModificationsRequest addOns() {
         addOnsRequest = new ModificationsRequest(this, "addOns");
@@ -101,6 +110,11 @@ public class SubscriptionRequest extends Request {
         return buildRequest("subscription").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("subscription").writeXML(writer);
+    }
+
     public SubscriptionRequest trialDuration(Integer trialDuration) {
         this.trialDuration = trialDuration;
         return this;
@@ -118,6 +132,7 @@ public class SubscriptionRequest extends Request {
 
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root).
+            addTemplate(template).
             addElement("id", id).
             addElement("addOns", addOnsRequest).
             addElement("billingDayOfMonth", billingDayOfMonth).
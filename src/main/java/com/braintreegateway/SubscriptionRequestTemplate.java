@@ -0,0 +1,19 @@
+package com.braintreegateway;
+
+/**
+ * Holds the fields shared by many {@link SubscriptionRequest SubscriptionRequests}, such as the
+ * plan, merchant account and descriptor, rendered to XML once. Requests created from the template
+ * only serialize the fields set on them. As with {@link TransactionRequestTemplate}, a field or
+ * nested request belongs either to the template or to the requests created from it, not both.
+ */
+public class SubscriptionRequestTemplate {
+    private final RequestBuilder fields;
+
+    public SubscriptionRequestTemplate(SubscriptionRequest request) {
+        this.fields = request.buildRequest("subscription").freeze();
+    }
+
+    public SubscriptionRequest newRequest() {
+        return new SubscriptionRequest(fields);
+    }
+}
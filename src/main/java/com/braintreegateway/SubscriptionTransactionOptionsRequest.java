@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class SubscriptionTransactionOptionsRequest extends Request {
     private Boolean submitForSettlement;
     private SubscriptionTransactionRequest parent;
@@ -22,6 +24,11 @@ public class SubscriptionTransactionOptionsRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("submitForSettlement", submitForSettlement);
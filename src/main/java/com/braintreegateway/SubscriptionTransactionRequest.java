@@ -2,6 +2,7 @@ package com.braintreegateway;
 
 import com.braintreegateway.Transaction.Type;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 
 public class SubscriptionTransactionRequest extends Request {
@@ -30,6 +31,11 @@ public class SubscriptionTransactionRequest extends Request {
         return buildRequest("transaction").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("transaction").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         return new RequestBuilder(root).
             addElement("amount", amount).
@@ -186,16 +186,43 @@ public class Transaction {
     private FacilitatedDetails facilitatedDetails;
     private FacilitatorDetails facilitatorDetails;
 
+    private volatile NodeWrapper detailsNode;
+
     public Transaction(NodeWrapper node) {
+        this(node, false);
+    }
+
+    /**
+     * @param lazy
+     *            if true, only the identifiers, status, type, amounts and timestamps are decoded now;
+     *            everything else is decoded from the retained node the first
+     *            time one of its getters is called.
+     */
+    Transaction(NodeWrapper node, boolean lazy) {
         amount = node.findBigDecimal("amount");
+        createdAt = node.findDateTime("created-at");
+        currencyIsoCode = node.findString("currency-iso-code");
+        id = node.findString("id");
+        merchantAccountId = node.findString("merchant-account-id");
+        orderId = node.findString("order-id");
+        status = EnumUtils.findByName(Status.class, node.findString("status"), Status.UNRECOGNIZED);
+        type = EnumUtils.findByName(Type.class, node.findString("type"), Type.UNRECOGNIZED);
+        updatedAt = node.findDateTime("updated-at");
+        paymentInstrumentType = node.findString("payment-instrument-type");
+        if (lazy) {
+            detailsNode = node;
+        } else {
+            decodeDetails(node);
+        }
+    }
+
+    private void decodeDetails(NodeWrapper node) {
         avsErrorResponseCode = node.findString("avs-error-response-code");
         avsPostalCodeResponseCode = node.findString("avs-postal-code-response-code");
         avsStreetAddressResponseCode = node.findString("avs-street-address-response-code");
         billingAddress = new Address(node.findFirst("billing"));
         channel = node.findString("channel");
-        createdAt = node.findDateTime("created-at");
         creditCard = new CreditCard(node.findFirst("credit-card"));
-        currencyIsoCode = node.findString("currency-iso-code");
         customFields = node.findMap("custom-fields/*");
         customer = new Customer(node.findFirst("customer"));
         cvvResponseCode = node.findString("cvv-response-code");
@@ -203,9 +230,6 @@ public class Transaction {
         descriptor = new Descriptor(node.findFirst("descriptor"));
         escrowStatus = EnumUtils.findByName(EscrowStatus.class, node.findString("escrow-status"), EscrowStatus.UNRECOGNIZED);
         gatewayRejectionReason = EnumUtils.findByName(GatewayRejectionReason.class, node.findString("gateway-rejection-reason"), GatewayRejectionReason.UNRECOGNIZED);
-        id = node.findString("id");
-        merchantAccountId = node.findString("merchant-account-id");
-        orderId = node.findString("order-id");
         NodeWrapper paypalNode = node.findFirst("paypal");
         if (paypalNode != null) {
             paypalDetails = new PayPalDetails(paypalNode);
@@ -272,7 +296,6 @@ public class Transaction {
         serviceFeeAmount = node.findBigDecimal("service-fee-amount");
         settlementBatchId = node.findString("settlement-batch-id");
         shippingAddress = new Address(node.findFirst("shipping"));
-        status = EnumUtils.findByName(Status.class, node.findString("status"), Status.UNRECOGNIZED);
         subscription = new Subscription(node.findFirst("subscription"));
         subscriptionId = node.findString("subscription-id");
         taxAmount = node.findBigDecimal("tax-amount");
@@ -280,8 +303,6 @@ public class Transaction {
         shippingAmount = node.findBigDecimal("shipping-amount");
         discountAmount = node.findBigDecimal("discount-amount");
         shipsFromPostalCode = node.findString("ships-from-postal-code");
-        type = EnumUtils.findByName(Type.class, node.findString("type"), Type.UNRECOGNIZED);
-        updatedAt = node.findDateTime("updated-at");
 
         refundIds = new ArrayList<String>();
         for (NodeWrapper refundIdNode : node.findAll("refund-ids/item")) {
@@ -308,8 +329,6 @@ public class Transaction {
             disputes.add(new Dispute(dispute));
         }
 
-        paymentInstrumentType = node.findString("payment-instrument-type");
-
         authorizedTransactionId = node.findString("authorized-transaction-id");
 
         partialSettlementTransactionIds = new ArrayList<String>();
@@ -333,7 +352,19 @@ public class Transaction {
         }
     }
 
+    private void hydrate() {
+        if (detailsNode != null) {
+            synchronized (this) {
+                if (detailsNode != null) {
+                    decodeDetails(detailsNode);
+                    detailsNode = null;
+                }
+            }
+        }
+    }
+
     public List<AddOn> getAddOns() {
+        hydrate();
         return addOns;
     }
 
@@ -342,22 +373,27 @@ public class Transaction {
     }
 
     public String getAvsErrorResponseCode() {
+        hydrate();
         return avsErrorResponseCode;
     }
 
     public String getAvsPostalCodeResponseCode() {
+        hydrate();
         return avsPostalCodeResponseCode;
     }
 
     public String getAvsStreetAddressResponseCode() {
+        hydrate();
         return avsStreetAddressResponseCode;
     }
 
     public Address getBillingAddress() {
+        hydrate();
         return billingAddress;
     }
 
     public String getChannel() {
+        hydrate();
         return channel;
     }
 
@@ -366,6 +402,7 @@ public class Transaction {
     }
 
     public CreditCard getCreditCard() {
+        hydrate();
         return creditCard;
     }
 
@@ -374,38 +411,47 @@ public class Transaction {
     }
 
     public Customer getCustomer() {
+        hydrate();
         return customer;
     }
 
     public Map<String, String> getCustomFields() {
+        hydrate();
         return customFields;
     }
 
     public String getCvvResponseCode() {
+        hydrate();
         return cvvResponseCode;
     }
 
     public DisbursementDetails getDisbursementDetails() {
+        hydrate();
         return disbursementDetails;
     }
 
     public List<Dispute> getDisputes() {
+        hydrate();
         return disputes;
     }
 
     public Descriptor getDescriptor() {
+        hydrate();
         return descriptor;
     }
 
     public List<Discount> getDiscounts() {
+        hydrate();
         return discounts;
     }
 
     public EscrowStatus getEscrowStatus() {
+        hydrate();
         return escrowStatus;
     }
 
     public GatewayRejectionReason getGatewayRejectionReason() {
+        hydrate();
         return gatewayRejectionReason;
     }
 
@@ -422,82 +468,102 @@ public class Transaction {
     }
 
     public PayPalDetails getPayPalDetails() {
+        hydrate();
         return paypalDetails;
     }
 
     public ApplePayDetails getApplePayDetails() {
+        hydrate();
         return applePayDetails;
     }
 
     public AndroidPayDetails getAndroidPayDetails() {
+        hydrate();
         return androidPayDetails;
     }
 
     public AmexExpressCheckoutDetails getAmexExpressCheckoutDetails() {
+        hydrate();
         return amexExpressCheckoutDetails;
     }
 
     public CoinbaseDetails getCoinbaseDetails() {
+        hydrate();
         return coinbaseDetails;
     }
 
     public VenmoAccountDetails getVenmoAccountDetails() {
+        hydrate();
         return venmoAccountDetails;
     }
 
     public UsBankAccountDetails getUsBankAccountDetails() {
+        hydrate();
         return usBankAccountDetails;
     }
 
     public IdealPaymentDetails getIdealPaymentDetails() {
+        hydrate();
         return idealPaymentDetails;
     }
 
     public VisaCheckoutCardDetails getVisaCheckoutCardDetails() {
+        hydrate();
         return visaCheckoutCardDetails;
     }
 
     public MasterpassCardDetails getMasterpassCardDetails() {
+        hydrate();
         return masterpassCardDetails;
     }
 
     public String getPlanId() {
+        hydrate();
         return planId;
     }
 
     public String getProcessorAuthorizationCode() {
+        hydrate();
         return processorAuthorizationCode;
     }
 
     public String getProcessorResponseCode() {
+        hydrate();
         return processorResponseCode;
     }
 
     public String getProcessorResponseText() {
+        hydrate();
         return processorResponseText;
     }
 
     public String getProcessorSettlementResponseCode() {
+        hydrate();
         return processorSettlementResponseCode;
     }
 
     public String getProcessorSettlementResponseText() {
+        hydrate();
         return processorSettlementResponseText;
     }
 
     public String getAdditionalProcessorResponse() {
+        hydrate();
         return additionalProcessorResponse;
     }
 
     public String getVoiceReferralNumber() {
+        hydrate();
         return voiceReferralNumber;
     }
 
     public String getPurchaseOrderNumber() {
+        hydrate();
         return purchaseOrderNumber;
     }
 
     public String getRefundedTransactionId() {
+        hydrate();
         return refundedTransactionId;
     }
 
@@ -506,30 +572,37 @@ public class Transaction {
      */
     @Deprecated
     public String getRefundId() {
+        hydrate();
         return refundId;
     }
 
     public List<String> getRefundIds() {
+        hydrate();
         return refundIds;
     }
 
     public RiskData getRiskData() {
+        hydrate();
         return riskData;
     }
 
     public ThreeDSecureInfo getThreeDSecureInfo() {
+        hydrate();
         return threeDSecureInfo;
     }
 
     public BigDecimal getServiceFeeAmount() {
+        hydrate();
         return serviceFeeAmount;
     }
 
     public String getSettlementBatchId() {
+        hydrate();
         return settlementBatchId;
     }
 
     public Address getShippingAddress() {
+        hydrate();
         return shippingAddress;
     }
 
@@ -538,30 +611,37 @@ public class Transaction {
     }
 
     public List<StatusEvent> getStatusHistory() {
+        hydrate();
         return statusHistory;
     }
 
     public String getSubscriptionId() {
+        hydrate();
         return subscriptionId;
     }
 
     public Subscription getSubscription() {
+        hydrate();
         return subscription;
     }
 
     public BigDecimal getTaxAmount() {
+        hydrate();
         return taxAmount;
     }
 
     public BigDecimal getShippingAmount() {
+        hydrate();
         return shippingAmount;
     }
 
     public BigDecimal getDiscountAmount() {
+        hydrate();
         return discountAmount;
     }
 
     public String getShipsFromPostalCode() {
+        hydrate();
         return shipsFromPostalCode;
     }
 
@@ -570,6 +650,7 @@ public class Transaction {
     }
 
     public Boolean getRecurring() {
+        hydrate();
         return recurring;
     }
 
@@ -578,6 +659,7 @@ public class Transaction {
     }
 
     public Address getVaultBillingAddress(BraintreeGateway gateway) {
+        hydrate();
         if (billingAddress.getId() == null) {
             return null;
         }
@@ -585,6 +667,7 @@ public class Transaction {
     }
 
     public CreditCard getVaultCreditCard(BraintreeGateway gateway) {
+        hydrate();
         if (creditCard.getToken() == null) {
             return null;
         }
@@ -592,6 +675,7 @@ public class Transaction {
     }
 
     public Customer getVaultCustomer(BraintreeGateway gateway) {
+        hydrate();
         if (customer.getId() == null) {
             return null;
         }
@@ -599,6 +683,7 @@ public class Transaction {
     }
 
     public Address getVaultShippingAddress(BraintreeGateway gateway) {
+        hydrate();
         if (shippingAddress.getId() == null) {
             return null;
         }
@@ -606,6 +691,7 @@ public class Transaction {
     }
 
     public Boolean isTaxExempt() {
+        hydrate();
         return taxExempt;
     }
 
@@ -614,22 +700,27 @@ public class Transaction {
     }
 
     public String getAuthorizedTransactionId() {
+        hydrate();
         return authorizedTransactionId;
     }
 
     public List<String> getPartialSettlementTransactionIds() {
+        hydrate();
         return partialSettlementTransactionIds;
     }
 
     public List<AuthorizationAdjustment> getAuthorizationAdjustments() {
+        hydrate();
         return authorizationAdjustments;
     }
 
     public FacilitatedDetails getFacilitatedDetails() {
+        hydrate();
         return facilitatedDetails;
     }
 
     public FacilitatorDetails getFacilitatorDetails() {
+        hydrate();
         return facilitatorDetails;
     }
 
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionApplePayCardRequest extends Request {
 
     private String number;
@@ -53,6 +55,11 @@ public class TransactionApplePayCardRequest extends Request {
         return buildRequest("applePayCard").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("applePayCard").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("applePayCard");
@@ -1,5 +1,6 @@
 package com.braintreegateway;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 
 public class TransactionCloneRequest extends Request {
@@ -27,6 +28,11 @@ public class TransactionCloneRequest extends Request {
         return buildRequest("transactionClone").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("transactionClone").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
         RequestBuilder builder = new RequestBuilder(root).
             addElement("amount", amount).
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionCreditCardRequest extends Request {
     private String cardholderName;
     private String cvv;
@@ -62,6 +64,11 @@ public class TransactionCreditCardRequest extends Request {
         return buildRequest("creditCard").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("creditCard").writeXML(writer);
+    }
+
     @Override
     public String toQueryString(String root) {
         return buildRequest(root).toQueryString();
@@ -4,11 +4,14 @@ import com.braintreegateway.Transaction.Type;
 import com.braintreegateway.exceptions.NotFoundException;
 import com.braintreegateway.exceptions.DownForMaintenanceException;
 import com.braintreegateway.util.Http;
+import com.braintreegateway.util.NodeBinder;
 import com.braintreegateway.util.NodeWrapper;
 import com.braintreegateway.util.TrUtil;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Calendar;
 import java.util.List;
 
 /**
@@ -28,10 +31,33 @@ public class TransactionGateway {
 
     private Http http;
     private Configuration configuration;
+    private boolean streamingBinding;
 
     public TransactionGateway(Http http, Configuration configuration) {
+        this(http, configuration, false);
+    }
+
+    private TransactionGateway(Http http, Configuration configuration, boolean streamingBinding) {
         this.http = http;
         this.configuration = configuration;
+        this.streamingBinding = streamingBinding;
+    }
+
+    /**
+     * Returns a copy of this gateway that binds search results record by record while each page
+     * is being read, instead of first parsing the whole page into one node tree. Each record is
+     * still read into its own node tree and decoded by the usual constructor, so this limits
+     * how much of a page is held at once rather than the number of nodes built.
+     */
+    public TransactionGateway withStreamingBinding() {
+        return new TransactionGateway(http, configuration, true);
+    }
+
+    /**
+     * Returns a copy of this gateway that sends its calls through {@code http}.
+     */
+    TransactionGateway withHttp(Http http) {
+        return new TransactionGateway(http, configuration, streamingBinding);
     }
 
     public Result<Transaction> cloneTransaction(String id, TransactionCloneRequest request) {
@@ -77,7 +103,7 @@ public class TransactionGateway {
     public Transaction find(String id) {
         if(id == null || id.trim().equals(""))
             throw new NotFoundException();
-        return new Transaction(http.get(configuration.getMerchantPath() + "/transactions/" + id));
+        return new Transaction(EntityCache.readThrough(configuration, http, EntityCache.TRANSACTION, id, configuration.getMerchantPath() + "/transactions/" + id));
     }
 
     /**
@@ -86,31 +112,119 @@ public class TransactionGateway {
      * @return a {@link Result}.
      */
     public Result<Transaction> refund(String id) {
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/transactions/" + id + "/refund");
+        NodeWrapper response;
+        try {
+            response = http.post(configuration.getMerchantPath() + "/transactions/" + id + "/refund");
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
     public Result<Transaction> refund(String id, BigDecimal amount) {
         TransactionRequest request = new TransactionRequest().amount(amount);
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/transactions/" + id + "/refund", request);
+        NodeWrapper response;
+        try {
+            response = http.post(configuration.getMerchantPath() + "/transactions/" + id + "/refund", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
-    public Result<Transaction> refund(String id, TransactionRefundRequest request) {
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/transactions/" + id + "/refund", request);
+    /**
+     * Refunds all or part of a previous sale {@link Transaction}. If the request has an
+     * {@link TransactionRefundRequest#idempotencyKey(String) idempotency key}, a refund that fails
+     * with a timeout or server error is looked up by order id before it is sent again, and
+     * {@link com.braintreegateway.exceptions.AmbiguousOutcomeException} is thrown if it is neither
+     * found nor completed by a later attempt.
+     * @param id the id of the (sale) {@link Transaction} to refund.
+     * @param request the request.
+     * @return a {@link Result}.
+     */
+    public Result<Transaction> refund(final String id, final TransactionRefundRequest request) {
+        if (request.getIdempotencyKey() == null) {
+            return attemptRefund(id, request);
+        }
+        return new IdempotentOperation<Transaction>(configuration, http, request.getIdempotencyKey()) {
+            Result<Transaction> attempt() {
+                return attemptRefund(id, request);
+            }
+
+            Result<Transaction> findOutcome() {
+                TransactionSearchRequest search = new TransactionSearchRequest().
+                    orderId().is(request.getOrderIdOrKey()).
+                    type().is(Type.CREDIT).
+                    createdAt().greaterThanOrEqualTo(getStartedAt());
+                return findTransactionOutcome(search, request.getAmount(), id);
+            }
+        }.execute();
+    }
+
+    private Result<Transaction> attemptRefund(String id, TransactionRefundRequest request) {
+        NodeWrapper response;
+        try {
+            response = http.post(configuration.getMerchantPath() + "/transactions/" + id + "/refund", request.withKeyAsOrderId());
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
     /**
-     * Creates a sale {@link Transaction}.
+     * Creates a sale {@link Transaction}. If the request has an
+     * {@link TransactionRequest#idempotencyKey(String) idempotency key}, a sale that fails with a
+     * timeout or server error is looked up by order id before it is sent again, and
+     * {@link com.braintreegateway.exceptions.AmbiguousOutcomeException} is thrown if it is neither
+     * found nor completed by a later attempt.
      * @param request the request.
      * @return a {@link Result}.
      */
-    public Result<Transaction> sale(TransactionRequest request) {
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/transactions", request.type(Type.SALE));
+    public Result<Transaction> sale(final TransactionRequest request) {
+        if (request.getIdempotencyKey() == null) {
+            return attemptSale(request);
+        }
+        return new IdempotentOperation<Transaction>(configuration, http, request.getIdempotencyKey()) {
+            Result<Transaction> attempt() {
+                return attemptSale(request);
+            }
+
+            Result<Transaction> findOutcome() {
+                TransactionSearchRequest search = new TransactionSearchRequest().
+                    orderId().is(request.getOrderIdOrKey()).
+                    type().is(Type.SALE).
+                    createdAt().greaterThanOrEqualTo(getStartedAt());
+                return findTransactionOutcome(search, request.getAmount(), null);
+            }
+        }.execute();
+    }
+
+    private Result<Transaction> attemptSale(TransactionRequest request) {
+        NodeWrapper response = http.post(configuration.getMerchantPath() + "/transactions", request.type(Type.SALE).withKeyAsOrderId());
         return new Result<Transaction>(response, Transaction.class);
     }
 
+    /**
+     * Returns the result of the first transaction found with the given amount, and refunding the
+     * given transaction, or null if there is none.
+     */
+    private Result<Transaction> findTransactionOutcome(TransactionSearchRequest search, BigDecimal amount, String refundedTransactionId) {
+        for (Transaction transaction : search(search)) {
+            if (amount != null && transaction.getAmount().compareTo(amount) != 0) {
+                continue;
+            }
+            if (refundedTransactionId != null && !refundedTransactionId.equals(transaction.getRefundedTransactionId())) {
+                continue;
+            }
+            Transaction.Status status = transaction.getStatus();
+            if (status == Transaction.Status.GATEWAY_REJECTED || status == Transaction.Status.PROCESSOR_DECLINED || status == Transaction.Status.FAILED) {
+                return new Result<Transaction>(transaction, transaction.getProcessorResponseText());
+            }
+            return new Result<Transaction>(transaction);
+        }
+        return null;
+    }
+
     /**
      * Creates transparent redirect data for a sale.
      * @param trData the request.
@@ -121,6 +235,21 @@ public class TransactionGateway {
         return new TrUtil(configuration).buildTrData(trData.type(Type.SALE), redirectURL);
     }
 
+    /**
+     * Finds many {@link Transaction Transactions} by id, with one search request per page of ids. The
+     * pages are fetched concurrently on the {@link Configuration#getExecutorService() configured
+     * executor}.
+     * @param ids the ids of the {@link Transaction Transactions}.
+     * @return a {@link FindManyResult} holding the {@link Transaction Transactions} found and the ids that were not.
+     */
+    public FindManyResult<Transaction> findMany(Collection<String> ids) {
+        return new BatchFinder<Transaction>(new TransactionPager(this, new TransactionSearchRequest()), configuration.getExecutorService()) {
+            String idOf(Transaction transaction) {
+                return transaction.getId();
+            }
+        }.find(ids);
+    }
+
     /**
      * Finds all Transactions that match the query and returns a {@link ResourceCollection}.
      * See: <a href="https://developers.braintreepayments.com/reference/request/transaction/search/java" target="_blank">https://developers.braintreepayments.com/reference/request/transaction/search/java</a>
@@ -135,14 +264,49 @@ public class TransactionGateway {
         }
     }
 
-    List<Transaction> fetchTransactions(TransactionSearchRequest query, List<String> ids) {
-        query.ids().in(ids);
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/transactions/advanced_search", query);
+    /**
+     * Finds transactions matching the query that were created between {@code createdAtMin} and
+     * {@code createdAtMax}, splitting the range into {@code shards} time windows that are searched
+     * concurrently on {@link Configuration#getExecutorService()}. Windows whose results reach
+     * {@link Configuration#getSearchResultLimit()} are bisected and searched again, so ranges
+     * too busy for a single search can still be listed in full. Ids from all windows are merged,
+     * oldest window first, without duplicates.
+     *
+     * @param query
+     *            the other criteria; any createdAt criteria are replaced by each window.
+     * @return a {@link ResourceCollection}.
+     */
+    public ResourceCollection<Transaction> search(TransactionSearchRequest query, Calendar createdAtMin, Calendar createdAtMax, int shards) {
+        return new ShardedTransactionSearch(this, configuration, query).search(createdAtMin, createdAtMax, shards);
+    }
+
+    NodeWrapper searchIds(String request) {
+        NodeWrapper node = http.post(configuration.getMerchantPath() + "/transactions/advanced_search_ids", request);
+        if (node.getElementName().equals("search-results")) {
+            return node;
+        } else {
+            throw new DownForMaintenanceException();
+        }
+    }
+
+    List<Transaction> fetchTransactions(PreparedSearch query, List<String> ids) {
+        String request = query.toXML(ids);
+
+        if (streamingBinding) {
+            List<Transaction> items = http.postForRecords(configuration.getMerchantPath() + "/transactions/advanced_search", request,
+                "credit-card-transactions", "transaction", transactionBinder());
+            if (items == null) {
+                throw new DownForMaintenanceException();
+            }
+            return items;
+        }
+
+        NodeWrapper response = http.post(configuration.getMerchantPath() + "/transactions/advanced_search", request);
 
         if (response.getElementName().equals("credit-card-transactions")) {
             List<Transaction> items = new ArrayList<Transaction>();
             for (NodeWrapper node : response.findAll("transaction")) {
-                items.add(new Transaction(node));
+                items.add(new Transaction(node, configuration.usesLazyHydration()));
             }
 
             return items;
@@ -158,7 +322,12 @@ public class TransactionGateway {
      */
     public Result<Transaction> cancelRelease(String id) {
         TransactionRequest request = new TransactionRequest();
-        NodeWrapper response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/cancel_release", request);
+        NodeWrapper response;
+        try {
+            response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/cancel_release", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
@@ -169,7 +338,12 @@ public class TransactionGateway {
      */
     public Result<Transaction> holdInEscrow(String id) {
         TransactionRequest request = new TransactionRequest();
-        NodeWrapper response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/hold_in_escrow", request);
+        NodeWrapper response;
+        try {
+            response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/hold_in_escrow", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
@@ -180,7 +354,12 @@ public class TransactionGateway {
      */
     public Result<Transaction> releaseFromEscrow(String id) {
         TransactionRequest request = new TransactionRequest();
-        NodeWrapper response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/release_from_escrow", request);
+        NodeWrapper response;
+        try {
+            response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/release_from_escrow", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
@@ -207,12 +386,48 @@ public class TransactionGateway {
 
     /**
      * Submits the transaction with the given id to be settled along with a TransactionRequest object.
+     * If the request has an {@link TransactionRequest#idempotencyKey(String) idempotency key}, the
+     * transaction is looked up after a submission fails with a timeout or server error, and the
+     * submission is only sent again if the transaction has not been submitted for settlement;
+     * {@link com.braintreegateway.exceptions.AmbiguousOutcomeException} is thrown if no attempt
+     * is seen to succeed.
      * @param id of the transaction to submit for settlement.
      * @param request the request.
      * @return {@link Result}.
      */
-    public Result<Transaction> submitForSettlement(String id, TransactionRequest request) {
-        NodeWrapper response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/submit_for_settlement", request);
+    public Result<Transaction> submitForSettlement(final String id, final TransactionRequest request) {
+        if (request.getIdempotencyKey() == null) {
+            return attemptSubmitForSettlement(id, request);
+        }
+        return new IdempotentOperation<Transaction>(configuration, http, request.getIdempotencyKey()) {
+            Result<Transaction> attempt() {
+                return attemptSubmitForSettlement(id, request);
+            }
+
+            Result<Transaction> findOutcome() {
+                EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+                Transaction transaction = find(id);
+                switch (transaction.getStatus()) {
+                case SUBMITTED_FOR_SETTLEMENT:
+                case SETTLEMENT_PENDING:
+                case SETTLING:
+                case SETTLED:
+                case SETTLEMENT_CONFIRMED:
+                    return new Result<Transaction>(transaction);
+                default:
+                    return null;
+                }
+            }
+        }.execute();
+    }
+
+    private Result<Transaction> attemptSubmitForSettlement(String id, TransactionRequest request) {
+        NodeWrapper response;
+        try {
+            response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/submit_for_settlement", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
@@ -223,7 +438,12 @@ public class TransactionGateway {
      * @return {@link Result}.
      */
     public Result<Transaction> updateDetails(String id, TransactionRequest request) {
-        NodeWrapper response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/update_details", request);
+        NodeWrapper response;
+        try {
+            response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/update_details", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
@@ -241,7 +461,12 @@ public class TransactionGateway {
      * @return {@link Result}.
      */
     public Result<Transaction> voidTransaction(String id) {
-        NodeWrapper response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/void");
+        NodeWrapper response;
+        try {
+            response = http.put(configuration.getMerchantPath() + "/transactions/" + id + "/void");
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
@@ -263,8 +488,21 @@ public class TransactionGateway {
      * @return {@link Result}.
      */
     public Result<Transaction> submitForPartialSettlement(String id, TransactionRequest request) {
-        NodeWrapper response = http.post(configuration.getMerchantPath() + "/transactions/" + id + "/submit_for_partial_settlement", request);
+        NodeWrapper response;
+        try {
+            response = http.post(configuration.getMerchantPath() + "/transactions/" + id + "/submit_for_partial_settlement", request);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.TRANSACTION, id);
+        }
         return new Result<Transaction>(response, Transaction.class);
     }
 
+    private NodeBinder<Transaction> transactionBinder() {
+        final boolean lazy = configuration.usesLazyHydration();
+        return new NodeBinder<Transaction>() {
+            public Transaction bind(NodeWrapper node) {
+                return new Transaction(node, lazy);
+            }
+        };
+    }
 }
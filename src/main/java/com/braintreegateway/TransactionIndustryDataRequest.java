@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionIndustryDataRequest extends Request {
 
     private final TransactionIndustryRequest parent;
@@ -67,6 +69,11 @@ public class TransactionIndustryDataRequest extends Request {
         return buildRequest("data").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("data").writeXML(writer);
+    }
+
     @Override
     public String toQueryString(String root) {
         return buildRequest(root).toQueryString();
@@ -1,5 +1,6 @@
 package com.braintreegateway;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 
 public class TransactionLineItemRequest extends Request {
@@ -97,6 +98,11 @@ public class TransactionLineItemRequest extends Request {
         return buildRequest("item").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("item").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("item");
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionOptionsAmexRewardsRequest extends Request {
     private TransactionOptionsRequest parent;
     private String points;
@@ -40,6 +42,11 @@ public class TransactionOptionsAmexRewardsRequest extends Request {
         return buildRequest("amex-rewards").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("amex-rewards").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("amex-rewards");
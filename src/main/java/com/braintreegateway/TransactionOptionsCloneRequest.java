@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionOptionsCloneRequest extends Request {
     private TransactionCloneRequest parent;
     private Boolean submitForSettlement;
@@ -22,6 +24,11 @@ public class TransactionOptionsCloneRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("options");
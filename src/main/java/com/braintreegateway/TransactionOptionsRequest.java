@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionOptionsRequest extends Request {
     private Boolean addBillingAddressToPaymentMethod;
     private Boolean holdInEscrow;
@@ -106,6 +108,11 @@ public class TransactionOptionsRequest extends Request {
         return buildRequest("options").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("options").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("options");
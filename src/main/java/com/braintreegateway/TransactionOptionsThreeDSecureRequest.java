@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionOptionsThreeDSecureRequest extends Request {
     private TransactionOptionsRequest parent;
     private boolean required;
@@ -22,6 +24,11 @@ public class TransactionOptionsThreeDSecureRequest extends Request {
         return buildRequest("three-d-secure").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("three-d-secure").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("three-d-secure");
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionOptionsVenmoRequest extends Request {
     private TransactionOptionsRequest parent;
     private String profileId;
@@ -22,6 +24,11 @@ public class TransactionOptionsVenmoRequest extends Request {
         return buildRequest("venmo").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("venmo").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("venmo");
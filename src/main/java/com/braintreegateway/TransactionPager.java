@@ -4,11 +4,11 @@ import java.util.List;
 
 public class TransactionPager implements Pager<Transaction> {
     private TransactionGateway gateway;
-    private TransactionSearchRequest query;
+    private PreparedSearch query;
 
     public TransactionPager(TransactionGateway gateway, TransactionSearchRequest query) {
         this.gateway = gateway;
-        this.query = query;
+        this.query = query.prepare();
     }
 
     public List<Transaction> getPage(List<String> ids) {
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionPayPalRequest extends Request {
     private TransactionRequest parent;
     private String payeeEmail;
@@ -26,6 +28,11 @@ public class TransactionPayPalRequest extends Request {
         return buildRequest("paypalAccount").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("paypalAccount").writeXML(writer);
+    }
+
     @Override
     public String toQueryString(String root) {
         return buildRequest(root).toQueryString();
@@ -1,5 +1,6 @@
 package com.braintreegateway;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,6 +11,7 @@ import java.util.Map;
 public class TransactionRefundRequest extends Request {
     private BigDecimal amount;
     private String orderId;
+    private String idempotencyKey;
 
     public TransactionRefundRequest() {
     }
@@ -24,6 +26,58 @@ public class TransactionRefundRequest extends Request {
         return this;
     }
 
+    /**
+     * Makes {@link TransactionGateway#refund(String, TransactionRefundRequest)} look for a refund
+     * with this key as its order id after a timeout or server error before sending it again, and
+     * retry calls that never reached the gateway. The key is sent as the order id unless one has
+     * been set, in which case the order id itself must be unique to this refund.
+     */
+    public TransactionRefundRequest idempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+        return this;
+    }
+
+    String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    /**
+     * @return this request as sent with its idempotency key: the key is sent as the order id if
+     *         none has been set. This request itself is not changed.
+     */
+    Request withKeyAsOrderId() {
+        if (idempotencyKey == null || getOrderId() != null) {
+            return this;
+        }
+        final RequestBuilder builder = buildRequest("transaction", idempotencyKey);
+        return new Request() {
+            @Override
+            public String toXML() {
+                return builder.toXML();
+            }
+
+            @Override
+            public void writeXML(XmlRequestWriter writer) throws IOException {
+                builder.writeXML(writer);
+            }
+        };
+    }
+
+    /**
+     * @return the order id the request is sent with by {@link #withKeyAsOrderId()}.
+     */
+    String getOrderIdOrKey() {
+        return getOrderId() != null ? getOrderId() : idempotencyKey;
+    }
+
+    String getOrderId() {
+        return orderId;
+    }
+
+    BigDecimal getAmount() {
+        return amount;
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("transaction");
@@ -39,7 +93,16 @@ public class TransactionRefundRequest extends Request {
         return buildRequest("transaction").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("transaction").writeXML(writer);
+    }
+
     protected RequestBuilder buildRequest(String root) {
+        return buildRequest(root, orderId);
+    }
+
+    private RequestBuilder buildRequest(String root, String orderId) {
         RequestBuilder builder = new RequestBuilder(root).
             addElement("amount", amount).
             addElement("orderId", orderId);
@@ -2,6 +2,7 @@ package com.braintreegateway;
 
 import com.braintreegateway.Transaction.Type;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -59,6 +60,8 @@ public class TransactionRequest extends Request {
     private RiskDataTransactionRequest riskDataTransactionRequest;
 
     private List<TransactionLineItemRequest> transactionLineItemRequests;
+    private RequestBuilder template;
+    private String idempotencyKey;
 
     public TransactionRequest() {
         this.customFields = new HashMap<String, String>();
@@ -66,6 +69,11 @@ public class TransactionRequest extends Request {
         this.transactionLineItemRequests = new ArrayList<TransactionLineItemRequest>();
     }
 
+    TransactionRequest(RequestBuilder template) {
+        this();
+        this.template = template;
+    }
+
     public TransactionRequest amount(BigDecimal amount) {
         this.amount = amount;
         return this;
@@ -161,6 +169,63 @@ public class TransactionRequest extends Request {
         return this;
     }
 
+    /**
+     * Makes {@link TransactionGateway#sale(TransactionRequest)} and
+     * {@link TransactionGateway#submitForSettlement(String, TransactionRequest)} look up whether a
+     * call that failed with a timeout or server error took effect before sending it again, and
+     * retry calls that never reached the gateway. A sale is looked up by order id: the key is
+     * sent as the order id unless one has been set, in which case the order id itself must be
+     * unique to this sale.
+     */
+    public TransactionRequest idempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+        return this;
+    }
+
+    String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    /**
+     * @return this request as sent with its idempotency key: the key is sent as the order id if
+     *         none has been set. This request itself is not changed.
+     */
+    Request withKeyAsOrderId() {
+        if (idempotencyKey == null || getOrderId() != null) {
+            return this;
+        }
+        final RequestBuilder builder = buildRequest("transaction", idempotencyKey);
+        return new Request() {
+            @Override
+            public String toXML() {
+                return builder.toXML();
+            }
+
+            @Override
+            public void writeXML(XmlRequestWriter writer) throws IOException {
+                builder.writeXML(writer);
+            }
+        };
+    }
+
+    /**
+     * @return the order id the request is sent with by {@link #withKeyAsOrderId()}.
+     */
+    String getOrderIdOrKey() {
+        return getOrderId() != null ? getOrderId() : idempotencyKey;
+    }
+
+    String getOrderId() {
+        if (orderId == null && template != null) {
+            return (String) template.getElement("orderId");
+        }
+        return orderId;
+    }
+
+    BigDecimal getAmount() {
+        return amount;
+    }
+
     public TransactionRequest paymentMethodToken(String paymentMethodToken) {
         this.paymentMethodToken = paymentMethodToken;
         return this;
@@ -294,13 +359,23 @@ public class TransactionRequest extends Request {
         return buildRequest("transaction").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("transaction").writeXML(writer);
+    }
+
     public TransactionRequest type(Type type) {
         this.type = type;
         return this;
     }
 
     protected RequestBuilder buildRequest(String root) {
+        return buildRequest(root, orderId);
+    }
+
+    private RequestBuilder buildRequest(String root, String orderId) {
         RequestBuilder builder = new RequestBuilder(root).
+            addTemplate(template).
             addElement("amount", amount).
             addElement("deviceData", deviceData).
             addElement("channel", channel).
@@ -0,0 +1,34 @@
+package com.braintreegateway;
+
+/**
+ * Holds the fields shared by many {@link TransactionRequest TransactionRequests}, such as the
+ * merchant account, channel, descriptor and options, rendered to XML once. Requests created from
+ * the template only serialize the fields set on them:
+ *
+ * <pre>
+ * TransactionRequestTemplate template = new TransactionRequestTemplate(new TransactionRequest().
+ *     merchantAccountId("merchant_account").
+ *     channel("checkout").
+ *     options().
+ *         submitForSettlement(true).
+ *         done());
+ *
+ * gateway.transaction().sale(template.newRequest().amount(amount).paymentMethodNonce(nonce));
+ * </pre>
+ *
+ * Changes made to the request after it is passed to the constructor are not picked up. A field or
+ * nested request such as {@code options()} belongs either to the template or to the requests
+ * created from it, not both; building a request that sets a field the template already sets throws
+ * an {@link IllegalArgumentException}. Templates may be shared between threads.
+ */
+public class TransactionRequestTemplate {
+    private final RequestBuilder fields;
+
+    public TransactionRequestTemplate(TransactionRequest request) {
+        this.fields = request.buildRequest("transaction").freeze();
+    }
+
+    public TransactionRequest newRequest() {
+        return new TransactionRequest(fields);
+    }
+}
@@ -1,5 +1,7 @@
 package com.braintreegateway;
 
+import java.io.IOException;
+
 public class TransactionThreeDSecurePassThruRequest extends Request {
     private TransactionRequest parent;
     private String eciFlag;
@@ -34,6 +36,11 @@ public class TransactionThreeDSecurePassThruRequest extends Request {
         return buildRequest("threeDSecurePassThru").toXML();
     }
 
+    @Override
+    public void writeXML(XmlRequestWriter writer) throws IOException {
+        buildRequest("threeDSecurePassThru").writeXML(writer);
+    }
+
     @Override
     public String toQueryString() {
         return toQueryString("threeDSecurePassThru");
@@ -22,6 +22,12 @@ public class UsBankAccountGateway {
             .paymentMethodToken(token)
             .options()
                 .submitForSettlement(true);
-        return gateway.transaction().sale(transactionRequest);
+        Result<Transaction> result;
+        try {
+            result = gateway.transaction().sale(transactionRequest);
+        } finally {
+            EntityCache.invalidate(configuration, EntityCache.PAYMENT_METHOD, token);
+        }
+        return result;
     }
 }
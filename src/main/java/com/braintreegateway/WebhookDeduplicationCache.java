@@ -0,0 +1,129 @@
+package com.braintreegateway;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the payloads of recently parsed webhooks so that redelivered ones are recognized by a
+ * digest of the payload once its signature has been verified, before it is parsed. Entries expire after a fixed time, and
+ * the least recently seen entries are dropped once the cache is full.
+ * <p>
+ * Set on a {@link Configuration} with {@link Configuration#setWebhookDeduplicationCache}, after
+ * which {@link WebhookNotificationGateway#parse(String, String)} throws
+ * {@link com.braintreegateway.exceptions.DuplicateWebhookException} for a payload it has already
+ * parsed. A payload whose processing failed can be {@link #forget(String) forgotten} so that
+ * its redelivery is processed again.
+ */
+public class WebhookDeduplicationCache {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<ByteBuffer, Long> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public WebhookDeduplicationCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = unit.toMillis(ttl);
+        this.entries = new LinkedHashMap<ByteBuffer, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Long> eldest) {
+                return size() > WebhookDeduplicationCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return true if the payload was seen within the time to live. Counts a hit or a miss.
+     */
+    public boolean contains(String payload) {
+        boolean seen = isSeen(digest(payload), System.currentTimeMillis());
+        if (seen) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return seen;
+    }
+
+    /**
+     * Records a payload as seen.
+     *
+     * @return false if it had already been seen, for instance by a concurrent delivery of the
+     * same webhook.
+     */
+    public boolean add(String payload) {
+        ByteBuffer key = digest(payload);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            if (isSeen(key, now)) {
+                return false;
+            }
+            evictExpired(now);
+            entries.put(key, now + ttlMillis);
+            return true;
+        }
+    }
+
+    public void forget(String payload) {
+        ByteBuffer key = digest(payload);
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private boolean isSeen(ByteBuffer key, long now) {
+        synchronized (entries) {
+            Long expiry = entries.get(key);
+            if (expiry == null) {
+                return false;
+            } else if (expiry <= now) {
+                entries.remove(key);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Long> expiries = entries.values().iterator();
+        while (expiries.hasNext() && expiries.next() <= now) {
+            expiries.remove();
+        }
+    }
+
+    private static ByteBuffer digest(String payload) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(payload.getBytes("UTF-8")));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
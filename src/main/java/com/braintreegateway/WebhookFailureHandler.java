@@ -0,0 +1,9 @@
+package com.braintreegateway;
+
+/**
+ * Receives the webhooks a {@link WebhookProcessor} could not process: those with an invalid
+ * signature or payload, and those whose handler threw.
+ */
+public interface WebhookFailureHandler {
+    void onFailure(String signature, String payload, Throwable cause);
+}
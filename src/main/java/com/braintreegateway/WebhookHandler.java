@@ -0,0 +1,9 @@
+package com.braintreegateway;
+
+/**
+ * Handles the notifications a {@link WebhookProcessor} dispatches to it. Handlers are called
+ * from the processor's worker threads, possibly for several notifications at once.
+ */
+public interface WebhookHandler {
+    void handle(WebhookNotification notification);
+}
@@ -64,12 +64,32 @@ public class WebhookNotification {
     private GrantedPaymentInstrumentUpdate grantedPaymentInstrumentUpdate;
     private String sourceMerchantId;
 
+    private volatile NodeWrapper subjectNode;
+
     public WebhookNotification(NodeWrapper node) {
+        this(node, false);
+    }
+
+    /**
+     * @param lazy
+     *            if true, only the kind, timestamp and source merchant id are decoded now; the
+     *            subject is decoded from the retained node the first time one of its getters
+     *            is called.
+     */
+    WebhookNotification(NodeWrapper node, boolean lazy) {
         this.kind = EnumUtils.findByName(Kind.class, node.findString("kind"), Kind.UNRECOGNIZED);
         this.timestamp = node.findDateTime("timestamp");
 
         this.sourceMerchantId = node.findString("source-merchant-id");
 
+        if (lazy) {
+            subjectNode = node;
+        } else {
+            decodeSubject(node);
+        }
+    }
+
+    private void decodeSubject(NodeWrapper node) {
         NodeWrapper wrapperNode = node.findFirst("subject");
 
         if (wrapperNode.findFirst("api-error-response") != null) {
@@ -125,7 +145,19 @@ public class WebhookNotification {
         }
     }
 
+    private void hydrate() {
+        if (subjectNode != null) {
+            synchronized (this) {
+                if (subjectNode != null) {
+                    decodeSubject(subjectNode);
+                    subjectNode = null;
+                }
+            }
+        }
+    }
+
     public ValidationErrors getErrors() {
+        hydrate();
         return this.errors;
     }
 
@@ -138,22 +170,27 @@ public class WebhookNotification {
     }
 
     public MerchantAccount getMerchantAccount() {
+        hydrate();
         return this.merchantAccount;
     }
 
     public Subscription getSubscription() {
+        hydrate();
         return this.subscription;
     }
 
     public Transaction getTransaction() {
+        hydrate();
         return this.transaction;
     }
 
     public Disbursement getDisbursement() {
+        hydrate();
         return this.disbursement;
     }
 
     public Dispute getDispute() {
+        hydrate();
         return this.dispute;
     }
 
@@ -162,26 +199,32 @@ public class WebhookNotification {
     }
 
     public PartnerMerchant getPartnerMerchant() {
+        hydrate();
         return this.partnerMerchant;
     }
 
     public ConnectedMerchantStatusTransitioned getConnectedMerchantStatusTransitioned() {
+        hydrate();
         return this.connectedMerchantStatusTransitioned;
     }
 
     public ConnectedMerchantPayPalStatusChanged getConnectedMerchantPayPalStatusChanged() {
+        hydrate();
         return this.connectedMerchantPayPalStatusChanged;
     }
 
     public AccountUpdaterDailyReport getAccountUpdaterDailyReport() {
+        hydrate();
         return this.accountUpdaterDailyReport;
     }
 
     public IdealPayment getIdealPayment() {
+        hydrate();
         return this.idealPayment;
     }
 
     public GrantedPaymentInstrumentUpdate getGrantedPaymentInstrumentUpdate() {
+        hydrate();
         return this.grantedPaymentInstrumentUpdate;
     }
 }
@@ -1,17 +1,22 @@
 package com.braintreegateway;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 
+import com.braintreegateway.exceptions.DuplicateWebhookException;
 import com.braintreegateway.exceptions.InvalidChallengeException;
 import com.braintreegateway.exceptions.InvalidSignatureException;
+import com.braintreegateway.exceptions.UnexpectedException;
 import com.braintreegateway.org.apache.commons.codec.binary.Base64;
-import com.braintreegateway.util.Crypto;
-import com.braintreegateway.util.Sha1Hasher;
+import com.braintreegateway.util.IndexedNodeWrapperFactory;
+import com.braintreegateway.util.InputStreamNodeWrapperFactory;
 import com.braintreegateway.util.NodeWrapper;
-import com.braintreegateway.util.NodeWrapperFactory;
+import com.braintreegateway.util.SimpleNodeWrapperFactory;
 
 public class WebhookNotificationGateway {
+    private static final Pattern ILLEGAL_PAYLOAD_CHARACTERS = Pattern.compile("[^A-Za-z0-9+=/\n]");
+
     private Configuration configuration;
 
     public WebhookNotificationGateway(Configuration configuration) {
@@ -25,15 +30,40 @@ public class WebhookNotificationGateway {
         if (payload == null) {
             throw new InvalidSignatureException("payload cannot be null");
         }
-        Pattern p = Pattern.compile("[^A-Za-z0-9+=/\n]");
-        Matcher m = p.matcher(payload);
-        if (m.find()) {
+        if (ILLEGAL_PAYLOAD_CHARACTERS.matcher(payload).find()) {
           throw new InvalidSignatureException("payload contains illegal characters");
         }
         validateSignature(signature, payload);
-        String xmlPayload = new String(Base64.decodeBase64(payload));
-        NodeWrapper node = NodeWrapperFactory.instance.create(xmlPayload);
-        return new WebhookNotification(node);
+        WebhookDeduplicationCache deduplicationCache = configuration.getWebhookDeduplicationCache();
+        if (deduplicationCache != null && (deduplicationCache.contains(payload) || !deduplicationCache.add(payload))) {
+            throw new DuplicateWebhookException("webhook has already been parsed");
+        }
+        try {
+            InputStreamNodeWrapperFactory factory = configuration.usesIndexedParsing() ? new IndexedNodeWrapperFactory() : new SimpleNodeWrapperFactory();
+            NodeWrapper node = factory.create(new ByteArrayInputStream(Base64.decodeBase64(payload)));
+            if (configuration.getEntityCache() != null) {
+                configuration.getEntityCache().invalidateSubject(node);
+            }
+            return new WebhookNotification(node, configuration.usesLazyWebhookParsing());
+        } catch (IOException e) {
+            forget(payload);
+            throw new UnexpectedException(e.getMessage(), e);
+        } catch (RuntimeException e) {
+            forget(payload);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes {@code payload} from the {@link Configuration#getWebhookDeduplicationCache()
+     * deduplication cache}, if any, so that a redelivery of a webhook whose handling failed is
+     * parsed again.
+     */
+    public void forget(String payload) {
+        WebhookDeduplicationCache deduplicationCache = configuration.getWebhookDeduplicationCache();
+        if (deduplicationCache != null) {
+            deduplicationCache.forget(payload);
+        }
     }
 
     private void validateSignature(String signature, String payload) {
@@ -60,8 +90,7 @@ public class WebhookNotificationGateway {
     }
 
     private Boolean matchSignature(String payload, String matchingSignature) {
-      String computedSignature = new Sha1Hasher().hmacHash(configuration.getPrivateKey(), payload);
-      return new Crypto().secureCompare(computedSignature, matchingSignature);
+      return configuration.getHmacSigner().verify(payload, matchingSignature);
     }
 
     public String verify(String challenge) {
@@ -72,6 +101,6 @@ public class WebhookNotificationGateway {
     }
 
     private String publicKeySignaturePair(String stringToSign) {
-        return String.format("%s|%s", configuration.getPublicKey(), new Sha1Hasher().hmacHash(configuration.getPrivateKey(), stringToSign));
+        return String.format("%s|%s", configuration.getPublicKey(), configuration.getHmacSigner().hexSign(stringToSign));
     }
 }
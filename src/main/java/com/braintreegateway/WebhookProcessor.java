@@ -0,0 +1,228 @@
+package com.braintreegateway;
+
+import com.braintreegateway.exceptions.DuplicateWebhookException;
+import com.braintreegateway.util.DaemonThreadFactory;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Verifies, parses and dispatches webhooks on a pool of worker threads, so that the endpoint
+ * receiving them only has to queue each one. Handlers are registered per
+ * {@link WebhookNotification.Kind}; kinds without a handler go to the default handler, if any.
+ * <p>
+ * The queue is bounded. {@link #offer(String, String)} returns false once it is full, and the
+ * endpoint should then answer with an error status so that the webhook is delivered again later.
+ * {@link #isSaturated()} reports when the queue is filling up, before webhooks are refused.
+ * <p>
+ * A webhook accepted by {@link #offer(String, String)} is acknowledged before it has been
+ * verified or handled, so Braintree will not deliver it again if that fails: failures are only
+ * reported to the {@link #onFailure(WebhookFailureHandler) failure handler}, and recovering from
+ * them is then up to the caller. To have failed webhooks delivered again instead, use
+ * {@link #handle(String, String, long, TimeUnit)}, which waits for the outcome so that the
+ * endpoint can answer with an error status when handling fails.
+ * <pre>
+ * WebhookProcessor processor = new WebhookProcessor(gateway.webhookNotification(), 10000, 4).
+ *     on(WebhookNotification.Kind.TRANSACTION_DISBURSED, disbursedHandler).
+ *     onFailure(failureHandler);
+ *
+ * if (!processor.offer(request.getParameter("bt_signature"), request.getParameter("bt_payload"))) {
+ *     response.setStatus(503);
+ * }
+ * </pre>
+ */
+public class WebhookProcessor {
+    private static final Logger logger = Logger.getLogger("Braintree");
+    private static final double SATURATION_THRESHOLD = 0.8;
+
+    private final WebhookNotificationGateway gateway;
+    private final int capacity;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+    private final Map<WebhookNotification.Kind, WebhookHandler> handlers = new ConcurrentHashMap<WebhookNotification.Kind, WebhookHandler>();
+    private volatile WebhookHandler defaultHandler;
+    private volatile WebhookFailureHandler failureHandler;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param capacity the number of webhooks that may wait to be processed.
+     * @param workers the number of webhooks processed at once.
+     */
+    public WebhookProcessor(WebhookNotificationGateway gateway, int capacity, int workers) {
+        if (capacity < 1 || workers < 1) {
+            throw new IllegalArgumentException("capacity and workers must be at least 1");
+        }
+        this.gateway = gateway;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<Runnable>(capacity);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, queue, new DaemonThreadFactory("braintree-webhook"));
+    }
+
+    public WebhookProcessor on(WebhookNotification.Kind kind, WebhookHandler handler) {
+        handlers.put(kind, handler);
+        return this;
+    }
+
+    /**
+     * Handles the kinds no handler was registered for.
+     */
+    public WebhookProcessor onOtherKinds(WebhookHandler handler) {
+        this.defaultHandler = handler;
+        return this;
+    }
+
+    public WebhookProcessor onFailure(WebhookFailureHandler handler) {
+        this.failureHandler = handler;
+        return this;
+    }
+
+    /**
+     * Queues a webhook for processing.
+     *
+     * @return false if the queue is full or the processor has been shut down.
+     */
+    public boolean offer(final String signature, final String payload) {
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    process(signature, payload);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Queues a webhook for processing and waits for it to be handled, so that the endpoint can
+     * acknowledge it only once it has been. A redelivery of a webhook that failed is processed
+     * again, even with a {@link WebhookDeduplicationCache}.
+     * <pre>
+     * if (!processor.handle(request.getParameter("bt_signature"), request.getParameter("bt_payload"), 10, TimeUnit.SECONDS)) {
+     *     response.setStatus(503);
+     * }
+     * </pre>
+     *
+     * @return true if the webhook was handled or was a redelivery of one already handled; false
+     *         if the queue is full, verifying or handling it failed, or it was not handled within
+     *         the timeout.
+     */
+    public boolean handle(final String signature, final String payload, long timeout, TimeUnit unit) {
+        FutureTask<Boolean> task = new FutureTask<Boolean>(new Callable<Boolean>() {
+            public Boolean call() {
+                return process(signature, payload);
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        try {
+            return task.get(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the webhook was handled or skipped as a redelivery.
+     */
+    private boolean process(String signature, String payload) {
+        try {
+            WebhookNotification notification = gateway.parse(signature, payload);
+            WebhookHandler handler = handlers.get(notification.getKind());
+            if (handler == null) {
+                handler = defaultHandler;
+            }
+            if (handler != null) {
+                handler.handle(notification);
+            }
+            processed.incrementAndGet();
+            return true;
+        } catch (DuplicateWebhookException e) {
+            duplicates.incrementAndGet();
+            return true;
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            gateway.forget(payload);
+            WebhookFailureHandler failureHandler = this.failureHandler;
+            if (failureHandler == null) {
+                logger.log(Level.WARNING, "[Braintree] Webhook processing failed", e);
+            } else {
+                failureHandler.onFailure(signature, payload, e);
+            }
+            return false;
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    /**
+     * @return true if the queue is more than 80% full.
+     */
+    public boolean isSaturated() {
+        return queue.size() > capacity * SATURATION_THRESHOLD;
+    }
+
+    public long getProcessedCount() {
+        return processed.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of redelivered webhooks skipped by the configuration's
+     * {@link WebhookDeduplicationCache}.
+     */
+    public long getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Stops accepting webhooks; those already queued are still processed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
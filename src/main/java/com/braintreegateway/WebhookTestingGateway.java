@@ -1,7 +1,6 @@
 package com.braintreegateway;
 
 import com.braintreegateway.org.apache.commons.codec.binary.Base64;
-import com.braintreegateway.util.Sha1Hasher;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -34,7 +33,7 @@ public class WebhookTestingGateway {
     }
 
     private String publicKeySignaturePair(String stringToSign) {
-        return String.format("%s|%s", configuration.getPublicKey(), new Sha1Hasher().hmacHash(configuration.getPrivateKey(), stringToSign));
+        return String.format("%s|%s", configuration.getPublicKey(), configuration.getHmacSigner().hexSign(stringToSign));
     }
 
     public HashMap<String, String> sampleNotification(WebhookNotification.Kind kind, String id) {
@@ -0,0 +1,142 @@
+package com.braintreegateway;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Writes request XML straight to an {@link Appendable}, such as a {@link StringBuilder} or a
+ * {@link java.io.Writer} on the request's output stream. The output is the same as that of
+ * {@link Request#toXML()}; values are escaped in a single pass as they are written.
+ */
+public class XmlRequestWriter {
+    private static final ThreadLocal<SimpleDateFormat> dateFormats = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+            dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            return dateFormat;
+        }
+    };
+
+    private Appendable out;
+
+    public XmlRequestWriter(Appendable out) {
+        this.out = out;
+    }
+
+    public XmlRequestWriter startElement(String name) throws IOException {
+        out.append('<').append(name).append('>');
+        return this;
+    }
+
+    public XmlRequestWriter startElement(String name, String type) throws IOException {
+        out.append('<').append(name).append(" type=\"").append(type).append("\">");
+        return this;
+    }
+
+    public XmlRequestWriter endElement(String name) throws IOException {
+        out.append("</").append(name).append('>');
+        return this;
+    }
+
+    /**
+     * Writes already rendered XML as is.
+     */
+    public XmlRequestWriter raw(String xml) throws IOException {
+        out.append(xml);
+        return this;
+    }
+
+    public XmlRequestWriter text(String value) throws IOException {
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            String entity = entityFor(value.charAt(i));
+            if (entity != null) {
+                out.append(value, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(value, start, length);
+        return this;
+    }
+
+    /**
+     * Writes {@code value} as an element named {@code name}: nested requests write themselves,
+     * calendars become datetimes, maps become nested elements and lists become arrays of
+     * {@code item}s. Null values are left out.
+     */
+    @SuppressWarnings("unchecked")
+    public XmlRequestWriter element(String name, Object value) throws IOException {
+        if (value == null) {
+            return this;
+        } else if (value instanceof Request) {
+            ((Request) value).writeXML(this);
+        } else if (value instanceof Calendar) {
+            startElement(name, "datetime");
+            out.append(dateFormats.get().format(((Calendar) value).getTime()));
+            endElement(name);
+        } else if (value instanceof Map<?, ?>) {
+            startElement(name);
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                element(entry.getKey(), entry.getValue());
+            }
+            endElement(name);
+        } else if (value instanceof List<?>) {
+            startElement(name, "array");
+            for (Object item : (List<Object>) value) {
+                element("item", item);
+            }
+            endElement(name);
+        } else {
+            out.append('<');
+            text(name);
+            out.append('>');
+            text(value.toString());
+            out.append("</");
+            text(name);
+            out.append('>');
+        }
+        return this;
+    }
+
+    static String escape(String value) {
+        StringBuilder builder = null;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String entity = entityFor(value.charAt(i));
+            if (entity != null) {
+                if (builder == null) {
+                    builder = new StringBuilder(value.length() + 16);
+                }
+                builder.append(value, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        if (builder == null) {
+            return value;
+        }
+        return builder.append(value, start, value.length()).toString();
+    }
+
+    private static String entityFor(char c) {
+        switch (c) {
+        case '&':
+            return "&amp;";
+        case '<':
+            return "&lt;";
+        case '>':
+            return "&gt;";
+        case '\'':
+            return "&apos;";
+        case '"':
+            return "&quot;";
+        default:
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.braintreegateway.exceptions;
+
+/**
+ * Thrown by a call made with an idempotency key when it failed after reaching the gateway and its
+ * outcome could not be found in time. The call may still have taken effect; look it up by the key
+ * before making it again.
+ */
+public class AmbiguousOutcomeException extends BraintreeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String idempotencyKey;
+
+    public AmbiguousOutcomeException(String idempotencyKey, Throwable cause) {
+        super("outcome of the call with idempotency key " + idempotencyKey + " is unknown", cause);
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,20 @@
+package com.braintreegateway.exceptions;
+
+/**
+ * Thrown without contacting the gateway when the circuit breaker for the endpoint family being
+ * called is open.
+ */
+public class CircuitBreakerOpenException extends BraintreeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String endpointFamily;
+
+    public CircuitBreakerOpenException(String endpointFamily) {
+        super("circuit breaker for " + endpointFamily + " is open");
+        this.endpointFamily = endpointFamily;
+    }
+
+    public String getEndpointFamily() {
+        return endpointFamily;
+    }
+}
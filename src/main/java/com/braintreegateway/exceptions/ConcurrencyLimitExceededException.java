@@ -0,0 +1,13 @@
+package com.braintreegateway.exceptions;
+
+/**
+ * Thrown without contacting the gateway when a request cannot get a slot from the
+ * {@link com.braintreegateway.util.ConcurrencyLimiter} in time.
+ */
+public class ConcurrencyLimitExceededException extends TooManyRequestsException {
+    private static final long serialVersionUID = 1L;
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.braintreegateway.exceptions;
+
+/**
+ * Thrown when no pooled connection to the gateway became free in time. The request was not sent.
+ */
+public class ConnectionPoolTimeoutException extends TimeoutException {
+    private static final long serialVersionUID = 1L;
+
+    public ConnectionPoolTimeoutException(String message) {
+        super(message);
+    }
+}
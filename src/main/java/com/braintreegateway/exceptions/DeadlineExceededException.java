@@ -0,0 +1,13 @@
+package com.braintreegateway.exceptions;
+
+/**
+ * Thrown instead of making a request once the deadline set with
+ * {@link com.braintreegateway.RequestOptions#deadline(java.util.Calendar)} has passed.
+ */
+public class DeadlineExceededException extends TimeoutException {
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
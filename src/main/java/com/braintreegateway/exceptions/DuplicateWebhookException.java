@@ -0,0 +1,9 @@
+package com.braintreegateway.exceptions;
+
+public class DuplicateWebhookException extends BraintreeException {
+    private static final long serialVersionUID = 1L;
+
+    public DuplicateWebhookException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,209 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.exceptions.CircuitBreakerOpenException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops calls to an endpoint family that is failing, so that callers fail fast instead of each
+ * waiting for a timeout. The breaker keeps the outcomes of the last {@code windowSize} calls;
+ * once at least {@code minimumCalls} have been made and either the share of failures or the
+ * share of calls slower than {@code slowCallThreshold} reaches its threshold, the breaker opens
+ * and calls throw {@link CircuitBreakerOpenException}. After {@code openDuration} it lets
+ * {@code halfOpenCalls} probe calls through: if they all succeed it closes, otherwise it opens
+ * again.
+ * <p>
+ * Each permission carries the generation of the state it was given in, which changes whenever the
+ * breaker changes state. An outcome from an earlier generation, such as a call let through while
+ * closed that finishes after the breaker has opened and started probing, is ignored.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN;
+    }
+
+    private static final int FAILED = 1;
+    private static final int SLOW = 2;
+
+    private final String endpointFamily;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThreshold;
+    private final double slowCallRateThreshold;
+    private final long openDuration;
+    private final int halfOpenCalls;
+    private final int[] outcomes;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private long generation;
+    private int probesStarted;
+    private int probesSucceeded;
+    private long rejected;
+
+    /**
+     * @param endpointFamily
+     *            the endpoints guarded, used in exception messages.
+     * @param windowSize
+     *            the number of recent calls the rates are computed over.
+     * @param minimumCalls
+     *            the number of calls needed before the breaker can open.
+     * @param failureRateThreshold
+     *            the share of failed calls, between 0 and 1, that opens the breaker.
+     * @param slowCallThreshold
+     *            how long, in milliseconds, a call may take before it counts as slow.
+     * @param slowCallRateThreshold
+     *            the share of slow calls, between 0 and 1, that opens the breaker.
+     * @param openDuration
+     *            how long, in milliseconds, the breaker stays open before probing.
+     * @param halfOpenCalls
+     *            the number of probe calls that must succeed to close the breaker.
+     */
+    public CircuitBreaker(String endpointFamily, int windowSize, int minimumCalls, double failureRateThreshold, long slowCallThreshold,
+            double slowCallRateThreshold, long openDuration, int halfOpenCalls) {
+        this.endpointFamily = endpointFamily;
+        this.outcomes = new int[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThreshold = TimeUnit.MILLISECONDS.toNanos(slowCallThreshold);
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDuration = TimeUnit.MILLISECONDS.toNanos(openDuration);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    /**
+     * Lets a call through, or throws if the breaker is open or all probes are taken.
+     *
+     * @return the generation the permission belongs to, to be passed to
+     *         {@link #record(long, long, boolean)} or {@link #releasePermission(long)}.
+     * @throws CircuitBreakerOpenException
+     *             if the call must not be made.
+     */
+    public synchronized long acquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDuration) {
+            state = State.HALF_OPEN;
+            generation++;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && probesStarted >= halfOpenCalls)) {
+            rejected++;
+            throw new CircuitBreakerOpenException(endpointFamily);
+        }
+        if (state == State.HALF_OPEN) {
+            probesStarted++;
+        }
+        return generation;
+    }
+
+    /**
+     * Gives back a permission for a call that was not made after all.
+     *
+     * @param permission
+     *            the generation returned by {@link #acquirePermission()}.
+     */
+    public synchronized void releasePermission(long permission) {
+        if (permission == generation && state == State.HALF_OPEN && probesStarted > 0) {
+            probesStarted--;
+        }
+    }
+
+    /**
+     * Records the outcome of a call let through by {@link #acquirePermission()}, unless the
+     * breaker has changed state since.
+     *
+     * @param permission
+     *            the generation returned by {@link #acquirePermission()}.
+     * @param duration
+     *            how long the call took, in nanoseconds.
+     * @param failed
+     *            true if the call failed in a way that suggests the endpoint is unhealthy.
+     */
+    public synchronized void record(long permission, long duration, boolean failed) {
+        if (permission != generation) {
+            return;
+        }
+        boolean slow = duration >= slowCallThreshold;
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                open();
+            } else if (++probesSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        int outcome = (failed ? FAILED : 0) | (slow ? SLOW : 0);
+        if (calls == outcomes.length) {
+            forget(outcomes[next]);
+        } else {
+            calls++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        if (calls >= minimumCalls && (getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    public String getEndpointFamily() {
+        return endpointFamily;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDuration) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * @return the share of failed calls in the window, between 0 and 1.
+     */
+    public synchronized double getFailureRate() {
+        return calls == 0 ? 0 : (double) failures / calls;
+    }
+
+    /**
+     * @return the share of slow calls in the window, between 0 and 1.
+     */
+    public synchronized double getSlowCallRate() {
+        return calls == 0 ? 0 : (double) slowCalls / calls;
+    }
+
+    /**
+     * @return the number of calls failed fast.
+     */
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    private void forget(int outcome) {
+        failures -= outcome & FAILED;
+        slowCalls -= (outcome & SLOW) >> 1;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        generation++;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        generation++;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.braintreegateway.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds a {@link CircuitBreaker} per endpoint family, so that an outage of one part of the
+ * gateway does not stop calls to the rest. The family is the resource a URL addresses, such as
+ * {@code transactions}, {@code customers}, {@code payment_methods} or {@code client_token}; all
+ * searches share the {@code search} family. Breakers are created with the same settings the first
+ * time their family is called.
+ */
+public class CircuitBreakerRegistry {
+    public static final String SEARCH = "search";
+
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThreshold;
+    private final double slowCallRateThreshold;
+    private final long openDuration;
+    private final int halfOpenCalls;
+
+    /**
+     * Opens a breaker when half of the last 20 calls, with at least 10 made, failed or took
+     * longer than 10 seconds, and probes it again with 3 calls after 30 seconds.
+     */
+    public CircuitBreakerRegistry() {
+        this(20, 10, 0.5, 10000, 0.5, 30000, 3);
+    }
+
+    /**
+     * Creates breakers with the given settings; see {@link CircuitBreaker}.
+     */
+    public CircuitBreakerRegistry(int windowSize, int minimumCalls, double failureRateThreshold, long slowCallThreshold,
+            double slowCallRateThreshold, long openDuration, int halfOpenCalls) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThreshold = slowCallThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Returns the breaker guarding {@code url}, a path relative to the gateway's base URL.
+     */
+    public CircuitBreaker forUrl(String url) {
+        return get(endpointFamily(url));
+    }
+
+    public CircuitBreaker get(String endpointFamily) {
+        CircuitBreaker breaker = breakers.get(endpointFamily);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(endpointFamily, windowSize, minimumCalls, failureRateThreshold, slowCallThreshold,
+                slowCallRateThreshold, openDuration, halfOpenCalls);
+            CircuitBreaker existing = breakers.putIfAbsent(endpointFamily, breaker);
+            if (existing != null) {
+                breaker = existing;
+            }
+        }
+        return breaker;
+    }
+
+    /**
+     * Returns the state of the breaker for {@code endpointFamily}, which is closed if it has not
+     * been called yet.
+     */
+    public CircuitBreaker.State getState(String endpointFamily) {
+        CircuitBreaker breaker = breakers.get(endpointFamily);
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.getState();
+    }
+
+    /**
+     * @return the state of every breaker created so far, by endpoint family.
+     */
+    public Map<String, CircuitBreaker.State> getStates() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<String, CircuitBreaker.State>();
+        for (CircuitBreaker breaker : breakers.values()) {
+            states.put(breaker.getEndpointFamily(), breaker.getState());
+        }
+        return Collections.unmodifiableMap(states);
+    }
+
+    /**
+     * Returns the endpoint family of a URL such as {@code /merchants/id/transactions/abc/void},
+     * which is {@code transactions}.
+     */
+    static String endpointFamily(String url) {
+        String path = url;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        if (path.contains("/advanced_search")) {
+            return SEARCH;
+        }
+        String[] segments = path.replaceFirst("^/+", "").split("/");
+        int index = 0;
+        if (segments.length > 2 && segments[0].equals("merchants")) {
+            index = 2;
+        }
+        return segments[index].length() == 0 ? "root" : segments[index];
+    }
+}
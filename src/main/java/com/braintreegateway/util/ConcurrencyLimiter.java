@@ -0,0 +1,275 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.exceptions.ConcurrencyLimitExceededException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adapts the number of requests {@link Http} lets through at once to what the gateway can take,
+ * in the additive-increase, multiplicative-decrease style of TCP congestion control. A 429 or 503
+ * response, a read timeout, or recent responses of an endpoint family being much slower than
+ * usual shrinks the limit by {@code backoffRatio}; every other response while the limit is in use
+ * grows it by about one per limit's worth of responses.
+ * <p>
+ * Like TCP, the limit shrinks at most once per round trip: only a request sent after the last
+ * decrease can shrink it again, so a burst of 429s to requests already in flight counts once.
+ * Latency is tracked per endpoint family, so fast lookups do not make slower calls such as sales
+ * look overloaded, as two moving averages that every answered request moves: one over the last
+ * few responses and one, the usual latency, over the last fifty or so. Latency is not judged
+ * until a family has had ten responses, and a single slow response does not shrink the limit on
+ * its own.
+ * <p>
+ * Requests over the limit wait up to {@code queueTimeout} milliseconds for a slot, with at most
+ * {@code maxQueueDepth} waiting at a time. Requests that cannot be queued, or wait too long, fail
+ * fast with a {@link ConcurrencyLimitExceededException}.
+ */
+public class ConcurrencyLimiter {
+    private static final double BASELINE_WEIGHT = 0.02;
+    private static final double RECENT_WEIGHT = 0.2;
+    private static final int MIN_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final int maxQueueDepth;
+    private final long queueTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private final Map<String, Latency> latencies = new HashMap<String, Latency>();
+    private boolean decreased;
+    private long lastDecrease;
+    private int inFlight;
+    private int queued;
+    private long rejected;
+    private long overloaded;
+
+    /**
+     * Starts at 20 concurrent requests, between 1 and 200, halving the limit on overload and
+     * treating responses more than twice as slow as usual as overload. Up to 100 requests may
+     * wait up to a second for a slot.
+     */
+    public ConcurrencyLimiter() {
+        this(20, 1, 200, 0.5, 2.0, 100, 1000);
+    }
+
+    /**
+     * @param initialLimit
+     *            the number of concurrent requests allowed to begin with.
+     * @param minLimit
+     *            the smallest the limit may shrink to.
+     * @param maxLimit
+     *            the largest the limit may grow to.
+     * @param backoffRatio
+     *            the factor the limit is multiplied by on overload.
+     * @param latencyTolerance
+     *            how many times slower than the usual latency recent responses may be before they
+     *            count as overload.
+     * @param maxQueueDepth
+     *            the most requests that may wait for a slot; 0 sheds every request over the limit.
+     * @param queueTimeout
+     *            how long, in milliseconds, a request may wait for a slot.
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance, int maxQueueDepth, long queueTimeout) {
+        this.limit = initialLimit;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.maxQueueDepth = maxQueueDepth;
+        this.queueTimeout = queueTimeout;
+    }
+
+    /**
+     * Takes a slot, waiting for one if the limit has been reached.
+     *
+     * @throws ConcurrencyLimitExceededException
+     *             if the queue is full or no slot became free in time.
+     */
+    public void acquire() {
+        acquire(queueTimeout);
+    }
+
+    /**
+     * Takes a slot, waiting at most the lesser of {@code maxWait} and the queue timeout, in
+     * milliseconds.
+     *
+     * @throws ConcurrencyLimitExceededException
+     *             if the queue is full or no slot became free in time.
+     */
+    public void acquire(long maxWait) {
+        long wait = Math.min(maxWait, queueTimeout);
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return;
+            }
+            if (queued >= maxQueueDepth) {
+                throw reject("concurrency limit of " + currentLimit() + " reached and " + queued + " requests already waiting");
+            }
+            queued++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(wait);
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        throw reject("timed out after " + wait + "ms waiting for one of " + currentLimit() + " request slots");
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                inFlight++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject("interrupted while waiting for a request slot");
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a slot taken by {@link #acquire()} and adjusts the limit, comparing the latency
+     * with that of every other request released this way.
+     *
+     * @param latency
+     *            how long the request took, in nanoseconds.
+     * @param overload
+     *            true if the gateway answered with 429 or 503 or did not answer in time.
+     */
+    public void release(long latency, boolean overload) {
+        release(null, latency, overload);
+    }
+
+    /**
+     * Gives back a slot taken by {@link #acquire()} and adjusts the limit, comparing the latency
+     * with that of other requests to the same endpoint family.
+     *
+     * @param endpointFamily
+     *            the kind of request, e.g. "transactions" or "search".
+     * @param latency
+     *            how long the request took, in nanoseconds.
+     * @param overload
+     *            true if the gateway answered with 429 or 503 or did not answer in time.
+     */
+    public void release(String endpointFamily, long latency, boolean overload) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= currentLimit() / 2;
+            inFlight--;
+            boolean slow = !overload && recordLatency(endpointFamily, latency);
+            if (overload || slow) {
+                if (!decreased || now - latency - lastDecrease > 0) {
+                    overloaded++;
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    decreased = true;
+                    lastDecrease = now;
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests waiting for a slot.
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests shed because the queue was full or they waited too long.
+     */
+    public long getRejectedCount() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of times the limit was shrunk.
+     */
+    public long getOverloadCount() {
+        lock.lock();
+        try {
+            return overloaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Adds a response to its family's moving averages.
+     *
+     * @return true if the family's recent responses are much slower than usual.
+     */
+    private boolean recordLatency(String endpointFamily, long latency) {
+        Latency averages = latencies.get(endpointFamily);
+        if (averages == null) {
+            averages = new Latency();
+            latencies.put(endpointFamily, averages);
+        }
+        averages.samples++;
+        averages.recent += (latency - averages.recent) * Math.max(RECENT_WEIGHT, 1.0 / averages.samples);
+        boolean slow = averages.samples > MIN_SAMPLES && averages.recent > averages.baseline * latencyTolerance;
+        averages.baseline += (latency - averages.baseline) * Math.max(BASELINE_WEIGHT, 1.0 / averages.samples);
+        return slow;
+    }
+
+    private ConcurrencyLimitExceededException reject(String message) {
+        rejected++;
+        return new ConcurrencyLimitExceededException(message);
+    }
+
+    /**
+     * Exponentially weighted averages of an endpoint family's latencies, in nanoseconds. Until
+     * there are enough samples for a weight, the average is a plain mean.
+     */
+    private static class Latency {
+        private int samples;
+        private double recent;
+        private double baseline;
+    }
+}
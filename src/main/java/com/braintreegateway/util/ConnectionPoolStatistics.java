@@ -0,0 +1,86 @@
+package com.braintreegateway.util;
+
+/**
+ * A point-in-time view of a {@link PooledHttpTransport}.
+ */
+public class ConnectionPoolStatistics {
+    private int maxConnectionsPerHost;
+    private int leased;
+    private int idle;
+    private int pending;
+    private long created;
+    private long reused;
+    private long evicted;
+    private long invalidated;
+
+    public ConnectionPoolStatistics(int maxConnectionsPerHost, int leased, int idle, int pending, long created, long reused, long evicted, long invalidated) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.leased = leased;
+        this.idle = idle;
+        this.pending = pending;
+        this.created = created;
+        this.reused = reused;
+        this.evicted = evicted;
+        this.invalidated = invalidated;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * Connections currently carrying a request.
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Open connections waiting to be reused.
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Requests waiting for a connection because their host is at its limit.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Connections opened (and handshaken) since the pool was created.
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Requests served on an already open connection.
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    /**
+     * Connections closed because they sat idle longer than the idle timeout.
+     */
+    public long getEvicted() {
+        return evicted;
+    }
+
+    /**
+     * Connections closed because the server had dropped them while they were idle.
+     */
+    public long getInvalidated() {
+        return invalidated;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStatistics[leased=" + leased + ", idle=" + idle + ", pending=" + pending +
+            ", maxConnectionsPerHost=" + maxConnectionsPerHost + ", created=" + created + ", reused=" + reused +
+            ", evicted=" + evicted + ", invalidated=" + invalidated + "]";
+    }
+}
@@ -15,4 +15,16 @@ public class Crypto {
         }
         return result == 0;
     }
+
+    public boolean secureCompare(byte[] left, byte[] right) {
+        if (left == null || right == null || left.length != right.length) {
+            return false;
+        }
+
+        int result = 0;
+        for (int i = 0; i < left.length; i++) {
+            result = result | left[i] ^ right[i];
+        }
+        return result == 0;
+    }
 }
@@ -0,0 +1,23 @@
+package com.braintreegateway.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates named daemon threads so that the library's background pools never keep the JVM alive.
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final AtomicInteger count;
+
+    public DaemonThreadFactory(String prefix) {
+        this.prefix = prefix;
+        this.count = new AtomicInteger();
+    }
+
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,209 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.exceptions.UnexpectedException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hedges GET requests against slow connections: if a GET has not been answered after the
+ * {@code percentile} latency of recent GETs, {@link Http} sends a second copy, which takes a
+ * different pooled connection since the first still holds its own. The first response wins and
+ * the other attempt is cancelled. The delay is kept between {@code minDelay} and
+ * {@code maxDelay}, and is {@code maxDelay} until enough GETs have been timed.
+ * <p>
+ * Hedges are capped at {@code budgetRatio} of the GETs made, so hedging adds at most that share
+ * of extra load. Attempts run on daemon threads owned by the policy; a cancelled attempt that is
+ * already reading its response finishes in the background before its connection is released.
+ */
+public class HedgePolicy {
+    private static final int SAMPLES = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final double percentile;
+    private final long minDelay;
+    private final long maxDelay;
+    private final double budgetRatio;
+    private final ExecutorService executor;
+
+    private final long[] latencies = new long[SAMPLES];
+    private int next;
+    private int samples;
+    private long delay;
+    private long requests;
+    private long hedges;
+    private long hedgeWins;
+    private long budgetExhausted;
+
+    /**
+     * Hedges after the 95th percentile latency, between 10 milliseconds and a second, for at most
+     * 5% of GETs.
+     */
+    public HedgePolicy() {
+        this(0.95, 10, 1000, 0.05);
+    }
+
+    /**
+     * @param percentile
+     *            the percentile of recent latencies, between 0 and 1, to wait before hedging.
+     * @param minDelay
+     *            the shortest wait before hedging, in milliseconds.
+     * @param maxDelay
+     *            the longest wait before hedging, in milliseconds.
+     * @param budgetRatio
+     *            the most hedges allowed per GET made.
+     */
+    public HedgePolicy(double percentile, long minDelay, long maxDelay, double budgetRatio) {
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.budgetRatio = budgetRatio;
+        this.delay = maxDelay;
+        this.executor = Executors.newCachedThreadPool(new DaemonThreadFactory("braintree-hedge"));
+    }
+
+    /**
+     * @return the current wait before hedging, in milliseconds.
+     */
+    public synchronized long getDelay() {
+        return delay;
+    }
+
+    public synchronized long getRequestCount() {
+        return requests;
+    }
+
+    /**
+     * @return the number of second attempts sent.
+     */
+    public synchronized long getHedgeCount() {
+        return hedges;
+    }
+
+    /**
+     * @return the number of second attempts that answered first.
+     */
+    public synchronized long getHedgeWinCount() {
+        return hedgeWins;
+    }
+
+    /**
+     * @return the number of slow GETs not hedged because the budget was used up.
+     */
+    public synchronized long getBudgetExhaustedCount() {
+        return budgetExhausted;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs {@code attempt}, and a second copy of it if the first is slow, returning the first
+     * result or rethrowing the first failure once no attempt is left running.
+     */
+    <T> T call(Callable<T> attempt) throws IOException {
+        long wait;
+        synchronized (this) {
+            requests++;
+            wait = delay;
+        }
+        CompletionService<T> completion = new ExecutorCompletionService<T>(executor);
+        List<Future<T>> attempts = new ArrayList<Future<T>>(2);
+        try {
+            attempts.add(completion.submit(timed(attempt)));
+            Future<T> done = completion.poll(wait, TimeUnit.MILLISECONDS);
+            if (done == null && tryHedge()) {
+                attempts.add(completion.submit(timed(attempt)));
+            }
+            int pending = attempts.size();
+            ExecutionException failure = null;
+            while (pending > 0) {
+                if (done == null) {
+                    done = completion.take();
+                }
+                pending--;
+                try {
+                    T result = done.get();
+                    if (done != attempts.get(0)) {
+                        synchronized (this) {
+                            hedgeWins++;
+                        }
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+                done = null;
+            }
+            throw unwrap(failure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a response");
+        } finally {
+            for (Future<T> future : attempts) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    synchronized void record(long latency) {
+        latencies[next] = latency;
+        next = (next + 1) % SAMPLES;
+        if (samples < SAMPLES) {
+            samples++;
+        }
+        if (samples >= MIN_SAMPLES && next % RECOMPUTE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(latencies, samples);
+            Arrays.sort(sorted);
+            int index = Math.min(samples - 1, (int) Math.ceil(percentile * samples) - 1);
+            delay = Math.max(minDelay, Math.min(maxDelay, sorted[Math.max(0, index)]));
+        }
+    }
+
+    private synchronized boolean tryHedge() {
+        if (hedges + 1 > budgetRatio * requests) {
+            budgetExhausted++;
+            return false;
+        }
+        hedges++;
+        return true;
+    }
+
+    private <T> Callable<T> timed(final Callable<T> attempt) {
+        return new Callable<T>() {
+            public T call() throws Exception {
+                long start = System.nanoTime();
+                T result = attempt.call();
+                record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return result;
+            }
+        };
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new UnexpectedException(cause.getMessage(), cause);
+    }
+}
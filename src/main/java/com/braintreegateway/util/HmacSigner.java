@@ -0,0 +1,124 @@
+package com.braintreegateway.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Computes and verifies HMAC signatures under a single key. The key is derived from the secret
+ * once, each thread reuses its own {@link Mac}, and signatures are verified by comparing the raw
+ * digest rather than its hex encoding.
+ */
+public class HmacSigner {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final String macAlgorithm;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = new ThreadLocal<Mac>();
+
+    HmacSigner(String digestAlgorithm, String macAlgorithm, String secret) {
+        this.macAlgorithm = macAlgorithm;
+        this.key = new SecretKeySpec(digest(digestAlgorithm, secret), digestAlgorithm);
+    }
+
+    /**
+     * Signs with HMAC-SHA1 under the SHA-1 digest of {@code secret}, as transparent redirect data
+     * and webhooks are signed with the private key.
+     */
+    public static HmacSigner sha1(String secret) {
+        return new HmacSigner("SHA1", "HmacSHA1", secret);
+    }
+
+    /**
+     * Signs with HMAC-SHA256 under the SHA-256 digest of {@code secret}.
+     */
+    public static HmacSigner sha256(String secret) {
+        return new HmacSigner("SHA-256", "HmacSHA256", secret);
+    }
+
+    public byte[] sign(String content) {
+        return mac().doFinal(utf8(content));
+    }
+
+    /**
+     * @return the signature of {@code content} as lower case hex.
+     */
+    public String hexSign(String content) {
+        byte[] signature = sign(content);
+        char[] hex = new char[signature.length * 2];
+        for (int i = 0; i < signature.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(signature[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[signature[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Checks a lower case hex signature of {@code content} in time that does not depend on where
+     * the signatures differ.
+     */
+    public boolean verify(String content, String hexSignature) {
+        byte[] expected = decodeHex(hexSignature);
+        if (expected == null) {
+            return false;
+        }
+        return new Crypto().secureCompare(sign(content), expected);
+    }
+
+    private Mac mac() {
+        Mac mac = macs.get();
+        if (mac == null) {
+            try {
+                mac = Mac.getInstance(macAlgorithm);
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException(e);
+            }
+            macs.set(mac);
+        }
+        return mac;
+    }
+
+    private static byte[] decodeHex(String hex) {
+        if (hex == null || hex.length() % 2 != 0) {
+            return null;
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = hexValue(hex.charAt(2 * i));
+            int low = hexValue(hex.charAt(2 * i + 1));
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    private static byte[] digest(String algorithm, String secret) {
+        try {
+            return MessageDigest.getInstance(algorithm).digest(utf8(secret));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static byte[] utf8(String string) {
+        try {
+            return string.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.braintreegateway.util;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
+import java.io.Writer;
 import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.URLConnection;
@@ -20,10 +25,16 @@ import java.security.SecureRandom;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.Locale;
+import java.util.TimeZone;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -31,7 +42,6 @@ import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 
-import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -40,8 +50,12 @@ import javax.net.ssl.TrustManagerFactory;
 
 import com.braintreegateway.Configuration;
 import com.braintreegateway.Request;
+import com.braintreegateway.RequestOptions;
+import com.braintreegateway.XmlRequestWriter;
 import com.braintreegateway.exceptions.AuthenticationException;
 import com.braintreegateway.exceptions.AuthorizationException;
+import com.braintreegateway.exceptions.ConcurrencyLimitExceededException;
+import com.braintreegateway.exceptions.DeadlineExceededException;
 import com.braintreegateway.exceptions.DownForMaintenanceException;
 import com.braintreegateway.exceptions.NotFoundException;
 import com.braintreegateway.exceptions.ServerException;
@@ -53,12 +67,6 @@ import com.braintreegateway.org.apache.commons.codec.binary.Base64;
 
 import com.fasterxml.jackson.jr.ob.JSON;
 
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.KeyManager;
-import javax.net.ssl.KeyManagerFactory;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManagerFactory;
 
 public class Http {
     public static final String LINE_FEED = "\r\n";
@@ -68,10 +76,127 @@ public class Http {
         DELETE, GET, POST, PUT;
     }
 
+    private interface ResponseParser<T> {
+        T parse(String xml);
+
+        T parse(InputStream xml) throws IOException;
+    }
+
+    private static class NodeParser implements ResponseParser<NodeWrapper> {
+        private final InputStreamNodeWrapperFactory factory;
+
+        NodeParser(InputStreamNodeWrapperFactory factory) {
+            this.factory = factory;
+        }
+
+        public NodeWrapper parse(String xml) {
+            return factory.create(xml);
+        }
+
+        public NodeWrapper parse(InputStream xml) throws IOException {
+            return factory.create(xml);
+        }
+    }
+
+    private static final ResponseParser<NodeWrapper> NODE_PARSER = new NodeParser(new SimpleNodeWrapperFactory());
+    private static final ResponseParser<NodeWrapper> INDEXED_NODE_PARSER = new NodeParser(new IndexedNodeWrapperFactory());
+
+    /**
+     * Serializes a request once into a buffer sent with a fixed length or, when chunked, directly
+     * to the connection.
+     */
+    private static class XmlRequestBody implements HttpRequestBody {
+        private final Request request;
+        private final ByteArrayOutputStream buffer;
+
+        XmlRequestBody(Request request, boolean chunked) throws IOException {
+            this.request = request;
+            if (chunked) {
+                this.buffer = null;
+            } else {
+                this.buffer = new ByteArrayOutputStream();
+                write(buffer);
+            }
+        }
+
+        public long getContentLength() {
+            return buffer == null ? -1 : buffer.size();
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            if (buffer == null) {
+                write(out);
+            } else {
+                buffer.writeTo(out);
+            }
+        }
+
+        private void write(OutputStream out) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+            request.writeXML(new XmlRequestWriter(writer));
+            writer.flush();
+        }
+    }
+
+    private static class RecordsParser<T> implements ResponseParser<List<T>> {
+        private final StreamingRecordReader<T> reader;
+
+        RecordsParser(StreamingRecordReader<T> reader) {
+            this.reader = reader;
+        }
+
+        public List<T> parse(String xml) {
+            return reader.read(new StringReader(xml));
+        }
+
+        public List<T> parse(InputStream xml) throws IOException {
+            return reader.read(xml);
+        }
+    }
+
+    /**
+     * A response with a status worth retrying, raised so that it is handled with the I/O errors.
+     */
+    private static class RetryableStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statusCode;
+        private final long retryAfter;
+
+        RetryableStatusException(int statusCode, long retryAfter) {
+            super("HTTP " + statusCode);
+            this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
+        }
+    }
+
     private Configuration configuration;
+    private RequestOptions options;
 
     public Http(Configuration configuration) {
+        this(configuration, null);
+    }
+
+    public Http(Configuration configuration, RequestOptions options) {
         this.configuration = configuration;
+        this.options = options;
+    }
+
+    /**
+     * @return a copy of this {@link Http} whose requests also give up at {@code deadline}, in
+     *         milliseconds since the epoch, or at its own deadline if that is earlier.
+     */
+    public Http withDeadline(long deadline) {
+        RequestOptions bounded = new RequestOptions();
+        if (options != null) {
+            bounded.retryPolicy(options.getRetryPolicy()).idempotent(options.isIdempotent());
+            if (options.getDeadline() != 0) {
+                deadline = Math.min(deadline, options.getDeadline());
+            }
+        }
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(deadline);
+        return new Http(configuration, bounded.deadline(calendar));
     }
 
     public NodeWrapper delete(String url) {
@@ -87,7 +212,7 @@ public class Http {
     }
 
     public NodeWrapper post(String url, Request request) {
-        return httpRequest(RequestMethod.POST, url, request.toXML(), null);
+        return xmlRequest(RequestMethod.POST, url, request, nodeParser());
     }
 
     public NodeWrapper post(String url, String request) {
@@ -103,7 +228,21 @@ public class Http {
     }
 
     public NodeWrapper put(String url, Request request) {
-        return httpRequest(RequestMethod.PUT, url, request.toXML(), null);
+        return xmlRequest(RequestMethod.PUT, url, request, nodeParser());
+    }
+
+    /**
+     * Posts a search and binds each {@code recordName} child of the response as it is read,
+     * without building a tree for the whole response.
+     *
+     * @return the bound records, or null if the response's root element is not {@code rootName}.
+     */
+    public <T> List<T> postForRecords(String url, Request request, String rootName, String recordName, NodeBinder<T> binder) {
+        return xmlRequest(RequestMethod.POST, url, request, new RecordsParser<T>(new StreamingRecordReader<T>(rootName, recordName, binder)));
+    }
+
+    public <T> List<T> postForRecords(String url, String request, String rootName, String recordName, NodeBinder<T> binder) {
+        return httpRequest(RequestMethod.POST, url, request, null, new RecordsParser<T>(new StreamingRecordReader<T>(rootName, recordName, binder)));
     }
 
     private NodeWrapper httpRequest(RequestMethod requestMethod, String url) {
@@ -111,88 +250,331 @@ public class Http {
     }
 
     private NodeWrapper httpRequest(RequestMethod requestMethod, String url, String postBody, File file) {
-        HttpURLConnection connection = null;
-        NodeWrapper nodeWrapper = null;
+        return httpRequest(requestMethod, url, postBody, file, nodeParser());
+    }
+
+    private ResponseParser<NodeWrapper> nodeParser() {
+        return configuration.usesIndexedParsing() ? INDEXED_NODE_PARSER : NODE_PARSER;
+    }
+
+    /**
+     * Writes the request's XML straight to the connection, unless it has to be logged.
+     */
+    private <T> T xmlRequest(RequestMethod requestMethod, String url, Request xmlRequest, ResponseParser<T> parser) {
+        if (configuration.getLogger().isLoggable(Level.FINE)) {
+            return httpRequest(requestMethod, url, xmlRequest.toXML(), null, null, parser);
+        }
+        return httpRequest(requestMethod, url, null, null, xmlRequest, parser);
+    }
+
+    private <T> T httpRequest(RequestMethod requestMethod, String url, String postBody, File file, ResponseParser<T> parser) {
+        return httpRequest(requestMethod, url, postBody, file, null, parser);
+    }
+
+    private <T> T httpRequest(RequestMethod requestMethod, String url, String postBody, File file, Request xmlRequest, ResponseParser<T> parser) {
+        RetryPolicy retryPolicy = isIdempotent(requestMethod, url) ? retryPolicy() : null;
+        for (int retry = 0; ; retry++) {
+            if (getRemainingTime() <= 0) {
+                throw new DeadlineExceededException("deadline passed before " + requestMethod + " " + url);
+            }
+            try {
+                return hedgedAttempt(requestMethod, url, postBody, file, xmlRequest, parser);
+            } catch (IOException e) {
+                long retryAfter = e instanceof RetryableStatusException ? ((RetryableStatusException) e).retryAfter : -1;
+                long delay = retryPolicy == null || retryAfter >= getRemainingTime() ? -1 : retryPolicy.delayBeforeRetry(retry, retryAfter);
+                if (delay < 0 || delay >= getRemainingTime()) {
+                    throw translate(e);
+                }
+                configuration.getLogger().log(Level.FINE, "[Braintree] [{0}] retrying {1} {2} in {3}ms after {4}",
+                    new Object[] { getCurrentTime(), requestMethod.toString(), url, delay, e.getMessage() });
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw translate(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hedges GETs with the configured {@link HedgePolicy}, if any.
+     */
+    private <T> T hedgedAttempt(final RequestMethod requestMethod, final String url, final String postBody, final File file, final Request xmlRequest,
+            final ResponseParser<T> parser) throws IOException {
+        HedgePolicy hedging = configuration.getHedgePolicy();
+        if (hedging == null || requestMethod != RequestMethod.GET) {
+            return guardedAttempt(requestMethod, url, postBody, file, xmlRequest, parser);
+        }
+        return hedging.call(new Callable<T>() {
+            public T call() throws IOException {
+                return guardedAttempt(requestMethod, url, postBody, file, xmlRequest, parser);
+            }
+        });
+    }
+
+    /**
+     * Makes the attempt if the circuit breaker for the URL's endpoint family, if any, allows it,
+     * and records the outcome. Attempts shed by the concurrency limiter and attempts cancelled
+     * because a hedged copy answered first are not recorded.
+     */
+    private <T> T guardedAttempt(RequestMethod requestMethod, String url, String postBody, File file, Request xmlRequest, ResponseParser<T> parser) throws IOException {
+        CircuitBreakerRegistry circuitBreakers = configuration.getCircuitBreakerRegistry();
+        if (circuitBreakers == null) {
+            return limitedAttempt(requestMethod, url, postBody, file, xmlRequest, parser);
+        }
+        CircuitBreaker breaker = circuitBreakers.forUrl(url);
+        long permission = breaker.acquirePermission();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            return limitedAttempt(requestMethod, url, postBody, file, xmlRequest, parser);
+        } catch (ConcurrencyLimitExceededException e) {
+            breaker.releasePermission(permission);
+            breaker = null;
+            throw e;
+        } catch (InterruptedIOException e) {
+            if (e instanceof SocketTimeoutException) {
+                failed = true;
+            } else {
+                breaker.releasePermission(permission);
+                breaker = null;
+            }
+            throw e;
+        } catch (IOException e) {
+            failed = isFailure(e);
+            throw e;
+        } finally {
+            if (breaker != null) {
+                breaker.record(permission, System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    /**
+     * Makes the attempt within the configured {@link ConcurrencyLimiter}, if any, and reports
+     * back whether the gateway was overloaded.
+     */
+    private <T> T limitedAttempt(RequestMethod requestMethod, String url, String postBody, File file, Request xmlRequest, ResponseParser<T> parser) throws IOException {
+        ConcurrencyLimiter limiter = configuration.getConcurrencyLimiter();
+        if (limiter == null) {
+            return attempt(requestMethod, url, postBody, file, xmlRequest, parser);
+        }
+        limiter.acquire(getRemainingTime());
+        long start = System.nanoTime();
+        boolean overload = false;
+        try {
+            return attempt(requestMethod, url, postBody, file, xmlRequest, parser);
+        } catch (IOException e) {
+            overload = isOverload(e);
+            throw e;
+        } finally {
+            limiter.release(CircuitBreakerRegistry.endpointFamily(url), System.nanoTime() - start, overload);
+        }
+    }
+
+    private <T> T attempt(RequestMethod requestMethod, String url, String postBody, File file, Request xmlRequest, ResponseParser<T> parser) throws IOException {
+        HttpTransportResponse response = null;
+        T result = null;
         String boundary = "boundary" + System.currentTimeMillis();
         String contentType = file == null ? "application/xml" : "multipart/form-data; boundary=" + boundary;
 
         try {
-            connection = buildConnection(requestMethod, url, contentType);
+            HttpTransportRequest request = buildRequest(requestMethod, url, contentType);
 
             Logger logger = configuration.getLogger();
             if (postBody != null) {
                 logger.log(Level.FINE, formatSanitizeBodyForLog(postBody));
             }
 
-            if (connection instanceof HttpsURLConnection) {
-                ((HttpsURLConnection) connection).setSSLSocketFactory(getSSLSocketFactory());
-            }
-
-            if (postBody != null) {
-                OutputStream outputStream = null;
-                try {
-                    outputStream = connection.getOutputStream();
-                    PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, "UTF-8"), true);
-
-                    if (file == null) {
-                        outputStream.write(postBody.getBytes("UTF-8"));
-                    } else {
-                        Map<String, Object> map = JSON.std.mapFrom(postBody);
-                        Iterator<?> it = map.entrySet().iterator();
-                        while (it.hasNext()) {
-                            Map.Entry pair = (Map.Entry)it.next();
-                            addFormField((String) pair.getKey(), (String) pair.getValue(), writer, boundary);
-                        }
-                        addFilePart("file", file, writer, outputStream, boundary);
-                        finish(writer, boundary);
-                    }
-                } finally {
-                    if (outputStream != null) {
-                        outputStream.close();
-                    }
+            if (xmlRequest != null) {
+                request.setBody(new XmlRequestBody(xmlRequest, configuration.usesChunkedRequests()));
+            } else if (postBody != null) {
+                if (file == null) {
+                    request.setBody(postBody.getBytes("UTF-8"));
+                } else {
+                    request.setBody(buildMultipartBody(postBody, file, boundary));
                 }
             }
 
-            throwExceptionIfErrorStatusCode(connection.getResponseCode(), null);
+            response = configuration.getHttpTransport().execute(request);
 
-            InputStream responseStream = null;
-            try {
-                responseStream = connection.getResponseCode() == 422 ? connection.getErrorStream() : connection.getInputStream();
+            int statusCode = response.getStatusCode();
+            if (isRetryableStatus(statusCode)) {
+                throw new RetryableStatusException(statusCode, parseRetryAfter(response.getHeader("Retry-After")));
+            }
+            throwExceptionIfErrorStatusCode(statusCode, null);
 
-                if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
-                    responseStream = new GZIPInputStream(responseStream);
-                }
+            InputStream responseStream = response.getBody();
 
-                String xml = StringUtils.inputStreamToString(responseStream);
+            if ("gzip".equalsIgnoreCase(response.getHeader("Content-Encoding"))) {
+                responseStream = new GZIPInputStream(responseStream);
+            }
 
+            try {
                 logger.log(Level.INFO, "[Braintree] [{0}]] {1} {2}", new Object[] { getCurrentTime(), requestMethod.toString(), url });
-                logger.log(Level.FINE, "[Braintree] [{0}] {1} {2} {3}", new Object[] { getCurrentTime(), requestMethod.toString(), url, connection.getResponseCode() });
+                logger.log(Level.FINE, "[Braintree] [{0}] {1} {2} {3}", new Object[] { getCurrentTime(), requestMethod.toString(), url, response.getStatusCode() });
 
-                if (xml != null) {
+                if (logger.isLoggable(Level.FINE)) {
+                    String xml = StringUtils.inputStreamToString(responseStream);
                     logger.log(Level.FINE, formatSanitizeBodyForLog(xml));
-                }
 
-                if (xml == null || xml.trim().equals("")) {
-                    return null;
-                }
+                    if (xml.trim().equals("")) {
+                        return null;
+                    }
 
-                nodeWrapper = NodeWrapperFactory.instance.create(xml);
-            } finally {
-                if (responseStream != null) {
-                    responseStream.close();
+                    result = parser.parse(xml);
+                } else {
+                    InputStream xmlStream = skipLeadingWhitespace(responseStream);
+                    if (xmlStream == null) {
+                        return null;
+                    }
+
+                    result = parser.parse(xmlStream);
                 }
+            } finally {
+                responseStream.close();
             }
-        } catch (SocketTimeoutException e) {
-            throw new TimeoutException(e.getMessage(), e);
-        } catch (IOException e) {
-            throw new UnexpectedException(e.getMessage(), e);
         } finally {
-            if (connection != null) {
-                connection.disconnect();
+            if (response != null) {
+                response.close();
+            }
+        }
+
+        return result;
+    }
+
+    private RuntimeException translate(IOException e) {
+        if (e instanceof RetryableStatusException) {
+            throwExceptionIfErrorStatusCode(((RetryableStatusException) e).statusCode, null);
+        }
+        if (e instanceof SocketTimeoutException) {
+            return new TimeoutException(e.getMessage(), e);
+        }
+        return new UnexpectedException(e.getMessage(), e);
+    }
+
+    private RetryPolicy retryPolicy() {
+        if (options != null && options.getRetryPolicy() != null) {
+            return options.getRetryPolicy();
+        }
+        return configuration.getRetryPolicy();
+    }
+
+    /**
+     * GETs and searches can safely be sent again; anything else only if the caller says so.
+     */
+    private boolean isIdempotent(RequestMethod requestMethod, String url) {
+        if (options != null && options.isIdempotent() != null) {
+            return options.isIdempotent();
+        }
+        String path = url;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        return requestMethod == RequestMethod.GET
+            || (requestMethod == RequestMethod.POST && (path.endsWith("/advanced_search") || path.endsWith("/advanced_search_ids")));
+    }
+
+    /**
+     * Server errors, timeouts and I/O errors count against a circuit breaker; being rate limited
+     * does not.
+     */
+    private static boolean isFailure(IOException e) {
+        if (e instanceof RetryableStatusException) {
+            return ((RetryableStatusException) e).statusCode != 429;
+        }
+        return true;
+    }
+
+    private static boolean isOverload(IOException e) {
+        if (e instanceof RetryableStatusException) {
+            int statusCode = ((RetryableStatusException) e).statusCode;
+            return statusCode == 429 || statusCode == 503;
+        }
+        return e instanceof SocketTimeoutException;
+    }
+
+    /**
+     * @return the milliseconds left until the deadline set in the request options, or
+     *         {@code Long.MAX_VALUE} if there is none.
+     */
+    public long getRemainingTime() {
+        if (options == null || options.getDeadline() == 0) {
+            return Long.MAX_VALUE;
+        }
+        return options.getDeadline() - System.currentTimeMillis();
+    }
+
+    /**
+     * Cuts a socket timeout, where 0 means none, to the time left before the deadline.
+     */
+    private static int shrinkTimeout(int timeout, long remainingTime) {
+        if (remainingTime == Long.MAX_VALUE || (timeout != 0 && timeout <= remainingTime)) {
+            return timeout;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingTime));
+    }
+
+    private static boolean isRetryableStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 500 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Returns the wait asked for by a Retry-After header, given either in seconds or as an HTTP
+     * date, in milliseconds, or -1 if there is no usable header.
+     */
+    static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().length() == 0) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+            try {
+                return Math.max(0, dateFormat.parse(value).getTime() - System.currentTimeMillis());
+            } catch (ParseException unparseable) {
+                return -1;
             }
         }
+    }
 
-        return nodeWrapper;
+    /**
+     * Returns a stream positioned at the first non-whitespace byte, or null if the body is blank.
+     */
+    private InputStream skipLeadingWhitespace(InputStream inputStream) throws IOException {
+        BufferedInputStream bufferedStream = new BufferedInputStream(inputStream);
+        while (true) {
+            bufferedStream.mark(1);
+            int next = bufferedStream.read();
+            if (next == -1) {
+                return null;
+            }
+            if (!Character.isWhitespace(next)) {
+                bufferedStream.reset();
+                return bufferedStream;
+            }
+        }
+    }
+
+    private byte[] buildMultipartBody(String postBody, File file, String boundary) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, "UTF-8"), true);
+
+        Map<String, Object> map = JSON.std.mapFrom(postBody);
+        Iterator<?> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry pair = (Map.Entry)it.next();
+            addFormField((String) pair.getKey(), (String) pair.getValue(), writer, boundary);
+        }
+        addFilePart("file", file, writer, outputStream, boundary);
+        finish(writer, boundary);
+
+        return outputStream.toByteArray();
     }
 
     private void addFormField(String key, String value, PrintWriter writer, String boundary) {
@@ -315,31 +697,27 @@ public class Http {
         return sslSocketFactory;
     }
 
-    private HttpURLConnection buildConnection(RequestMethod requestMethod, String urlString, String contentType) throws java.io.IOException {
+    private HttpTransportRequest buildRequest(RequestMethod requestMethod, String urlString, String contentType) throws java.io.IOException {
         URL url = new URL(configuration.getBaseURL() + urlString);
-        int connectTimeout = configuration.getConnectTimeout();
-        HttpURLConnection connection;
+        HttpTransportRequest request = new HttpTransportRequest(requestMethod.toString(), url);
         if (configuration.usesProxy()) {
-            connection = (HttpURLConnection) url.openConnection(configuration.getProxy());
-        } else {
-            connection = (HttpURLConnection) url.openConnection();
+            request.setProxy(configuration.getProxy());
         }
-        connection.setRequestMethod(requestMethod.toString());
-        connection.addRequestProperty("Accept", "application/xml");
-        connection.addRequestProperty("User-Agent", "Braintree Java " + Configuration.VERSION);
-        connection.addRequestProperty("X-ApiVersion", Configuration.apiVersion());
-        connection.addRequestProperty("Authorization", authorizationHeader());
-        connection.addRequestProperty("Accept-Encoding", "gzip");
-        connection.setRequestProperty("Content-Type", contentType);
-
-        connection.setDoOutput(true);
-        connection.setReadTimeout(configuration.getTimeout());
-
-        if (connectTimeout > 0) {
-            connection.setConnectTimeout(connectTimeout);
+        request.setHeader("Accept", "application/xml");
+        request.setHeader("User-Agent", "Braintree Java " + Configuration.VERSION);
+        request.setHeader("X-ApiVersion", Configuration.apiVersion());
+        request.setHeader("Authorization", authorizationHeader());
+        request.setHeader("Accept-Encoding", "gzip");
+        request.setHeader("Content-Type", contentType);
+
+        if ("https".equalsIgnoreCase(url.getProtocol())) {
+            request.setSSLSocketFactory(getSSLSocketFactory());
         }
+        long remainingTime = getRemainingTime();
+        request.setReadTimeout(shrinkTimeout(configuration.getTimeout(), remainingTime));
+        request.setConnectTimeout(shrinkTimeout(configuration.getConnectTimeout(), remainingTime));
 
-        return connection;
+        return request;
     }
 
     public static void throwExceptionIfErrorStatusCode(int statusCode, String message) {
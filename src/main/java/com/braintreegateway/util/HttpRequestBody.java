@@ -0,0 +1,17 @@
+package com.braintreegateway.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The body of an {@link HttpTransportRequest}, written straight to the connection.
+ */
+public interface HttpRequestBody {
+    /**
+     * Returns the length of the body in bytes, or -1 if it is not known up front, in which case
+     * the body is sent with chunked transfer encoding.
+     */
+    long getContentLength();
+
+    void writeTo(OutputStream out) throws IOException;
+}
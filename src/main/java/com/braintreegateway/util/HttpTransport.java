@@ -0,0 +1,25 @@
+package com.braintreegateway.util;
+
+import java.io.IOException;
+
+/**
+ * Sends a single HTTP exchange on behalf of {@link Http}. Implementations decide how
+ * connections are opened, reused and closed; {@link Http} takes care of headers,
+ * status code handling and parsing the response.
+ *
+ * Set a custom implementation with
+ * {@link com.braintreegateway.Configuration#setHttpTransport(HttpTransport)}.
+ */
+public interface HttpTransport {
+
+    /**
+     * Executes the request and returns once the status line and headers have been read.
+     * The caller must {@link HttpTransportResponse#close() close} the returned response.
+     */
+    HttpTransportResponse execute(HttpTransportRequest request) throws IOException;
+
+    /**
+     * Releases any connections held by this transport.
+     */
+    void shutdown();
+}
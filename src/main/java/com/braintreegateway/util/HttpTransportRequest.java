@@ -0,0 +1,99 @@
+package com.braintreegateway.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Proxy;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Everything an {@link HttpTransport} needs to send one request to the gateway.
+ */
+public class HttpTransportRequest {
+    private String method;
+    private URL url;
+    private Map<String, String> headers;
+    private HttpRequestBody body;
+    private Proxy proxy;
+    private SSLSocketFactory sslSocketFactory;
+    private int connectTimeout;
+    private int readTimeout;
+
+    public HttpTransportRequest(String method, URL url) {
+        this.method = method;
+        this.url = url;
+        this.headers = new LinkedHashMap<String, String>();
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    public void setHeader(String name, String value) {
+        headers.put(name, value);
+    }
+
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    public HttpRequestBody getBody() {
+        return body;
+    }
+
+    public void setBody(HttpRequestBody body) {
+        this.body = body;
+    }
+
+    public void setBody(final byte[] body) {
+        this.body = new HttpRequestBody() {
+            public long getContentLength() {
+                return body.length;
+            }
+
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(body);
+            }
+        };
+    }
+
+    public Proxy getProxy() {
+        return proxy;
+    }
+
+    public void setProxy(Proxy proxy) {
+        this.proxy = proxy;
+    }
+
+    public SSLSocketFactory getSSLSocketFactory() {
+        return sslSocketFactory;
+    }
+
+    public void setSSLSocketFactory(SSLSocketFactory sslSocketFactory) {
+        this.sslSocketFactory = sslSocketFactory;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+}
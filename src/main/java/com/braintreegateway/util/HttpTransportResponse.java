@@ -0,0 +1,27 @@
+package com.braintreegateway.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The status, headers and body of a response returned by an {@link HttpTransport}.
+ */
+public interface HttpTransportResponse {
+
+    int getStatusCode();
+
+    /**
+     * Returns the value of the named response header, matched case-insensitively, or null.
+     */
+    String getHeader(String name);
+
+    /**
+     * Returns the raw (possibly compressed) response body.
+     */
+    InputStream getBody() throws IOException;
+
+    /**
+     * Closes the body and hands the underlying connection back to the transport.
+     */
+    void close();
+}
@@ -0,0 +1,349 @@
+package com.braintreegateway.util;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link NodeWrapper} with the same lookup semantics as {@link SimpleNodeWrapper}, tuned for
+ * the many small lookups made while hydrating domain objects:
+ * <ul>
+ * <li>content and child elements are held in arrays fixed when the element is closed</li>
+ * <li>elements with many children index them by name</li>
+ * <li>path expressions are split once and cached, and evaluated by position rather than by
+ * copying the remaining path at every step</li>
+ * </ul>
+ * A single-segment {@link #findString(String)} or {@link #findFirst(String)} therefore does not
+ * allocate once the expression has been seen.
+ */
+public class IndexedNodeWrapper extends NodeWrapper {
+    private static final int INDEX_THRESHOLD = 8;
+    private static final int MAX_CACHED_PATHS = 2048;
+    private static final IndexedNodeWrapper[] NO_CHILDREN = new IndexedNodeWrapper[0];
+    private static final Map<String, String> NO_ATTRIBUTES = Collections.emptyMap();
+
+    private static final SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+    private static final ThreadLocal<SAXParser> parsers = new ThreadLocal<SAXParser>();
+    private static final ConcurrentHashMap<String, String[]> compiledPaths = new ConcurrentHashMap<String, String[]>();
+
+    private final String name;
+    private final Map<String, String> attributes;
+    private Object[] content;
+    private IndexedNodeWrapper[] children;
+    private Map<String, IndexedNodeWrapper[]> index;
+    private String value;
+
+    private IndexedNodeWrapper(String name, Map<String, String> attributes) {
+        this.name = name;
+        this.attributes = attributes;
+    }
+
+    public static IndexedNodeWrapper parse(String xml) {
+        try {
+            return parse(new InputSource(new StringReader(xml)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    public static IndexedNodeWrapper parse(InputStream xml) throws IOException {
+        return parse(new InputSource(xml));
+    }
+
+    private static IndexedNodeWrapper parse(InputSource source) throws IOException {
+        try {
+            SAXParser parser = parsers.get();
+            if (parser == null) {
+                parser = saxParserFactory.newSAXParser();
+                parsers.set(parser);
+            } else {
+                parser.reset();
+            }
+            Handler handler = new Handler();
+            parser.parse(source, handler);
+            return handler.root;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static String[] compile(String expression) {
+        String[] path = compiledPaths.get(expression);
+        if (path == null) {
+            path = expression.split("/");
+            if (compiledPaths.size() < MAX_CACHED_PATHS) {
+                compiledPaths.put(expression, path);
+            }
+        }
+        return path;
+    }
+
+    @Override
+    public List<NodeWrapper> findAll(String expression) {
+        List<NodeWrapper> nodes = new ArrayList<NodeWrapper>();
+        findAll(compile(expression), 0, nodes);
+        return nodes;
+    }
+
+    private void findAll(String[] path, int position, List<NodeWrapper> nodes) {
+        if (position == path.length) {
+            nodes.add(this);
+            return;
+        }
+        String token = path[position];
+        if (".".equals(token)) {
+            findAll(path, position + 1, nodes);
+        } else if ("*".equals(token)) {
+            for (IndexedNodeWrapper child : children) {
+                child.findAll(path, position + 1, nodes);
+            }
+        } else if (index != null) {
+            IndexedNodeWrapper[] matches = index.get(token);
+            if (matches != null) {
+                for (IndexedNodeWrapper child : matches) {
+                    child.findAll(path, position + 1, nodes);
+                }
+            }
+        } else {
+            for (IndexedNodeWrapper child : children) {
+                if (token.equals(child.name)) {
+                    child.findAll(path, position + 1, nodes);
+                }
+            }
+        }
+    }
+
+    private IndexedNodeWrapper find(String[] path, int position) {
+        IndexedNodeWrapper node = this;
+        for (int i = position; i < path.length && node != null; i++) {
+            String token = path[i];
+            if (!".".equals(token)) {
+                node = node.firstChild(token);
+            }
+        }
+        return node;
+    }
+
+    private IndexedNodeWrapper firstChild(String token) {
+        if ("*".equals(token)) {
+            return children.length == 0 ? null : children[0];
+        }
+        if (index != null) {
+            IndexedNodeWrapper[] matches = index.get(token);
+            return matches == null ? null : matches[0];
+        }
+        for (IndexedNodeWrapper child : children) {
+            if (token.equals(child.name)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public NodeWrapper findFirst(String expression) {
+        return find(compile(expression), 0);
+    }
+
+    @Override
+    public String findString(String expression) {
+        IndexedNodeWrapper node = find(compile(expression), 0);
+        if (node == null) {
+            return null;
+        } else {
+            return node.stringValue();
+        }
+    }
+
+    @Override
+    public boolean isBlank() {
+        return "true".equals(attributes.get("nil"));
+    }
+
+    private String stringValue() {
+        if (value == null) {
+            if (content.length == 1 && content[0] == null) {
+                return null;
+            }
+            StringBuilder builder = new StringBuilder();
+            for (Object o : content) {
+                builder.append(o.toString());
+            }
+            value = builder.toString().trim();
+        }
+        return value;
+    }
+
+    @Override
+    public String getElementName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, String> getFormParameters() {
+        Map<String, String> params = new HashMap<String, String>();
+        for (IndexedNodeWrapper node : children) {
+            node.buildParams("", params);
+        }
+        return params;
+    }
+
+    private void buildParams(String prefix, Map<String, String> params) {
+        String newPrefix = "".equals(prefix) ? StringUtils.underscore(name) : prefix + "[" + StringUtils.underscore(name) + "]";
+        if (children.length == 0)
+            params.put(newPrefix, stringValue());
+        else {
+            for (IndexedNodeWrapper childNode : children)
+                childNode.buildParams(newPrefix, params);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<" + name +
+                (attributes.isEmpty() ? "" : " attributes=" + StringUtils.toString(attributes)) +
+                " content=" + StringUtils.toString(Arrays.asList(content)) + ">";
+    }
+
+    private void close(List<Object> openContent, List<IndexedNodeWrapper> openChildren) {
+        content = openContent.toArray();
+        children = openChildren.isEmpty() ? NO_CHILDREN : openChildren.toArray(new IndexedNodeWrapper[openChildren.size()]);
+
+        if (children.length > INDEX_THRESHOLD) {
+            Map<String, List<IndexedNodeWrapper>> grouped = new HashMap<String, List<IndexedNodeWrapper>>();
+            for (IndexedNodeWrapper child : children) {
+                List<IndexedNodeWrapper> named = grouped.get(child.name);
+                if (named == null) {
+                    named = new ArrayList<IndexedNodeWrapper>(1);
+                    grouped.put(child.name, named);
+                }
+                named.add(child);
+            }
+            index = new HashMap<String, IndexedNodeWrapper[]>(grouped.size() * 2);
+            for (Map.Entry<String, List<IndexedNodeWrapper>> entry : grouped.entrySet()) {
+                index.put(entry.getKey(), entry.getValue().toArray(new IndexedNodeWrapper[entry.getValue().size()]));
+            }
+        }
+    }
+
+    private static boolean containsNonWhitespace(char[] chars, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            char c = chars[i];
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the element the reader is positioned on, leaving the reader on its end tag. The reader
+     * must have been created without namespace awareness.
+     */
+    static IndexedNodeWrapper read(XMLStreamReader reader) throws XMLStreamException {
+        Handler handler = new Handler();
+        int depth = 0;
+        while (true) {
+            switch (reader.getEventType()) {
+            case XMLStreamConstants.START_ELEMENT:
+                Map<String, String> attributes = NO_ATTRIBUTES;
+                if (reader.getAttributeCount() > 0) {
+                    attributes = new HashMap<String, String>();
+                    for (int i = 0; i < reader.getAttributeCount(); i++)
+                        attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                }
+                handler.start(reader.getLocalName(), attributes);
+                depth++;
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                handler.end();
+                depth--;
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+                handler.text(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                break;
+            default:
+                break;
+            }
+            if (depth == 0) {
+                return handler.root;
+            }
+            reader.next();
+        }
+    }
+
+    private static class Handler extends DefaultHandler {
+        private final ArrayList<IndexedNodeWrapper> nodes = new ArrayList<IndexedNodeWrapper>();
+        private final ArrayList<List<Object>> contents = new ArrayList<List<Object>>();
+        private final ArrayList<List<IndexedNodeWrapper>> childLists = new ArrayList<List<IndexedNodeWrapper>>();
+        public IndexedNodeWrapper root;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            Map<String, String> nodeAttributes = NO_ATTRIBUTES;
+            if (attributes.getLength() > 0) {
+                nodeAttributes = new HashMap<String, String>();
+                for (int i = 0; i < attributes.getLength(); i++)
+                    nodeAttributes.put(attributes.getQName(i), attributes.getValue(i));
+            }
+            start(qName, nodeAttributes);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            end();
+        }
+
+        @Override
+        public void characters(char[] chars, int start, int length) throws SAXException {
+            text(chars, start, length);
+        }
+
+        void start(String name, Map<String, String> attributes) {
+            IndexedNodeWrapper node = new IndexedNodeWrapper(name, attributes);
+            List<Object> content = new ArrayList<Object>(2);
+
+            if ("true".equals(attributes.get("nil")))
+                content.add(null);
+
+            int depth = nodes.size();
+            if (depth > 0) {
+                contents.get(depth - 1).add(node);
+                childLists.get(depth - 1).add(node);
+            }
+
+            nodes.add(node);
+            contents.add(content);
+            childLists.add(new ArrayList<IndexedNodeWrapper>(0));
+        }
+
+        void end() {
+            int last = nodes.size() - 1;
+            IndexedNodeWrapper node = nodes.remove(last);
+            node.close(contents.remove(last), childLists.remove(last));
+            if (last == 0)
+                root = node;
+        }
+
+        void text(char[] chars, int start, int length) {
+            if (length > 0 && containsNonWhitespace(chars, start, length)) {
+                contents.get(contents.size() - 1).add(new String(chars, start, length));
+            }
+        }
+    }
+}
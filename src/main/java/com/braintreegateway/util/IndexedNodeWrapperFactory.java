@@ -0,0 +1,14 @@
+package com.braintreegateway.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public class IndexedNodeWrapperFactory implements InputStreamNodeWrapperFactory {
+    public NodeWrapper create(String xml) {
+        return IndexedNodeWrapper.parse(xml);
+    }
+
+    public NodeWrapper create(InputStream xml) throws IOException {
+        return IndexedNodeWrapper.parse(xml);
+    }
+}
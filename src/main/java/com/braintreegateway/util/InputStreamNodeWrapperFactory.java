@@ -0,0 +1,12 @@
+package com.braintreegateway.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link NodeWrapperFactory} that can also parse a response as it is read, without first
+ * buffering it into a string.
+ */
+public interface InputStreamNodeWrapperFactory extends NodeWrapperFactory {
+    NodeWrapper create(InputStream xml) throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.braintreegateway.util;
+
+/**
+ * Builds a domain object, e.g. a {@link com.braintreegateway.Transaction}, from one record of a
+ * response.
+ *
+ * @param <T>
+ *            type of the domain object.
+ */
+public interface NodeBinder<T> {
+    T bind(NodeWrapper node);
+}
@@ -0,0 +1,803 @@
+package com.braintreegateway.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import com.braintreegateway.Configuration;
+import com.braintreegateway.exceptions.ConnectionPoolTimeoutException;
+
+/**
+ * An {@link HttpTransport} that keeps connections open between requests so that only the
+ * first request to a host pays for the TCP and TLS handshakes.
+ *
+ * Connections are pooled per host. At most {@code maxConnectionsPerHost} connections to a
+ * host are in use at once; further requests wait up to {@code leaseTimeout} milliseconds, or
+ * their connect timeout if that is shorter, for one to be released. Idle connections are
+ * closed once they have been unused for longer than {@code idleTimeout}, and a connection that
+ * has been idle for longer than {@code validateAfterInactivity} is checked for a server-side
+ * close before it is reused.
+ */
+public class PooledHttpTransport implements HttpTransport {
+    private static final int MAX_LINE_LENGTH = 8192;
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+    private static final Pattern COMMON_NAME = Pattern.compile("(?i)(?:^|,)\\s*CN=([^,]+)");
+
+    private final int maxConnectionsPerHost;
+    private final int idleTimeout;
+    private final int validateAfterInactivity;
+    private final int leaseTimeout;
+    private final ConcurrentMap<String, HostPool> pools;
+    private final AtomicLong created;
+    private final AtomicLong reused;
+    private final AtomicLong evicted;
+    private final AtomicLong invalidated;
+    private volatile boolean shutdown;
+
+    public PooledHttpTransport(Configuration configuration) {
+        this(configuration.getMaxConnectionsPerHost(), configuration.getConnectionIdleTimeout(),
+            configuration.getValidateAfterInactivity(), configuration.getTimeout());
+    }
+
+    public PooledHttpTransport(int maxConnectionsPerHost, int idleTimeout, int validateAfterInactivity, int leaseTimeout) {
+        if (maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("maxConnectionsPerHost must be at least 1");
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.idleTimeout = idleTimeout;
+        this.validateAfterInactivity = validateAfterInactivity;
+        this.leaseTimeout = leaseTimeout;
+        this.pools = new ConcurrentHashMap<String, HostPool>();
+        this.created = new AtomicLong();
+        this.reused = new AtomicLong();
+        this.evicted = new AtomicLong();
+        this.invalidated = new AtomicLong();
+    }
+
+    /**
+     * Sends the request on a pooled connection. If a reused connection fails before any of the
+     * response has been read, which happens when the server closed it while it sat idle, an
+     * idempotent request is sent once more on a new connection. Other requests are not, since the
+     * server may have received and acted on them before the connection failed.
+     */
+    public HttpTransportResponse execute(HttpTransportRequest request) throws IOException {
+        HostPool pool = poolFor(request);
+        Connection connection = pool.lease(request, false);
+        try {
+            return execute(pool, connection, request);
+        } catch (IOException e) {
+            if (!connection.reused || connection.responseStarted || e instanceof SocketTimeoutException || !isIdempotent(request)) {
+                throw e;
+            }
+            invalidated.incrementAndGet();
+            return execute(pool, pool.lease(request, true), request);
+        }
+    }
+
+    private HttpTransportResponse execute(HostPool pool, Connection connection, HttpTransportRequest request) throws IOException {
+        boolean success = false;
+        try {
+            connection.socket.setSoTimeout(request.getReadTimeout());
+            writeRequest(connection, request);
+            HttpTransportResponse response = readResponse(pool, connection, request);
+            success = true;
+            return response;
+        } finally {
+            if (!success) {
+                pool.release(connection, false);
+            }
+        }
+    }
+
+    /**
+     * Closes every idle connection that has outlived the idle timeout.
+     */
+    public void closeExpiredConnections() {
+        for (HostPool pool : pools.values()) {
+            pool.closeIdle(idleTimeout);
+        }
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        for (HostPool pool : pools.values()) {
+            pool.closeIdle(-1);
+        }
+    }
+
+    public ConnectionPoolStatistics getStatistics() {
+        int leased = 0;
+        int idle = 0;
+        int pending = 0;
+        for (HostPool pool : pools.values()) {
+            leased += maxConnectionsPerHost - pool.permits.availablePermits();
+            idle += pool.idleCount();
+            pending += pool.pending.get();
+        }
+        return new ConnectionPoolStatistics(maxConnectionsPerHost, leased, idle, pending,
+            created.get(), reused.get(), evicted.get(), invalidated.get());
+    }
+
+    private HostPool poolFor(HttpTransportRequest request) {
+        URL url = request.getUrl();
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        String key = url.getProtocol() + "://" + url.getHost() + ":" + port;
+        if (request.getProxy() != null) {
+            key += " via " + request.getProxy();
+        }
+
+        HostPool pool = pools.get(key);
+        if (pool == null) {
+            HostPool newPool = new HostPool("https".equalsIgnoreCase(url.getProtocol()), url.getHost(), port);
+            pool = pools.putIfAbsent(key, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    private Connection connect(HostPool pool, HttpTransportRequest request) throws IOException {
+        Proxy proxy = request.getProxy();
+        boolean httpProxy = proxy != null && proxy.type() == Proxy.Type.HTTP;
+
+        Socket socket = proxy == null || httpProxy ? new Socket() : new Socket(proxy);
+        boolean success = false;
+        try {
+            socket.connect(httpProxy ? proxy.address() : new InetSocketAddress(pool.host, pool.port), request.getConnectTimeout());
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.setSoTimeout(request.getReadTimeout());
+
+            if (pool.secure) {
+                if (httpProxy) {
+                    establishTunnel(socket, pool);
+                }
+                SSLSocketFactory factory = request.getSSLSocketFactory();
+                if (factory == null) {
+                    factory = (SSLSocketFactory) SSLSocketFactory.getDefault();
+                }
+                SSLSocket sslSocket = (SSLSocket) factory.createSocket(socket, pool.host, pool.port, true);
+                socket = sslSocket;
+                sslSocket.startHandshake();
+                verifyHostname(pool.host, sslSocket.getSession());
+            }
+
+            Connection connection = new Connection(socket, httpProxy && !pool.secure);
+            success = true;
+            return connection;
+        } finally {
+            if (!success) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void establishTunnel(Socket socket, HostPool pool) throws IOException {
+        String target = pool.host + ":" + pool.port;
+        OutputStream out = socket.getOutputStream();
+        out.write(("CONNECT " + target + " HTTP/1.1\r\nHost: " + target + "\r\n\r\n").getBytes("ISO-8859-1"));
+        out.flush();
+
+        InputStream in = socket.getInputStream();
+        String statusLine = readLine(in);
+        if (parseStatusCode(statusLine) != 200) {
+            throw new IOException("Unable to tunnel through proxy. Proxy returns \"" + statusLine + "\"");
+        }
+        readHeaders(in);
+    }
+
+    private void writeRequest(Connection connection, HttpTransportRequest request) throws IOException {
+        URL url = request.getUrl();
+        String method = request.getMethod();
+        HttpRequestBody body = request.getBody();
+
+        StringBuilder head = new StringBuilder();
+        head.append(method).append(' ').append(connection.absoluteForm ? url.toExternalForm() : requestTarget(url)).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(url.getHost());
+        if (url.getPort() != -1 && url.getPort() != url.getDefaultPort()) {
+            head.append(':').append(url.getPort());
+        }
+        head.append("\r\n");
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        if (body != null && body.getContentLength() >= 0) {
+            head.append("Content-Length: ").append(body.getContentLength()).append("\r\n");
+        } else if (body != null) {
+            head.append("Transfer-Encoding: chunked\r\n");
+        } else if ("POST".equals(method) || "PUT".equals(method)) {
+            head.append("Content-Length: 0\r\n");
+        }
+        head.append("\r\n");
+
+        connection.out.write(head.toString().getBytes("ISO-8859-1"));
+        if (body != null && body.getContentLength() >= 0) {
+            body.writeTo(connection.out);
+        } else if (body != null) {
+            ChunkedOutputStream chunked = new ChunkedOutputStream(connection.out);
+            body.writeTo(chunked);
+            chunked.finish();
+        }
+        connection.out.flush();
+    }
+
+    private HttpTransportResponse readResponse(HostPool pool, Connection connection, HttpTransportRequest request) throws IOException {
+        String statusLine;
+        int statusCode;
+        Map<String, String> headers;
+        connection.in.mark(1);
+        if (connection.in.read() == -1) {
+            throw new EOFException("Connection closed by server");
+        }
+        connection.in.reset();
+        connection.responseStarted = true;
+        do {
+            statusLine = readLine(connection.in);
+            statusCode = parseStatusCode(statusLine);
+            headers = readHeaders(connection.in);
+        } while (statusCode >= 100 && statusCode < 200);
+
+        String connectionHeader = headers.get("connection");
+        boolean keepAlive = statusLine.startsWith("HTTP/1.1") ?
+            !"close".equalsIgnoreCase(connectionHeader) : "keep-alive".equalsIgnoreCase(connectionHeader);
+
+        String transferEncoding = headers.get("transfer-encoding");
+        String contentLength = headers.get("content-length");
+        InputStream body;
+        if ("HEAD".equals(request.getMethod()) || statusCode == 204 || statusCode == 304) {
+            body = new FixedLengthInputStream(connection.in, 0);
+        } else if (transferEncoding != null && transferEncoding.toLowerCase(Locale.US).indexOf("chunked") >= 0) {
+            body = new ChunkedInputStream(connection.in);
+        } else if (contentLength != null) {
+            try {
+                body = new FixedLengthInputStream(connection.in, Long.parseLong(contentLength.trim()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid Content-Length: " + contentLength);
+            }
+        } else {
+            body = connection.in;
+            keepAlive = false;
+        }
+
+        return new Response(statusCode, headers, new ResponseBody(pool, connection, body, keepAlive));
+    }
+
+    private static String requestTarget(URL url) {
+        String file = url.getFile();
+        return file == null || file.length() == 0 ? "/" : file;
+    }
+
+    private static int parseStatusCode(String statusLine) throws IOException {
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+        try {
+            return Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new HashMap<String, String>();
+        String line = readLine(in);
+        while (line.length() > 0) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                String name = line.substring(0, colon).trim().toLowerCase(Locale.US);
+                String value = line.substring(colon + 1).trim();
+                String existing = headers.get(name);
+                headers.put(name, existing == null ? value : existing + ", " + value);
+            }
+            line = readLine(in);
+        }
+        return headers;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c = in.read();
+        while (c != '\n') {
+            if (c == -1) {
+                throw new EOFException("Connection closed by server");
+            }
+            if (line.length() >= MAX_LINE_LENGTH) {
+                throw new IOException("HTTP header line too long");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+            c = in.read();
+        }
+        return line.toString();
+    }
+
+    private static void verifyHostname(String host, SSLSession session) throws SSLPeerUnverifiedException {
+        Certificate[] certificates = session.getPeerCertificates();
+        if (certificates.length == 0 || !(certificates[0] instanceof X509Certificate) ||
+                !matchesHostname(host, (X509Certificate) certificates[0])) {
+            throw new SSLPeerUnverifiedException("Certificate does not match hostname " + host);
+        }
+    }
+
+    static boolean matchesHostname(String host, X509Certificate certificate) {
+        String normalizedHost = host.toLowerCase(Locale.US);
+        boolean hasDnsNames = false;
+        try {
+            Collection<List<?>> alternativeNames = certificate.getSubjectAlternativeNames();
+            if (alternativeNames != null) {
+                for (List<?> entry : alternativeNames) {
+                    int type = ((Integer) entry.get(0)).intValue();
+                    if (type == 2) {
+                        hasDnsNames = true;
+                        if (matchesPattern(normalizedHost, entry.get(1).toString())) {
+                            return true;
+                        }
+                    } else if (type == 7 && normalizedHost.equals(entry.get(1).toString())) {
+                        return true;
+                    }
+                }
+            }
+        } catch (CertificateParsingException e) {
+            return false;
+        }
+
+        if (hasDnsNames) {
+            return false;
+        }
+        Matcher matcher = COMMON_NAME.matcher(certificate.getSubjectX500Principal().getName());
+        return matcher.find() && matchesPattern(normalizedHost, matcher.group(1).trim());
+    }
+
+    private static boolean matchesPattern(String host, String pattern) {
+        String normalizedPattern = pattern.toLowerCase(Locale.US);
+        if (normalizedPattern.startsWith("*.")) {
+            String suffix = normalizedPattern.substring(1);
+            return host.length() > suffix.length() && host.endsWith(suffix) &&
+                host.indexOf('.') == host.length() - suffix.length();
+        }
+        return host.equals(normalizedPattern);
+    }
+
+    private static boolean isIdempotent(HttpTransportRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "PUT".equals(method) || "DELETE".equals(method);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+
+    private class HostPool {
+        private final boolean secure;
+        private final String host;
+        private final int port;
+        private final Semaphore permits;
+        private final AtomicInteger pending;
+        private final LinkedList<Connection> idle;
+
+        public HostPool(boolean secure, String host, int port) {
+            this.secure = secure;
+            this.host = host;
+            this.port = port;
+            this.permits = new Semaphore(maxConnectionsPerHost, true);
+            this.pending = new AtomicInteger();
+            this.idle = new LinkedList<Connection>();
+        }
+
+        /**
+         * Leases an idle connection, or a new one if there is none or {@code fresh} is set,
+         * waiting no longer than the request's connect timeout for a connection to be released.
+         */
+        public Connection lease(HttpTransportRequest request, boolean fresh) throws IOException {
+            int wait = leaseTimeout;
+            if (request.getConnectTimeout() > 0) {
+                wait = Math.min(wait, request.getConnectTimeout());
+            }
+            pending.incrementAndGet();
+            try {
+                if (!permits.tryAcquire(wait, TimeUnit.MILLISECONDS)) {
+                    throw new ConnectionPoolTimeoutException("Timed out waiting for a connection to " + host);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a connection to " + host);
+            } finally {
+                pending.decrementAndGet();
+            }
+
+            boolean success = false;
+            try {
+                Connection connection = fresh ? null : pollIdle();
+                while (connection != null) {
+                    long idleFor = System.currentTimeMillis() - connection.lastUsed;
+                    if (idleFor > idleTimeout) {
+                        evicted.incrementAndGet();
+                        connection.close();
+                    } else if (idleFor > validateAfterInactivity && connection.isStale()) {
+                        invalidated.incrementAndGet();
+                        connection.close();
+                    } else {
+                        reused.incrementAndGet();
+                        connection.reused = true;
+                        connection.responseStarted = false;
+                        success = true;
+                        return connection;
+                    }
+                    connection = pollIdle();
+                }
+
+                connection = connect(this, request);
+                created.incrementAndGet();
+                success = true;
+                return connection;
+            } finally {
+                if (!success) {
+                    permits.release();
+                }
+            }
+        }
+
+        public void release(Connection connection, boolean reusable) {
+            if (reusable && !shutdown) {
+                connection.lastUsed = System.currentTimeMillis();
+                synchronized (this) {
+                    idle.addFirst(connection);
+                }
+            } else {
+                connection.close();
+            }
+            permits.release();
+            closeIdle(idleTimeout);
+        }
+
+        public void closeIdle(long maxIdle) {
+            long now = System.currentTimeMillis();
+            List<Connection> expired = new LinkedList<Connection>();
+            synchronized (this) {
+                Iterator<Connection> iterator = idle.iterator();
+                while (iterator.hasNext()) {
+                    Connection connection = iterator.next();
+                    if (maxIdle < 0 || now - connection.lastUsed > maxIdle) {
+                        iterator.remove();
+                        expired.add(connection);
+                    }
+                }
+            }
+            for (Connection connection : expired) {
+                if (maxIdle >= 0) {
+                    evicted.incrementAndGet();
+                }
+                connection.close();
+            }
+        }
+
+        public synchronized int idleCount() {
+            return idle.size();
+        }
+
+        private synchronized Connection pollIdle() {
+            return idle.isEmpty() ? null : idle.removeFirst();
+        }
+    }
+
+    private static class Connection {
+        private final Socket socket;
+        private final BufferedInputStream in;
+        private final OutputStream out;
+        private final boolean absoluteForm;
+        private volatile long lastUsed;
+        private boolean reused;
+        private boolean responseStarted;
+
+        public Connection(Socket socket, boolean absoluteForm) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+            this.absoluteForm = absoluteForm;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        public boolean isStale() {
+            if (socket.isClosed() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+                return true;
+            }
+            try {
+                if (in.available() > 0) {
+                    return true;
+                }
+                int soTimeout = socket.getSoTimeout();
+                try {
+                    socket.setSoTimeout(1);
+                    in.read();
+                    return true;
+                } catch (SocketTimeoutException e) {
+                    return false;
+                } finally {
+                    socket.setSoTimeout(soTimeout);
+                }
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        public void close() {
+            closeQuietly(socket);
+        }
+    }
+
+    private static class Response implements HttpTransportResponse {
+        private final int statusCode;
+        private final Map<String, String> headers;
+        private final ResponseBody body;
+
+        public Response(int statusCode, Map<String, String> headers, ResponseBody body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getHeader(String name) {
+            return headers.get(name.toLowerCase(Locale.US));
+        }
+
+        public InputStream getBody() {
+            return body;
+        }
+
+        public void close() {
+            body.close();
+        }
+    }
+
+    /**
+     * Hands the connection back to its pool once the body has been closed. A connection is
+     * only reused if the body was read to its end, so a small unread remainder is drained
+     * first.
+     */
+    private static class ResponseBody extends InputStream {
+        private final HostPool pool;
+        private final Connection connection;
+        private final InputStream delegate;
+        private final boolean keepAlive;
+        private boolean released;
+
+        public ResponseBody(HostPool pool, Connection connection, InputStream delegate, boolean keepAlive) {
+            this.pool = pool;
+            this.connection = connection;
+            this.delegate = delegate;
+            this.keepAlive = keepAlive;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return delegate.read(buffer, offset, length);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
+        }
+
+        @Override
+        public synchronized void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            pool.release(connection, keepAlive && drain());
+        }
+
+        private boolean drain() {
+            try {
+                byte[] buffer = new byte[4096];
+                long drained = 0;
+                int read = delegate.read(buffer);
+                while (read != -1) {
+                    drained += read;
+                    if (drained > MAX_DRAIN_BYTES) {
+                        return false;
+                    }
+                    read = delegate.read(buffer);
+                }
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    private static class FixedLengthInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        public FixedLengthInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read == -1) {
+                throw new EOFException("Connection closed before the response body was complete");
+            }
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+    }
+
+    private static class ChunkedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+        private boolean started;
+        private boolean eof;
+
+        public ChunkedInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (eof) {
+                return -1;
+            }
+            if (remaining == 0) {
+                if (started) {
+                    readLine(in);
+                }
+                started = true;
+                remaining = parseChunkSize(readLine(in));
+                if (remaining == 0) {
+                    readHeaders(in);
+                    eof = true;
+                    return -1;
+                }
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read == -1) {
+                throw new EOFException("Connection closed before the response body was complete");
+            }
+            remaining -= read;
+            return read;
+        }
+
+        private long parseChunkSize(String line) throws IOException {
+            int extension = line.indexOf(';');
+            String size = (extension >= 0 ? line.substring(0, extension) : line).trim();
+            try {
+                return Long.parseLong(size, 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid chunk size: " + line);
+            }
+        }
+    }
+
+    /**
+     * Frames everything written to it as chunks of up to 8KB. {@link #finish()} writes the last
+     * chunk; the underlying stream is never closed.
+     */
+    private static class ChunkedOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[8192];
+        private int count;
+
+        public ChunkedOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                writeChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length) {
+                    writeChunk();
+                }
+                int copied = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, copied);
+                count += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeChunk();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        public void finish() throws IOException {
+            writeChunk();
+            out.write("0\r\n\r\n".getBytes("ISO-8859-1"));
+        }
+
+        private void writeChunk() throws IOException {
+            if (count > 0) {
+                out.write((Integer.toHexString(count) + "\r\n").getBytes("ISO-8859-1"));
+                out.write(buffer, 0, count);
+                out.write("\r\n".getBytes("ISO-8859-1"));
+                count = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.exceptions.UnexpectedException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets concurrent GETs of the same URL share a single request. The first caller performs the
+ * request; callers arriving while it is in flight wait for it and receive the same response, or
+ * the same exception. Responses are parsed nodes, which are not modified once built, so each
+ * caller can decode its own domain object from the shared node.
+ */
+public class RequestCoalescer {
+    private final ConcurrentHashMap<String, FutureTask<NodeWrapper>> inFlight = new ConcurrentHashMap<String, FutureTask<NodeWrapper>>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public NodeWrapper get(final Http http, final String url) {
+        FutureTask<NodeWrapper> task = new FutureTask<NodeWrapper>(new Callable<NodeWrapper>() {
+            public NodeWrapper call() {
+                return http.get(url);
+            }
+        });
+        FutureTask<NodeWrapper> existing = inFlight.putIfAbsent(url, task);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+        requests.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            inFlight.remove(url, task);
+        }
+        return await(task);
+    }
+
+    /**
+     * @return the number of requests made on behalf of one or more callers.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of callers that shared a request already in flight.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private NodeWrapper await(FutureTask<NodeWrapper> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnexpectedException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new UnexpectedException(cause.getMessage(), cause);
+        }
+    }
+}
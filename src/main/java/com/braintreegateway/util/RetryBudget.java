@@ -0,0 +1,59 @@
+package com.braintreegateway.util;
+
+/**
+ * A token bucket that caps how many retries may be made, across all requests sharing it, so that
+ * retries cannot multiply the load on the gateway while it is struggling. Each retry takes a
+ * token; tokens are put back at a fixed rate up to the bucket's capacity.
+ */
+public class RetryBudget {
+    private final int capacity;
+    private final double tokensPerSecond;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param capacity
+     *            the most retries that may be made in a burst.
+     * @param tokensPerSecond
+     *            the sustained number of retries allowed per second.
+     */
+    public RetryBudget(int capacity, double tokensPerSecond) {
+        this.capacity = capacity;
+        this.tokensPerSecond = tokensPerSecond;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return false if the budget is exhausted.
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized double getAvailableTokens() {
+        refill();
+        return tokens;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getTokensPerSecond() {
+        return tokensPerSecond;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) / 1e9 * tokensPerSecond);
+        lastRefill = now;
+    }
+}
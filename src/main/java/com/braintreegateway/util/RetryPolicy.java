@@ -0,0 +1,115 @@
+package com.braintreegateway.util;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether and when {@link Http} retries a request that failed with a timeout, an I/O
+ * error or a 429, 500, 502, 503 or 504 response. Only idempotent requests are retried: GETs,
+ * searches and requests marked idempotent with {@link com.braintreegateway.RequestOptions}.
+ * <p>
+ * Retries back off exponentially with full jitter, so the n-th retry waits a random time between
+ * zero and {@code min(maxDelay, baseDelay * 2^n)}. A Retry-After header on the response is
+ * honoured as the minimum wait; if it asks for longer than {@code maxDelay} the request is not
+ * retried. Every retry also takes a token from a {@link RetryBudget}, which may be shared between
+ * policies.
+ */
+public class RetryPolicy {
+    private static final Random random = new Random();
+
+    private final int maxRetries;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final RetryBudget budget;
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+
+    /**
+     * Retries up to twice, starting from 100 milliseconds and waiting at most 5 seconds, with a
+     * budget of 20 retries replenished at 5 per second.
+     */
+    public RetryPolicy() {
+        this(2, 100, 5000, new RetryBudget(20, 5));
+    }
+
+    /**
+     * @param maxRetries
+     *            the number of retries after the first attempt.
+     * @param baseDelay
+     *            the backoff before the first retry, in milliseconds.
+     * @param maxDelay
+     *            the longest wait before a retry, in milliseconds.
+     * @param budget
+     *            the token bucket retries are drawn from.
+     */
+    public RetryPolicy(int maxRetries, long baseDelay, long maxDelay, RetryBudget budget) {
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.budget = budget;
+    }
+
+    /**
+     * @return a policy that never retries, to turn retries off for a single call.
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy(0, 0, 0, new RetryBudget(0, 0));
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getBaseDelay() {
+        return baseDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return the number of retries made under this policy.
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * @return the number of retries given up because the budget was exhausted.
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhausted.get();
+    }
+
+    /**
+     * Returns how long to wait before retrying a call that has already been retried
+     * {@code retry} times, or -1 if it should not be retried.
+     *
+     * @param retryAfter
+     *            the wait asked for by the server in milliseconds, or -1 if it gave none.
+     */
+    public long delayBeforeRetry(int retry, long retryAfter) {
+        if (retry >= maxRetries || retryAfter > maxDelay) {
+            return -1;
+        }
+        if (!budget.tryAcquire()) {
+            budgetExhausted.incrementAndGet();
+            return -1;
+        }
+        retries.incrementAndGet();
+        return Math.max(backoff(retry), retryAfter);
+    }
+
+    long backoff(int retry) {
+        long ceiling = Math.min(maxDelay, baseDelay << Math.min(retry, 30));
+        if (ceiling <= 0) {
+            return 0;
+        }
+        return (long) (random.nextDouble() * ceiling);
+    }
+}
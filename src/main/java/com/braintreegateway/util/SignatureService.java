@@ -3,10 +3,18 @@ package com.braintreegateway.util;
 public class SignatureService {
     private final String key;
     private final Hasher hasher;
+    private final HmacSigner signer;
 
     public SignatureService(String key, Hasher hasher) {
         this.key = key;
         this.hasher = hasher;
+        this.signer = null;
+    }
+
+    public SignatureService(HmacSigner signer) {
+        this.key = null;
+        this.hasher = null;
+        this.signer = signer;
     }
 
     public String sign(String query) {
@@ -14,6 +22,9 @@ public class SignatureService {
     }
 
     private String hash(String string) {
+        if (signer != null) {
+            return signer.hexSign(string);
+        }
         return hasher.hmacHash(key, string);
     }
 }
@@ -7,6 +7,8 @@ import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.util.*;
 import java.util.regex.Matcher;
@@ -26,11 +28,28 @@ public class SimpleNodeWrapper extends NodeWrapper {
 
     public static SimpleNodeWrapper parse(String xml) {
         try {
-            InputSource source = new InputSource(new StringReader(xml));
+            return parse(new InputSource(new StringReader(xml)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses the document as it is read from the stream, without first buffering it into a
+     * String. Read failures are rethrown as-is so callers can tell timeouts from bad XML.
+     */
+    public static SimpleNodeWrapper parse(InputStream xml) throws IOException {
+        return parse(new InputSource(xml));
+    }
+
+    private static SimpleNodeWrapper parse(InputSource source) throws IOException {
+        try {
             SAXParser parser = saxParserFactory.newSAXParser();
             MapNodeHandler handler = new MapNodeHandler();
             parser.parse(source, handler);
             return handler.root;
+        } catch (IOException e) {
+            throw e;
         } catch (Exception e) {
             throw new IllegalArgumentException(e.getMessage(), e);
         }
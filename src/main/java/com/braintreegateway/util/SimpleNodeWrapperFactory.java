@@ -1,7 +1,14 @@
 package com.braintreegateway.util;
 
-public class SimpleNodeWrapperFactory implements NodeWrapperFactory {
+import java.io.IOException;
+import java.io.InputStream;
+
+public class SimpleNodeWrapperFactory implements InputStreamNodeWrapperFactory {
     public NodeWrapper create(String xml) {
         return SimpleNodeWrapper.parse(xml);
     }
+
+    public NodeWrapper create(InputStream xml) throws IOException {
+        return SimpleNodeWrapper.parse(xml);
+    }
 }
@@ -0,0 +1,103 @@
+package com.braintreegateway.util;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds the records of a list response, such as a page of search results, in one forward pass
+ * over the XML. Each record is still read into a node tree of its own and handed to the binder,
+ * so as many nodes are built as with the tree parser; only the record currently being bound is
+ * held, so a page of fifty transactions never exists as a single document in memory.
+ */
+class StreamingRecordReader<T> {
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private final String rootName;
+    private final String recordName;
+    private final NodeBinder<T> binder;
+
+    /**
+     * @param rootName
+     *            expected root element, or null to accept any.
+     * @param recordName
+     *            name of the root's child elements to bind; other children are skipped.
+     */
+    public StreamingRecordReader(String rootName, String recordName, NodeBinder<T> binder) {
+        this.rootName = rootName;
+        this.recordName = recordName;
+        this.binder = binder;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        return factory;
+    }
+
+    /**
+     * Returns the bound records, or null if the root element is not the expected one.
+     */
+    public List<T> read(InputStream xml) throws IOException {
+        try {
+            return read(inputFactory.createXMLStreamReader(xml));
+        } catch (XMLStreamException e) {
+            if (e.getNestedException() instanceof IOException) {
+                throw (IOException) e.getNestedException();
+            }
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    public List<T> read(Reader xml) {
+        try {
+            return read(inputFactory.createXMLStreamReader(xml));
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private List<T> read(XMLStreamReader reader) throws XMLStreamException {
+        try {
+            reader.nextTag();
+            if (rootName != null && !rootName.equals(reader.getLocalName())) {
+                return null;
+            }
+
+            List<T> records = new ArrayList<T>();
+            int event = reader.next();
+            while (event != XMLStreamConstants.END_ELEMENT) {
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (recordName.equals(reader.getLocalName())) {
+                        records.add(binder.bind(IndexedNodeWrapper.read(reader)));
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+                event = reader.next();
+            }
+            return records;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
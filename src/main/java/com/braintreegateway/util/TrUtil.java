@@ -30,7 +30,7 @@ public class TrUtil {
                 .append("kind", request.getKind())
                 .appendEncodedData(request.toQueryString());
 
-        return new SignatureService(configuration.getPrivateKey(), new Sha1Hasher()).sign(trContent.toString());
+        return new SignatureService(configuration.getHmacSigner()).sign(trContent.toString());
     }
 
     public boolean isValidTrQueryString(String queryString) {
@@ -38,7 +38,7 @@ public class TrUtil {
         String queryStringWithoutHash = pieces[0];
         String hash = pieces[1];
 
-        return hash.equals(new Sha1Hasher().hmacHash(configuration.getPrivateKey(), queryStringWithoutHash));
+        return configuration.getHmacSigner().verify(queryStringWithoutHash, hash);
     }
 
     protected String encodeMap(Map<String, String> map) {
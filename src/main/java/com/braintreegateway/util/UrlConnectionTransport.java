@@ -0,0 +1,108 @@
+package com.braintreegateway.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.Map;
+
+import javax.net.ssl.HttpsURLConnection;
+
+/**
+ * The default {@link HttpTransport}. Opens a new {@link HttpURLConnection} for every
+ * request and disconnects it once the response has been read.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    public HttpTransportResponse execute(HttpTransportRequest request) throws IOException {
+        HttpURLConnection connection;
+        if (request.getProxy() != null) {
+            connection = (HttpURLConnection) request.getUrl().openConnection(request.getProxy());
+        } else {
+            connection = (HttpURLConnection) request.getUrl().openConnection();
+        }
+
+        try {
+            connection.setRequestMethod(request.getMethod());
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+
+            connection.setDoOutput(true);
+            connection.setReadTimeout(request.getReadTimeout());
+
+            if (request.getConnectTimeout() > 0) {
+                connection.setConnectTimeout(request.getConnectTimeout());
+            }
+
+            if (connection instanceof HttpsURLConnection && request.getSSLSocketFactory() != null) {
+                ((HttpsURLConnection) connection).setSSLSocketFactory(request.getSSLSocketFactory());
+            }
+
+            HttpRequestBody body = request.getBody();
+            if (body != null) {
+                if (body.getContentLength() >= 0) {
+                    connection.setFixedLengthStreamingMode((int) body.getContentLength());
+                } else {
+                    connection.setChunkedStreamingMode(0);
+                }
+
+                OutputStream outputStream = null;
+                try {
+                    outputStream = connection.getOutputStream();
+                    body.writeTo(outputStream);
+                } finally {
+                    if (outputStream != null) {
+                        outputStream.close();
+                    }
+                }
+            }
+
+            return new Response(connection, connection.getResponseCode());
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+    }
+
+    private static class Response implements HttpTransportResponse {
+        private HttpURLConnection connection;
+        private int statusCode;
+        private InputStream body;
+
+        public Response(HttpURLConnection connection, int statusCode) {
+            this.connection = connection;
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getHeader(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = statusCode == 422 ? connection.getErrorStream() : connection.getInputStream();
+            }
+            return body;
+        }
+
+        public void close() {
+            try {
+                if (body != null) {
+                    body.close();
+                }
+            } catch (IOException e) {
+                // the connection is discarded below
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+}
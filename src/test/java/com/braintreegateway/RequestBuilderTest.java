@@ -2,7 +2,10 @@ package com.braintreegateway;
 
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.TimeZone;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,4 +54,42 @@ public class RequestBuilderTest {
         String element = builder.formatMap("examples", map);
         assertEquals("<examples><color>green</color><insect>bee</insect></examples>", element);
     }
+
+    @Test
+    public void calendar() {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(2010, Calendar.JANUARY, 2, 3, 4, 5);
+        assertEquals("<created-at type=\"datetime\">2010-01-02T03:04:05Z</created-at>", Open.publicBuildXmlElement("created-at", calendar));
+    }
+
+    @Test
+    public void escapesValues() {
+        assertEquals("<name>Tom &amp; &quot;Jerry&quot; &lt;&apos;cat&apos;&gt;</name>", Open.publicBuildXmlElement("name", "Tom & \"Jerry\" <'cat'>"));
+    }
+
+    @Test
+    public void writeXmlMatchesToXml() throws Exception {
+        TransactionRequest request = new TransactionRequest().
+            amount(new BigDecimal("10.00")).
+            orderId("a&b").
+            customField("store_me", "<value>").
+            creditCard().
+                number("4111111111111111").
+                expirationDate("05/2009").
+                done().
+            billingAddress().
+                firstName("O'Brien").
+                done();
+
+        String expected = "<transaction><amount>10.00</amount><orderId>a&amp;b</orderId>" +
+            "<creditCard><number>4111111111111111</number><expirationDate>05/2009</expirationDate></creditCard>" +
+            "<billing><firstName>O&apos;Brien</firstName></billing>" +
+            "<customFields><store_me>&lt;value&gt;</store_me></customFields></transaction>";
+        StringBuilder streamed = new StringBuilder();
+        request.writeXML(new XmlRequestWriter(streamed));
+
+        assertEquals(expected, request.toXML());
+        assertEquals(expected, streamed.toString());
+    }
 }
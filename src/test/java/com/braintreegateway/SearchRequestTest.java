@@ -0,0 +1,39 @@
+package com.braintreegateway;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SearchRequestTest {
+    @Test
+    public void preparedSearchRendersSameXmlAsRequestWithIds() {
+        TransactionSearchRequest request = new TransactionSearchRequest().orderId().is("order<1>").amount().between("1.00", "2.00");
+        PreparedSearch prepared = request.prepare();
+
+        String expected = request.ids().in(Arrays.asList("a", "b")).toXML();
+
+        assertEquals(expected, prepared.toXML(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void preparedSearchIsUnaffectedByLaterChanges() {
+        TransactionSearchRequest request = new TransactionSearchRequest().orderId().is("first");
+        PreparedSearch prepared = request.prepare();
+
+        request.orderId().is("second");
+
+        assertTrue(prepared.toXML(Arrays.asList("a")).contains("first"));
+        assertFalse(prepared.toXML(Arrays.asList("a")).contains("second"));
+    }
+
+    @Test
+    public void preparedSearchReplacesIdsCriteria() {
+        TransactionSearchRequest request = new TransactionSearchRequest().ids().in("x", "y");
+
+        String xml = request.prepare().toXML(Arrays.asList("a"));
+
+        assertEquals("<search><ids type=\"array\"><item>a</item></ids></search>", xml);
+    }
+}
@@ -0,0 +1,421 @@
+package com.braintreegateway;
+
+import com.braintreegateway.exceptions.AmbiguousOutcomeException;
+import com.braintreegateway.exceptions.ConnectionPoolTimeoutException;
+import com.braintreegateway.exceptions.DeadlineExceededException;
+import com.braintreegateway.exceptions.ServerException;
+import com.braintreegateway.exceptions.TimeoutException;
+import com.braintreegateway.exceptions.UnexpectedException;
+import com.braintreegateway.util.Http;
+import com.braintreegateway.util.NodeWrapper;
+import com.braintreegateway.util.NodeWrapperFactory;
+import com.braintreegateway.util.RetryBudget;
+import com.braintreegateway.util.RetryPolicy;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TransactionGatewayTest {
+    private static final String SEARCH_XML = "<credit-card-transactions type=\"collection\">" +
+        "<transaction><id>abc123</id><status>settled</status><type>sale</type><amount>10.00</amount>" +
+        "<customer><id>cust</id></customer><billing><postal-code>60606</postal-code></billing><shipping></shipping>" +
+        "<credit-card><last-4>1111</last-4></credit-card><status-history type=\"array\"></status-history>" +
+        "<subscription></subscription><descriptor></descriptor><disbursement-details></disbursement-details>" +
+        "</transaction></credit-card-transactions>";
+    private static final String TRANSACTION_XML = SEARCH_XML.substring(SEARCH_XML.indexOf("<transaction>"), SEARCH_XML.indexOf("</credit-card-transactions>"));
+
+    private Configuration configuration;
+    private Http http;
+
+    @Before
+    public void setup() {
+        configuration = new Configuration(Environment.DEVELOPMENT, "merchant_id", "public_key", "private_key");
+        http = Mockito.mock(Http.class);
+        Mockito.when(http.getRemainingTime()).thenReturn(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void lazyTransactionDecodesDetailsOnFirstAccess() {
+        NodeWrapper node = Mockito.spy(NodeWrapperFactory.instance.create(SEARCH_XML).findFirst("transaction"));
+        Transaction transaction = new Transaction(node, true);
+
+        assertEquals("abc123", transaction.getId());
+        assertEquals(Transaction.Status.SETTLED, transaction.getStatus());
+        assertEquals(new BigDecimal("10.00"), transaction.getAmount());
+        Mockito.verify(node, Mockito.never()).findFirst("credit-card");
+
+        assertEquals("1111", transaction.getCreditCard().getLast4());
+        assertEquals("60606", transaction.getBillingAddress().getPostalCode());
+        assertEquals("cust", transaction.getCustomer().getId());
+        Mockito.verify(node, Mockito.times(1)).findFirst("credit-card");
+    }
+
+    @Test
+    public void searchReturnsLazyTransactionsWhenEnabled() {
+        configuration.setLazyHydrationEnabled(true);
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search"), Mockito.anyString()))
+            .thenReturn(NodeWrapperFactory.instance.create(SEARCH_XML));
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        List<Transaction> transactions = gateway.fetchTransactions(new TransactionSearchRequest().prepare(), Arrays.asList("abc123"));
+
+        assertEquals(1, transactions.size());
+        assertEquals("abc123", transactions.get(0).getId());
+        assertEquals("1111", transactions.get(0).getCreditCard().getLast4());
+        assertTrue(transactions.get(0).getStatusHistory().isEmpty());
+    }
+
+    @Test
+    public void shardedSearchBisectsFullWindowsAndMergesIds() {
+        final Calendar start = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        start.set(2018, Calendar.JANUARY, 1, 0, 0, 0);
+        start.set(Calendar.MILLISECOND, 0);
+        final AtomicInteger searches = new AtomicInteger();
+        configuration.setSearchResultLimit(3);
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search_ids"), Mockito.anyString()))
+            .thenAnswer(new Answer<NodeWrapper>() {
+                public NodeWrapper answer(InvocationOnMock invocation) {
+                    searches.incrementAndGet();
+                    NodeWrapper search = NodeWrapperFactory.instance.create((String) invocation.getArguments()[1]);
+                    assertEquals("SETTLED", search.findString("status/item"));
+                    long min = search.findDateTime("created_at/min").getTimeInMillis();
+                    long max = search.findDateTime("created_at/max").getTimeInMillis();
+                    StringBuilder xml = new StringBuilder("<search-results><page-size>50</page-size><ids type=\"array\">");
+                    for (int i = 0; i < 10; i++) {
+                        long createdAt = start.getTimeInMillis() + i * 10000L;
+                        if (createdAt >= min && createdAt <= max) {
+                            xml.append("<item>t").append(i).append("</item>");
+                        }
+                    }
+                    return NodeWrapperFactory.instance.create(xml.append("</ids></search-results>").toString());
+                }
+            });
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.SECOND, 100);
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        ResourceCollection<Transaction> results = gateway.search(new TransactionSearchRequest().status().is(Transaction.Status.SETTLED), start, end, 2);
+
+        assertEquals(Arrays.asList("t0", "t1", "t2", "t3", "t4", "t5", "t6", "t7", "t8", "t9"), results.getIds());
+        assertTrue(searches.get() > 2);
+    }
+
+    @Test
+    public void findManyFetchesPagesOfIdsAndReportsMissingIds() {
+        final AtomicInteger searches = new AtomicInteger();
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search"), Mockito.anyString()))
+            .thenAnswer(new Answer<NodeWrapper>() {
+                public NodeWrapper answer(InvocationOnMock invocation) {
+                    searches.incrementAndGet();
+                    List<String> ids = NodeWrapperFactory.instance.create((String) invocation.getArguments()[1]).findAllStrings("ids/item");
+                    assertTrue(ids.size() <= 50);
+                    StringBuilder xml = new StringBuilder("<credit-card-transactions type=\"collection\">");
+                    for (String id : ids) {
+                        if (!id.startsWith("missing")) {
+                            xml.append(SEARCH_XML.substring(SEARCH_XML.indexOf("<transaction>"), SEARCH_XML.indexOf("</credit-card-transactions>")).replace("abc123", id));
+                        }
+                    }
+                    return NodeWrapperFactory.instance.create(xml.append("</credit-card-transactions>").toString());
+                }
+            });
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 120; i++) {
+            ids.add("t" + i);
+        }
+        ids.add("missing1");
+        ids.add("t5");
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        FindManyResult<Transaction> result = gateway.findMany(ids);
+
+        assertEquals(3, searches.get());
+        assertEquals(120, result.getFound().size());
+        assertEquals("t0", result.getFound().keySet().iterator().next());
+        assertEquals("t119", result.get("t119").getId());
+        assertEquals(Arrays.asList("missing1"), result.getMissingIds());
+        assertFalse(result.isComplete());
+    }
+
+    @Test
+    public void findManyFromAnExecutorThreadDoesNotWaitForThePool() throws Exception {
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search"), Mockito.anyString()))
+            .thenReturn(NodeWrapperFactory.instance.create(SEARCH_XML));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        configuration.setExecutorService(executor);
+        final TransactionGateway gateway = new TransactionGateway(http, configuration);
+        final List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 120; i++) {
+            ids.add("t" + i);
+        }
+
+        try {
+            Future<FindManyResult<Transaction>> result = executor.submit(new Callable<FindManyResult<Transaction>>() {
+                public FindManyResult<Transaction> call() {
+                    return gateway.findMany(ids);
+                }
+            });
+
+            assertEquals(120, result.get(5, TimeUnit.SECONDS).getMissingIds().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void keyedSaleReturnsTheTransactionMadeByAnAttemptThatTimedOut() {
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class)))
+            .thenThrow(new TimeoutException("Read timed out"));
+        stubSearch("<item>abc123</item>", TRANSACTION_XML.replace("<amount>", "<order-id>order-1</order-id><amount>"));
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+        TransactionRequest request = new TransactionRequest().amount(new BigDecimal("10.00")).idempotencyKey("order-1");
+
+        Result<Transaction> result = gateway.sale(request);
+
+        assertTrue(result.isSuccess());
+        assertEquals("abc123", result.getTarget().getId());
+        assertEquals("order-1", result.getTarget().getOrderId());
+        assertNull(request.getOrderId());
+        Mockito.verify(http, Mockito.times(1)).post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class));
+    }
+
+    @Test
+    public void keyedSaleSendsTheKeyAsOrderIdWithoutChangingTheRequest() {
+        final List<String> sent = new ArrayList<String>();
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class))).thenAnswer(new Answer<NodeWrapper>() {
+            public NodeWrapper answer(InvocationOnMock invocation) {
+                sent.add(((Request) invocation.getArguments()[1]).toXML());
+                return NodeWrapperFactory.instance.create(TRANSACTION_XML);
+            }
+        });
+        TransactionRequest request = new TransactionRequest().amount(new BigDecimal("10.00")).idempotencyKey("key-1");
+
+        new TransactionGateway(http, configuration).sale(request);
+
+        assertTrue(sent.get(0), sent.get(0).contains("<orderId>key-1</orderId>"));
+        assertNull(request.getOrderId());
+        assertFalse(request.toXML().contains("<orderId>"));
+    }
+
+    @Test
+    public void keyedSaleFromATemplateKeepsTheTemplatesOrderId() {
+        final List<String> sent = new ArrayList<String>();
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class))).thenAnswer(new Answer<NodeWrapper>() {
+            public NodeWrapper answer(InvocationOnMock invocation) {
+                sent.add(((Request) invocation.getArguments()[1]).toXML());
+                return NodeWrapperFactory.instance.create(TRANSACTION_XML);
+            }
+        });
+        TransactionRequestTemplate template = new TransactionRequestTemplate(new TransactionRequest().orderId("order-1"));
+
+        new TransactionGateway(http, configuration).sale(template.newRequest().amount(new BigDecimal("10.00")).idempotencyKey("key-1"));
+
+        assertEquals(1, sent.size());
+        assertEquals(sent.get(0).indexOf("<orderId>"), sent.get(0).lastIndexOf("<orderId>"));
+        assertTrue(sent.get(0), sent.get(0).contains("<orderId>order-1</orderId>"));
+    }
+
+    @Test
+    public void keyedSaleRetriesWhenTheConnectionWasRefused() {
+        configuration.setRetryPolicy(new RetryPolicy(2, 1, 10, new RetryBudget(10, 0)));
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class)))
+            .thenThrow(new UnexpectedException("Connection refused", new ConnectException("Connection refused")))
+            .thenReturn(NodeWrapperFactory.instance.create(TRANSACTION_XML));
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        Result<Transaction> result = gateway.sale(new TransactionRequest().amount(new BigDecimal("10.00")).idempotencyKey("order-1"));
+
+        assertTrue(result.isSuccess());
+        Mockito.verify(http, Mockito.times(2)).post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class));
+        Mockito.verify(http, Mockito.never()).post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search_ids"), Mockito.any(Request.class));
+    }
+
+    @Test
+    public void keyedSaleIsSentAgainOnceItsOutcomeIsNotFound() {
+        configuration.setRetryPolicy(new RetryPolicy(2, 1, 10, new RetryBudget(10, 0)));
+        configuration.setTimeout(50);
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class)))
+            .thenThrow(new TimeoutException("Read timed out"))
+            .thenReturn(NodeWrapperFactory.instance.create(TRANSACTION_XML));
+        stubSearch("", null);
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        Result<Transaction> result = gateway.sale(new TransactionRequest().amount(new BigDecimal("10.00")).idempotencyKey("order-1"));
+
+        assertTrue(result.isSuccess());
+        Mockito.verify(http, Mockito.times(2)).post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class));
+        Mockito.verify(http, Mockito.atLeast(2)).post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search_ids"), Mockito.any(Request.class));
+    }
+
+    @Test
+    public void keyedSaleThrowsWhenItsOutcomeIsUnknownAndNoRetriesAreLeft() {
+        configuration.setRetryPolicy(new RetryPolicy(1, 1, 10, new RetryBudget(10, 0)));
+        configuration.setTimeout(50);
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class)))
+            .thenThrow(new TimeoutException("Read timed out"));
+        stubSearch("", null);
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        try {
+            gateway.sale(new TransactionRequest().amount(new BigDecimal("10.00")).idempotencyKey("order-1"));
+            fail("expected the outcome to be unknown");
+        } catch (AmbiguousOutcomeException e) {
+            assertEquals("order-1", e.getIdempotencyKey());
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Mockito.verify(http, Mockito.times(2)).post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class));
+    }
+
+    @Test
+    public void keyedSaleStopsLookingForItsOutcomeAtTheCallsDeadline() {
+        configuration.setRetryPolicy(RetryPolicy.none());
+        configuration.setTimeout(60000);
+        Mockito.when(http.getRemainingTime()).thenReturn(50L);
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class)))
+            .thenThrow(new TimeoutException("Read timed out"));
+        stubSearch("", null);
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+        long start = System.currentTimeMillis();
+
+        try {
+            gateway.sale(new TransactionRequest().amount(new BigDecimal("10.00")).idempotencyKey("order-1"));
+            fail("expected the outcome to be unknown");
+        } catch (AmbiguousOutcomeException e) {
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        }
+    }
+
+    @Test
+    public void keyedSaleIsNotLookedUpWhenItWasNeverSent() {
+        configuration.setRetryPolicy(new RetryPolicy(2, 1, 10, new RetryBudget(10, 0)));
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class)))
+            .thenThrow(new ConnectionPoolTimeoutException("Timed out waiting for a connection to localhost"))
+            .thenThrow(new DeadlineExceededException("deadline passed before POST /merchants/merchant_id/transactions"));
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        try {
+            gateway.sale(new TransactionRequest().amount(new BigDecimal("10.00")).idempotencyKey("order-1"));
+            fail("expected the deadline to be exceeded");
+        } catch (DeadlineExceededException e) {
+        }
+        Mockito.verify(http, Mockito.times(2)).post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class));
+        Mockito.verify(http, Mockito.never()).post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search_ids"), Mockito.any(Request.class));
+    }
+
+    @Test
+    public void keyedSaleWaitsForATransactionThatIsSlowToBeFound() {
+        configuration.setTimeout(2000);
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class)))
+            .thenThrow(new TimeoutException("Read timed out"));
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search_ids"), Mockito.any(Request.class)))
+            .thenReturn(NodeWrapperFactory.instance.create("<search-results><page-size>50</page-size><ids type=\"array\"></ids></search-results>"))
+            .thenReturn(NodeWrapperFactory.instance.create("<search-results><page-size>50</page-size><ids type=\"array\"><item>abc123</item></ids></search-results>"));
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search"), Mockito.anyString()))
+            .thenReturn(NodeWrapperFactory.instance.create("<credit-card-transactions type=\"collection\">" + TRANSACTION_XML + "</credit-card-transactions>"));
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        Result<Transaction> result = gateway.sale(new TransactionRequest().amount(new BigDecimal("10.00")).idempotencyKey("order-1"));
+
+        assertEquals("abc123", result.getTarget().getId());
+        Mockito.verify(http, Mockito.times(1)).post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class));
+    }
+
+    @Test
+    public void saleWithoutKeyIsNotRetried() {
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(Request.class)))
+            .thenThrow(new TimeoutException("Read timed out"));
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+        try {
+            gateway.sale(new TransactionRequest().amount(new BigDecimal("10.00")));
+            fail("expected the timeout to be thrown");
+        } catch (TimeoutException e) {
+            Mockito.verify(http, Mockito.never()).post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search_ids"), Mockito.any(Request.class));
+        }
+    }
+
+    @Test
+    public void keyedRefundOnlyMatchesRefundsOfTheSameTransaction() {
+        configuration.setRetryPolicy(new RetryPolicy(2, 1, 10, new RetryBudget(10, 0)));
+        configuration.setTimeout(50);
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/original/refund"), Mockito.any(Request.class)))
+            .thenThrow(new ServerException())
+            .thenReturn(NodeWrapperFactory.instance.create(TRANSACTION_XML));
+        stubSearch("<item>abc123</item>", TRANSACTION_XML.replace("<amount>", "<refunded-transaction-id>other</refunded-transaction-id><amount>"));
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        Result<Transaction> result = gateway.refund("original", new TransactionRefundRequest().idempotencyKey("refund-1"));
+
+        assertTrue(result.isSuccess());
+        Mockito.verify(http, Mockito.times(2)).post(Mockito.eq("/merchants/merchant_id/transactions/original/refund"), Mockito.any(Request.class));
+    }
+
+    @Test
+    public void keyedSubmitForSettlementChecksTheTransactionStatus() {
+        Mockito.when(http.put(Mockito.eq("/merchants/merchant_id/transactions/abc123/submit_for_settlement"), Mockito.any(Request.class)))
+            .thenThrow(new TimeoutException("Read timed out"));
+        Mockito.when(http.get("/merchants/merchant_id/transactions/abc123"))
+            .thenReturn(NodeWrapperFactory.instance.create(TRANSACTION_XML.replace("settled", "submitted_for_settlement")));
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        Result<Transaction> result = gateway.submitForSettlement("abc123", new TransactionRequest().idempotencyKey("settle-1"));
+
+        assertTrue(result.isSuccess());
+        assertEquals(Transaction.Status.SUBMITTED_FOR_SETTLEMENT, result.getTarget().getStatus());
+        Mockito.verify(http, Mockito.times(1)).put(Mockito.eq("/merchants/merchant_id/transactions/abc123/submit_for_settlement"), Mockito.any(Request.class));
+    }
+
+    @Test
+    public void shardedSearchKeepsTheCallersBounds() {
+        final List<String> requests = new ArrayList<String>();
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search_ids"), Mockito.anyString())).thenAnswer(new Answer<NodeWrapper>() {
+            public NodeWrapper answer(InvocationOnMock invocation) {
+                synchronized (requests) {
+                    requests.add((String) invocation.getArguments()[1]);
+                }
+                return NodeWrapperFactory.instance.create("<search-results><page-size>50</page-size><ids type=\"array\"></ids></search-results>");
+            }
+        });
+        Calendar min = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        min.clear();
+        min.set(2016, Calendar.JANUARY, 1, 10, 0, 0);
+        Calendar max = (Calendar) min.clone();
+        min.set(Calendar.MILLISECOND, 700);
+        max.add(Calendar.SECOND, 5);
+        max.set(Calendar.MILLISECOND, 300);
+
+        new TransactionGateway(http, configuration).search(new TransactionSearchRequest(), min, max, 2);
+
+        assertEquals(2, requests.size());
+        String all = requests.get(0) + requests.get(1);
+        assertTrue(all, all.contains("2016-01-01T10:00:00"));
+        assertTrue(all, all.contains("2016-01-01T10:00:03"));
+        assertTrue(all, all.contains("2016-01-01T10:00:05"));
+        assertFalse(all, all.contains("2016-01-01T10:00:06"));
+    }
+
+    private void stubSearch(String ids, String transactionXml) {
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search_ids"), Mockito.any(Request.class)))
+            .thenReturn(NodeWrapperFactory.instance.create("<search-results><page-size>50</page-size><ids type=\"array\">" + ids + "</ids></search-results>"));
+        if (transactionXml != null) {
+            Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions/advanced_search"), Mockito.anyString()))
+                .thenReturn(NodeWrapperFactory.instance.create("<credit-card-transactions type=\"collection\">" + transactionXml + "</credit-card-transactions>"));
+        }
+    }
+}
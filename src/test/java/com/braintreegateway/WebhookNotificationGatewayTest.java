@@ -0,0 +1,93 @@
+package com.braintreegateway;
+
+import com.braintreegateway.org.apache.commons.codec.binary.Base64;
+import com.braintreegateway.util.NodeWrapper;
+import com.braintreegateway.util.NodeWrapperFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WebhookNotificationGatewayTest {
+    private Configuration configuration;
+
+    @Before
+    public void setup() {
+        configuration = new Configuration(Environment.DEVELOPMENT, "merchant_id", "public_key", "private_key");
+    }
+
+    @Test
+    public void lazyNotificationDecodesSubjectOnFirstAccess() {
+        HashMap<String, String> sample = new WebhookTestingGateway(configuration).sampleNotification(WebhookNotification.Kind.TRANSACTION_DISBURSED, "txn", "merchant");
+        NodeWrapper node = Mockito.spy(NodeWrapperFactory.instance.create(new String(Base64.decodeBase64(sample.get("bt_payload")))));
+
+        WebhookNotification notification = new WebhookNotification(node, true);
+
+        assertEquals(WebhookNotification.Kind.TRANSACTION_DISBURSED, notification.getKind());
+        assertNotNull(notification.getTimestamp());
+        assertEquals("merchant", notification.getSourceMerchantId());
+        Mockito.verify(node, Mockito.never()).findFirst("subject");
+
+        assertEquals("txn", notification.getTransaction().getId());
+        assertNull(notification.getSubscription());
+        Mockito.verify(node, Mockito.times(1)).findFirst("subject");
+    }
+
+    @Test
+    public void parseDecodesSubjectLazilyWhenEnabled() {
+        configuration.setLazyWebhookParsingEnabled(true);
+        HashMap<String, String> sample = new WebhookTestingGateway(configuration).sampleNotification(WebhookNotification.Kind.SUBSCRIPTION_CHARGED_SUCCESSFULLY, "sub");
+
+        WebhookNotification notification = new WebhookNotificationGateway(configuration).parse(sample.get("bt_signature"), sample.get("bt_payload"));
+
+        assertEquals(WebhookNotification.Kind.SUBSCRIPTION_CHARGED_SUCCESSFULLY, notification.getKind());
+        assertEquals("sub", notification.getSubscription().getId());
+        assertNull(notification.getErrors());
+    }
+
+    @Test
+    public void parsesIntoIndexedNodesWhenEnabled() {
+        configuration.setIndexedParsingEnabled(true);
+        HashMap<String, String> sample = new WebhookTestingGateway(configuration).sampleNotification(WebhookNotification.Kind.TRANSACTION_DISBURSED, "txn", "merchant");
+
+        WebhookNotification notification = new WebhookNotificationGateway(configuration).parse(sample.get("bt_signature"), sample.get("bt_payload"));
+
+        assertEquals(WebhookNotification.Kind.TRANSACTION_DISBURSED, notification.getKind());
+        assertEquals("merchant", notification.getSourceMerchantId());
+        assertEquals("txn", notification.getTransaction().getId());
+    }
+
+    @Test
+    public void parseInvalidatesCachedTransactionsOfALazyNotification() {
+        configuration.setLazyWebhookParsingEnabled(true);
+        EntityCache cache = new EntityCache(10, 1, TimeUnit.HOURS);
+        configuration.setEntityCache(cache);
+        cache.put(EntityCache.TRANSACTION, "asdf", NodeWrapperFactory.instance.create("<transaction><id>asdf</id></transaction>"));
+        cache.put(EntityCache.TRANSACTION, "qwer", NodeWrapperFactory.instance.create("<transaction><id>qwer</id></transaction>"));
+        HashMap<String, String> sample = new WebhookTestingGateway(configuration).sampleNotification(WebhookNotification.Kind.DISBURSEMENT, "disb");
+
+        new WebhookNotificationGateway(configuration).parse(sample.get("bt_signature"), sample.get("bt_payload"));
+
+        assertNull(cache.get(EntityCache.TRANSACTION, "asdf"));
+        assertNull(cache.get(EntityCache.TRANSACTION, "qwer"));
+    }
+
+    @Test
+    public void invalidatingFromTheNodeDoesNotDecodeTheSubject() {
+        EntityCache cache = new EntityCache(10, 1, TimeUnit.HOURS);
+        cache.put(EntityCache.TRANSACTION, "txn", NodeWrapperFactory.instance.create("<transaction><id>txn</id></transaction>"));
+        HashMap<String, String> sample = new WebhookTestingGateway(configuration).sampleNotification(WebhookNotification.Kind.TRANSACTION_SETTLED, "txn");
+        NodeWrapper node = Mockito.spy(NodeWrapperFactory.instance.create(new String(Base64.decodeBase64(sample.get("bt_payload")))));
+
+        WebhookNotification notification = new WebhookNotification(node, true);
+        cache.invalidateSubject(node);
+
+        assertNull(cache.get(EntityCache.TRANSACTION, "txn"));
+        Mockito.verify(node, Mockito.never()).findFirst("subject");
+        assertEquals("txn", notification.getTransaction().getId());
+    }
+}
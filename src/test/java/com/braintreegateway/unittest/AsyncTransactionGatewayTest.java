@@ -0,0 +1,111 @@
+package com.braintreegateway.unittest;
+
+import com.braintreegateway.AsyncTransactionGateway;
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Environment;
+import com.braintreegateway.GatewayCallback;
+import com.braintreegateway.GatewayFuture;
+import com.braintreegateway.Transaction;
+import com.braintreegateway.TransactionGateway;
+import com.braintreegateway.exceptions.NotFoundException;
+import com.braintreegateway.exceptions.TimeoutException;
+import com.braintreegateway.util.Http;
+import com.braintreegateway.util.NodeWrapper;
+import com.braintreegateway.util.SimpleNodeWrapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class AsyncTransactionGatewayTest {
+    private static final String TRANSACTION_XML = "<transaction><id>abc123</id><status>settled</status><type>sale</type>" +
+        "<customer></customer><billing></billing><shipping></shipping><credit-card></credit-card>" +
+        "<status-history type=\"array\"></status-history><subscription></subscription><descriptor></descriptor>" +
+        "<disbursement-details></disbursement-details></transaction>";
+
+    private Configuration configuration;
+    private Http http;
+
+    @Before
+    public void setup() {
+        configuration = new Configuration(Environment.DEVELOPMENT, "merchant_id", "public_key", "private_key");
+        http = Mockito.mock(Http.class);
+    }
+
+    @Test
+    public void findCompletesWithTransaction() throws Exception {
+        Mockito.when(http.get("/merchants/merchant_id/transactions/abc123")).thenReturn(SimpleNodeWrapper.parse(TRANSACTION_XML));
+        AsyncTransactionGateway gateway = new AsyncTransactionGateway(new TransactionGateway(http, configuration), configuration);
+
+        Transaction transaction = gateway.find("abc123").get(5, TimeUnit.SECONDS);
+
+        assertEquals("abc123", transaction.getId());
+        assertEquals(Transaction.Status.SETTLED, transaction.getStatus());
+    }
+
+    @Test
+    public void callbackReceivesFailure() throws Exception {
+        AsyncTransactionGateway gateway = new AsyncTransactionGateway(new TransactionGateway(http, configuration), configuration);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        gateway.find(" ").addCallback(new GatewayCallback<Transaction>() {
+            public void onSuccess(Transaction result) {
+                latch.countDown();
+            }
+
+            public void onFailure(Throwable cause) {
+                failure.set(cause);
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof NotFoundException);
+    }
+
+    @Test
+    public void failsWithTimeoutWhenDeadlineIsExceeded() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(http.get("/merchants/merchant_id/transactions/slow")).thenAnswer(new Answer<NodeWrapper>() {
+            public NodeWrapper answer(InvocationOnMock invocation) throws Throwable {
+                release.await(5, TimeUnit.SECONDS);
+                return SimpleNodeWrapper.parse(TRANSACTION_XML);
+            }
+        });
+        AsyncTransactionGateway gateway = new AsyncTransactionGateway(new TransactionGateway(http, configuration), configuration);
+
+        GatewayFuture<Transaction> future = gateway.withTimeout(50, TimeUnit.MILLISECONDS).find("slow");
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("expected the call to exceed its deadline");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void keepsAnInterruptNotMadeByTheTimeout() {
+        GatewayFuture<String> future = new GatewayFuture<String>(new Callable<String>() {
+            public String call() {
+                Thread.currentThread().interrupt();
+                return "done";
+            }
+        });
+
+        future.run();
+
+        assertTrue(Thread.interrupted());
+    }
+}
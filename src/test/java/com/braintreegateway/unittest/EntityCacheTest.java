@@ -0,0 +1,309 @@
+package com.braintreegateway.unittest;
+
+import com.braintreegateway.AddressGateway;
+import com.braintreegateway.AddressRequest;
+import com.braintreegateway.BraintreeGateway;
+import com.braintreegateway.Configuration;
+import com.braintreegateway.CreditCardGateway;
+import com.braintreegateway.CreditCardRequest;
+import com.braintreegateway.Customer;
+import com.braintreegateway.CustomerGateway;
+import com.braintreegateway.CustomerRequest;
+import com.braintreegateway.EntityCache;
+import com.braintreegateway.Environment;
+import com.braintreegateway.PayPalAccountGateway;
+import com.braintreegateway.PayPalAccountRequest;
+import com.braintreegateway.PaymentMethodGateway;
+import com.braintreegateway.PaymentMethodRequest;
+import com.braintreegateway.Transaction;
+import com.braintreegateway.TransactionGateway;
+import com.braintreegateway.TransactionRequest;
+import com.braintreegateway.UsBankAccountGateway;
+import com.braintreegateway.WebhookNotification;
+import com.braintreegateway.WebhookNotificationGateway;
+import com.braintreegateway.WebhookTestingGateway;
+import com.braintreegateway.exceptions.TimeoutException;
+import com.braintreegateway.util.Http;
+import com.braintreegateway.util.NodeWrapper;
+import com.braintreegateway.util.NodeWrapperFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EntityCacheTest {
+    private static final String TRANSACTION_XML = "<transaction><id>%s</id><status>settled</status><type>sale</type>" +
+        "<customer></customer><billing></billing><shipping></shipping><credit-card></credit-card>" +
+        "<status-history type=\"array\"></status-history><subscription></subscription><descriptor></descriptor>" +
+        "<disbursement-details></disbursement-details></transaction>";
+    private static final String CUSTOMER_XML = "<customer><id>cust</id><first-name>Jane</first-name></customer>";
+    private static final String ADDRESS_XML = "<address><id>addr</id><customer-id>cust</customer-id></address>";
+    private static final String CARD_XML = "<credit-card><token>tok</token><customer-id>cust</customer-id></credit-card>";
+    private static final String PAYPAL_XML = "<paypal-account><token>tok</token><customer-id>cust</customer-id></paypal-account>";
+    private static final String CARD_OWNER_XML = "<customer><id>owner</id><credit-cards type=\"array\">" + CARD_XML.replace(">cust<", ">owner<").replace(">tok<", ">tok2<") + "</credit-cards></customer>";
+
+    private Configuration configuration;
+    private Http http;
+    private EntityCache cache;
+
+    @Before
+    public void setup() {
+        configuration = new Configuration(Environment.DEVELOPMENT, "merchant_id", "public_key", "private_key");
+        cache = new EntityCache(2, 1, TimeUnit.HOURS);
+        configuration.setEntityCache(cache);
+        http = Mockito.mock(Http.class);
+        for (String id : new String[] { "txn1", "txn2", "txn3" }) {
+            Mockito.when(http.get("/merchants/merchant_id/transactions/" + id)).thenReturn(NodeWrapperFactory.instance.create(String.format(TRANSACTION_XML, id)));
+        }
+        Mockito.when(http.get("/merchants/merchant_id/customers/cust")).thenReturn(NodeWrapperFactory.instance.create(CUSTOMER_XML));
+        Mockito.when(http.get("/merchants/merchant_id/customers/owner")).thenReturn(NodeWrapperFactory.instance.create(CARD_OWNER_XML));
+    }
+
+    @Test
+    public void findReadsThroughCache() {
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+
+        Transaction first = gateway.find("txn1");
+        Transaction second = gateway.find("txn1");
+
+        assertEquals("txn1", second.getId());
+        assertNotSame(first, second);
+        Mockito.verify(http, Mockito.times(1)).get("/merchants/merchant_id/transactions/txn1");
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRatio(), 0.001);
+        assertTrue(cache.getEstimatedMemoryUsage() > 0);
+    }
+
+    @Test
+    public void mutationsInvalidateCachedEntities() {
+        TransactionGateway transactions = new TransactionGateway(http, configuration);
+        CustomerGateway customers = new CustomerGateway(http, configuration);
+        transactions.find("txn1");
+        customers.find("cust");
+        Mockito.when(http.put("/merchants/merchant_id/transactions/txn1/void")).thenReturn(NodeWrapperFactory.instance.create(String.format(TRANSACTION_XML, "txn1")));
+        Mockito.when(http.put(Mockito.eq("/merchants/merchant_id/customers/cust"), Mockito.any(CustomerRequest.class))).thenReturn(NodeWrapperFactory.instance.create(CUSTOMER_XML));
+
+        transactions.voidTransaction("txn1");
+        customers.update("cust", new CustomerRequest().firstName("Joan"));
+        transactions.find("txn1");
+        customers.find("cust");
+
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/transactions/txn1");
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/customers/cust");
+    }
+
+    @Test
+    public void mutationsDuringAFindKeepItsResponseOutOfTheCache() {
+        final TransactionGateway transactions = new TransactionGateway(http, configuration);
+        Mockito.when(http.put("/merchants/merchant_id/transactions/txn1/void")).thenReturn(NodeWrapperFactory.instance.create(String.format(TRANSACTION_XML, "txn1")));
+        Mockito.when(http.get("/merchants/merchant_id/transactions/txn1")).thenAnswer(new Answer<NodeWrapper>() {
+            private boolean voided;
+
+            public NodeWrapper answer(InvocationOnMock invocation) {
+                if (!voided) {
+                    voided = true;
+                    transactions.voidTransaction("txn1");
+                }
+                return NodeWrapperFactory.instance.create(String.format(TRANSACTION_XML, "txn1"));
+            }
+        });
+
+        transactions.find("txn1");
+        transactions.find("txn1");
+        transactions.find("txn1");
+
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/transactions/txn1");
+    }
+
+    @Test
+    public void failedMutationsInvalidateCachedEntities() {
+        TransactionGateway transactions = new TransactionGateway(http, configuration);
+        CreditCardGateway creditCards = new CreditCardGateway(http, configuration);
+        configuration.setEntityCache(new EntityCache(10, 1, TimeUnit.HOURS));
+        stubPaymentMethod(CARD_XML);
+        Mockito.when(http.put("/merchants/merchant_id/transactions/txn1/void")).thenThrow(new TimeoutException("Read timed out"));
+        Mockito.when(http.put(Mockito.eq("/merchants/merchant_id/payment_methods/credit_card/tok"), Mockito.any(CreditCardRequest.class)))
+            .thenThrow(new TimeoutException("Read timed out"));
+        transactions.find("txn1");
+        findPaymentMethodAndCustomer();
+
+        try {
+            transactions.voidTransaction("txn1");
+            fail("expected a TimeoutException");
+        } catch (TimeoutException e) {
+        }
+        try {
+            creditCards.update("tok", new CreditCardRequest().cardholderName("Jane"));
+            fail("expected a TimeoutException");
+        } catch (TimeoutException e) {
+        }
+        transactions.find("txn1");
+        findPaymentMethodAndCustomer();
+
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/transactions/txn1");
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/payment_methods/any/tok");
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/customers/cust");
+    }
+
+    @Test
+    public void webhooksInvalidateCachedEntities() {
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+        gateway.find("txn1");
+        HashMap<String, String> sample = new WebhookTestingGateway(configuration).sampleNotification(WebhookNotification.Kind.TRANSACTION_SETTLED, "txn1");
+
+        new WebhookNotificationGateway(configuration).parse(sample.get("bt_signature"), sample.get("bt_payload"));
+        gateway.find("txn1");
+
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/transactions/txn1");
+    }
+
+    @Test
+    public void creditCardChangesInvalidateTheCardAndItsCustomer() {
+        configuration.setEntityCache(new EntityCache(10, 1, TimeUnit.HOURS));
+        stubPaymentMethod(CARD_XML);
+        CreditCardGateway creditCards = new CreditCardGateway(http, configuration);
+        Mockito.when(http.put(Mockito.eq("/merchants/merchant_id/payment_methods/credit_card/tok"), Mockito.any(CreditCardRequest.class)))
+            .thenReturn(NodeWrapperFactory.instance.create(CARD_XML));
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/payment_methods"), Mockito.any(CreditCardRequest.class)))
+            .thenReturn(NodeWrapperFactory.instance.create(CARD_XML));
+
+        findPaymentMethodAndCustomer();
+        creditCards.update("tok", new CreditCardRequest().cardholderName("Jane"));
+        findPaymentMethodAndCustomer();
+        creditCards.delete("tok");
+        findPaymentMethodAndCustomer();
+        creditCards.create(new CreditCardRequest().customerId("cust"));
+        findPaymentMethodAndCustomer();
+
+        Mockito.verify(http, Mockito.times(3)).get("/merchants/merchant_id/payment_methods/any/tok");
+        Mockito.verify(http, Mockito.times(4)).get("/merchants/merchant_id/customers/cust");
+    }
+
+    @Test
+    public void payPalAccountChangesInvalidateTheAccountAndItsCustomer() {
+        configuration.setEntityCache(new EntityCache(10, 1, TimeUnit.HOURS));
+        stubPaymentMethod(PAYPAL_XML);
+        PayPalAccountGateway payPalAccounts = new PayPalAccountGateway(http, configuration);
+        Mockito.when(http.put(Mockito.eq("/merchants/merchant_id/payment_methods/paypal_account/tok"), Mockito.any(PayPalAccountRequest.class)))
+            .thenReturn(NodeWrapperFactory.instance.create(PAYPAL_XML));
+
+        findPaymentMethodAndCustomer();
+        payPalAccounts.update("tok", new PayPalAccountRequest().token("tok"));
+        findPaymentMethodAndCustomer();
+        payPalAccounts.delete("tok");
+        findPaymentMethodAndCustomer();
+
+        Mockito.verify(http, Mockito.times(3)).get("/merchants/merchant_id/payment_methods/any/tok");
+        Mockito.verify(http, Mockito.times(3)).get("/merchants/merchant_id/customers/cust");
+    }
+
+    @Test
+    public void usBankAccountSaleInvalidatesTheAccount() {
+        stubPaymentMethod("<us-bank-account><token>tok</token><customer-id>cust</customer-id><ach-mandate></ach-mandate></us-bank-account>");
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/transactions"), Mockito.any(TransactionRequest.class)))
+            .thenReturn(NodeWrapperFactory.instance.create(String.format(TRANSACTION_XML, "txn1")));
+        BraintreeGateway braintree = Mockito.mock(BraintreeGateway.class);
+        Mockito.when(braintree.transaction()).thenReturn(new TransactionGateway(http, configuration));
+        PaymentMethodGateway paymentMethods = new PaymentMethodGateway(http, configuration);
+
+        paymentMethods.find("tok");
+        new UsBankAccountGateway(braintree, http, configuration).sale("tok", new TransactionRequest().amount(new BigDecimal("10.00")));
+        paymentMethods.find("tok");
+
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/payment_methods/any/tok");
+    }
+
+    @Test
+    public void addressChangesInvalidateTheCustomer() {
+        AddressGateway addresses = new AddressGateway(http, configuration);
+        CustomerGateway customers = new CustomerGateway(http, configuration);
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/customers/cust/addresses"), Mockito.any(AddressRequest.class)))
+            .thenReturn(NodeWrapperFactory.instance.create(ADDRESS_XML));
+        Mockito.when(http.put(Mockito.eq("/merchants/merchant_id/customers/cust/addresses/addr"), Mockito.any(AddressRequest.class)))
+            .thenReturn(NodeWrapperFactory.instance.create(ADDRESS_XML));
+
+        customers.find("cust");
+        addresses.create("cust", new AddressRequest().postalCode("60606"));
+        customers.find("cust");
+        addresses.update("cust", "addr", new AddressRequest().postalCode("60607"));
+        customers.find("cust");
+        addresses.delete("cust", "addr");
+        customers.find("cust");
+
+        Mockito.verify(http, Mockito.times(4)).get("/merchants/merchant_id/customers/cust");
+    }
+
+    @Test
+    public void paymentMethodChangesInvalidateTheOwningCustomer() {
+        configuration.setEntityCache(new EntityCache(10, 1, TimeUnit.HOURS));
+        stubPaymentMethod(CARD_XML);
+        PaymentMethodGateway paymentMethods = new PaymentMethodGateway(http, configuration);
+        CustomerGateway customers = new CustomerGateway(http, configuration);
+        Mockito.when(http.post(Mockito.eq("/merchants/merchant_id/payment_methods"), Mockito.any(PaymentMethodRequest.class)))
+            .thenReturn(NodeWrapperFactory.instance.create(CARD_XML));
+        Mockito.when(http.put(Mockito.eq("/merchants/merchant_id/payment_methods/any/tok"), Mockito.any(PaymentMethodRequest.class)))
+            .thenReturn(NodeWrapperFactory.instance.create(CARD_XML));
+
+        findPaymentMethodAndCustomer();
+        paymentMethods.create(new PaymentMethodRequest().customerId("cust").paymentMethodNonce("nonce"));
+        findPaymentMethodAndCustomer();
+        paymentMethods.update("tok", new PaymentMethodRequest().billingAddressId("addr"));
+        findPaymentMethodAndCustomer();
+        customers.find("owner");
+        paymentMethods.delete("tok2");
+        customers.find("owner");
+
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/payment_methods/any/tok");
+        Mockito.verify(http, Mockito.times(3)).get("/merchants/merchant_id/customers/cust");
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/customers/owner");
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntities() {
+        TransactionGateway gateway = new TransactionGateway(http, configuration);
+        gateway.find("txn1");
+        gateway.find("txn2");
+        gateway.find("txn1");
+        long memoryUsage = cache.getEstimatedMemoryUsage();
+
+        gateway.find("txn3");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(memoryUsage, cache.getEstimatedMemoryUsage());
+        gateway.find("txn1");
+        gateway.find("txn2");
+        Mockito.verify(http, Mockito.times(1)).get("/merchants/merchant_id/transactions/txn1");
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/transactions/txn2");
+    }
+
+    @Test
+    public void expiredEntitiesAreFetchedAgain() throws Exception {
+        configuration.setEntityCache(new EntityCache(10, 20, TimeUnit.MILLISECONDS));
+        CustomerGateway gateway = new CustomerGateway(http, configuration);
+        gateway.find("cust");
+
+        Thread.sleep(50);
+        Customer customer = gateway.find("cust");
+
+        assertEquals("Jane", customer.getFirstName());
+        Mockito.verify(http, Mockito.times(2)).get("/merchants/merchant_id/customers/cust");
+    }
+
+    private void stubPaymentMethod(String xml) {
+        Mockito.when(http.get("/merchants/merchant_id/payment_methods/any/tok")).thenReturn(NodeWrapperFactory.instance.create(xml));
+    }
+
+    private void findPaymentMethodAndCustomer() {
+        new PaymentMethodGateway(http, configuration).find("tok");
+        new CustomerGateway(http, configuration).find("cust");
+    }
+}
@@ -3,12 +3,14 @@ package com.braintreegateway.unittest;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import com.braintreegateway.PaginatedCollection;
 import com.braintreegateway.PaginatedResult;
 import com.braintreegateway.SimplePager;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -34,4 +36,56 @@ public class PaginatedCollectionTest {
         verify(pager, times(1)).getPage(1);
         verify(pager, times(1)).getPage(any(int.class));
     }
+
+    @Test
+    public void testSplitCoversEveryPageOnce() {
+        SimplePager<Integer> pager = new SimplePager<Integer>() {
+            public PaginatedResult<Integer> getPage(int page) {
+                List<Integer> values = new ArrayList<Integer>();
+                for (int i = (page - 1) * 2; i < Math.min(page * 2, 7); i++) {
+                    values.add(i);
+                }
+                return new PaginatedResult<Integer>(7, 2, values);
+            }
+        };
+
+        List<PaginatedCollection<Integer>> parts = new PaginatedCollection<Integer>(pager).split(3);
+
+        List<Integer> results = new ArrayList<Integer>();
+        for (PaginatedCollection<Integer> part : parts) {
+            for (Integer i : part) {
+                results.add(i);
+            }
+        }
+        assertEquals(3, parts.size());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), results);
+    }
+
+    @Test
+    public void testSplittingAPartStaysWithinItsPages() {
+        final List<Integer> fetched = new ArrayList<Integer>();
+        SimplePager<Integer> pager = new SimplePager<Integer>() {
+            public PaginatedResult<Integer> getPage(int page) {
+                fetched.add(page);
+                List<Integer> values = new ArrayList<Integer>();
+                for (int i = (page - 1) * 2; i < Math.min(page * 2, 15); i++) {
+                    values.add(i);
+                }
+                return new PaginatedResult<Integer>(15, 2, values);
+            }
+        };
+
+        List<PaginatedCollection<Integer>> halves = new PaginatedCollection<Integer>(pager).split(2);
+        List<PaginatedCollection<Integer>> quarters = halves.get(1).split(2);
+
+        List<Integer> results = new ArrayList<Integer>();
+        for (PaginatedCollection<Integer> part : quarters) {
+            for (Integer i : part) {
+                results.add(i);
+            }
+        }
+        assertEquals(2, quarters.size());
+        assertEquals(Arrays.asList(8, 9, 10, 11, 12, 13, 14), results);
+        assertEquals(Arrays.asList(1, 5, 6, 7, 8), fetched);
+    }
 }
@@ -0,0 +1,70 @@
+package com.braintreegateway.unittest;
+
+import com.braintreegateway.SubscriptionRequest;
+import com.braintreegateway.SubscriptionRequestTemplate;
+import com.braintreegateway.TransactionRequest;
+import com.braintreegateway.TransactionRequestTemplate;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+public class RequestTemplateTest {
+
+    @Test
+    public void transactionRequestIncludesTemplateFields() {
+        TransactionRequestTemplate template = new TransactionRequestTemplate(new TransactionRequest().
+            merchantAccountId("merchant_account").
+            channel("checkout").
+            options().
+                submitForSettlement(true).
+                done());
+
+        TransactionRequest request = template.newRequest().amount(new BigDecimal("10.00")).orderId("order&1");
+
+        assertEquals("<transaction><channel>checkout</channel><merchantAccountId>merchant_account</merchantAccountId>" +
+            "<options><submitForSettlement>true</submitForSettlement></options>" +
+            "<amount>10.00</amount><orderId>order&amp;1</orderId></transaction>", request.toXML());
+    }
+
+    @Test
+    public void templateIsUnaffectedByLaterChanges() {
+        TransactionRequest fields = new TransactionRequest().merchantAccountId("merchant_account");
+        TransactionRequestTemplate template = new TransactionRequestTemplate(fields);
+        fields.channel("checkout");
+
+        TransactionRequest first = template.newRequest().amount(new BigDecimal("1.00"));
+        TransactionRequest second = template.newRequest().amount(new BigDecimal("2.00"));
+
+        assertEquals("<transaction><merchantAccountId>merchant_account</merchantAccountId><amount>1.00</amount></transaction>", first.toXML());
+        assertEquals("<transaction><merchantAccountId>merchant_account</merchantAccountId><amount>2.00</amount></transaction>", second.toXML());
+    }
+
+    @Test
+    public void transactionQueryStringIncludesTemplateFields() {
+        TransactionRequestTemplate template = new TransactionRequestTemplate(new TransactionRequest().merchantAccountId("merchant_account"));
+
+        String queryString = template.newRequest().amount(new BigDecimal("1.00")).toQueryString();
+
+        assertTrue(queryString, queryString.contains("transaction%5Bmerchant_account_id%5D=merchant_account"));
+        assertTrue(queryString, queryString.contains("transaction%5Bamount%5D=1.00"));
+    }
+
+    @Test
+    public void subscriptionRequestIncludesTemplateFields() {
+        SubscriptionRequestTemplate template = new SubscriptionRequestTemplate(new SubscriptionRequest().planId("plan").merchantAccountId("merchant_account"));
+
+        SubscriptionRequest request = template.newRequest().paymentMethodToken("token");
+
+        assertEquals("<subscription><merchantAccountId>merchant_account</merchantAccountId><planId>plan</planId>" +
+            "<paymentMethodToken>token</paymentMethodToken></subscription>", request.toXML());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAFieldSetByBothTheTemplateAndTheRequest() {
+        TransactionRequestTemplate template = new TransactionRequestTemplate(new TransactionRequest().orderId("order"));
+
+        template.newRequest().amount(new BigDecimal("1.00")).orderId("other").toXML();
+    }
+}
@@ -0,0 +1,164 @@
+package com.braintreegateway.unittest;
+
+import com.braintreegateway.Pager;
+import com.braintreegateway.ResourceCollection;
+import com.braintreegateway.exceptions.NotFoundException;
+import com.braintreegateway.util.NodeWrapper;
+import com.braintreegateway.util.NodeWrapperFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ResourceCollectionTest {
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    private NodeWrapper searchResults(int count, int pageSize) {
+        StringBuilder xml = new StringBuilder("<search-results><page-size>" + pageSize + "</page-size><ids type=\"array\">");
+        for (int i = 0; i < count; i++) {
+            xml.append("<item>").append(i).append("</item>");
+        }
+        xml.append("</ids></search-results>");
+        return NodeWrapperFactory.instance.create(xml.toString());
+    }
+
+    private static class SlowPager implements Pager<String> {
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        public List<String> getPage(List<String> ids) {
+            int now = concurrent.incrementAndGet();
+            synchronized (maxConcurrent) {
+                maxConcurrent.set(Math.max(maxConcurrent.get(), now));
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            return new ArrayList<String>(ids);
+        }
+    }
+
+    @Test
+    public void prefetchingPreservesOrder() {
+        SlowPager pager = new SlowPager();
+        ResourceCollection<String> collection = new ResourceCollection<String>(pager, searchResults(95, 10)).prefetch(3, executor);
+
+        List<String> results = new ArrayList<String>();
+        for (String id : collection) {
+            results.add(id);
+        }
+
+        assertEquals(collection.getIds(), results);
+        assertEquals(3, collection.getPrefetchDepth());
+        assertEquals(0, collection.getInFlightCount());
+        assertTrue(pager.maxConcurrent.get() > 1);
+        assertTrue(pager.maxConcurrent.get() <= 3);
+    }
+
+    @Test
+    public void withoutPrefetchPagesAreFetchedSerially() {
+        SlowPager pager = new SlowPager();
+        ResourceCollection<String> collection = new ResourceCollection<String>(pager, searchResults(30, 10));
+
+        List<String> results = new ArrayList<String>();
+        for (String id : collection) {
+            results.add(id);
+        }
+
+        assertEquals(collection.getIds(), results);
+        assertEquals(1, pager.maxConcurrent.get());
+    }
+
+    @Test
+    public void prefetchingFromAnExecutorThreadDoesNotWaitForThePool() throws Exception {
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        final ResourceCollection<String> collection = new ResourceCollection<String>(new SlowPager(), searchResults(30, 10)).prefetch(2, single);
+        try {
+            Future<Integer> count = single.submit(new Callable<Integer>() {
+                public Integer call() {
+                    int count = 0;
+                    for (String item : collection) {
+                        count++;
+                    }
+                    return count;
+                }
+            });
+
+            assertEquals(30, count.get(5, TimeUnit.SECONDS).intValue());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void prefetchingRethrowsPagerExceptions() {
+        ResourceCollection<String> collection = new ResourceCollection<String>(new Pager<String>() {
+            public List<String> getPage(List<String> ids) {
+                throw new NotFoundException();
+            }
+        }, searchResults(30, 10)).prefetch(2, executor);
+
+        collection.iterator().hasNext();
+    }
+
+    @Test
+    public void splitPartsCoverDisjointWholePages() throws Exception {
+        ResourceCollection<String> collection = new ResourceCollection<String>(new SlowPager(), searchResults(95, 10));
+
+        List<ResourceCollection<String>> parts = collection.split(4);
+        List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+        for (final ResourceCollection<String> part : parts) {
+            if (part != parts.get(parts.size() - 1)) {
+                assertEquals(0, part.getMaximumSize() % 10);
+            }
+            futures.add(executor.submit(new Callable<List<String>>() {
+                public List<String> call() {
+                    List<String> results = new ArrayList<String>();
+                    for (String id : part) {
+                        results.add(id);
+                    }
+                    return results;
+                }
+            }));
+        }
+
+        List<String> results = new ArrayList<String>();
+        for (Future<List<String>> future : futures) {
+            results.addAll(future.get());
+        }
+        assertEquals(4, parts.size());
+        assertEquals(collection.getIds(), results);
+    }
+
+    @Test
+    public void splitNeverProducesMorePartsThanPages() {
+        ResourceCollection<String> collection = new ResourceCollection<String>(new SlowPager(), searchResults(15, 10));
+
+        assertEquals(2, collection.split(8).size());
+        assertEquals(1, new ResourceCollection<String>(new SlowPager(), searchResults(0, 10)).split(3).size());
+    }
+}
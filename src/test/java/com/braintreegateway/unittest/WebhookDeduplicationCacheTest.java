@@ -0,0 +1,119 @@
+package com.braintreegateway.unittest;
+
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Environment;
+import com.braintreegateway.WebhookDeduplicationCache;
+import com.braintreegateway.WebhookNotification;
+import com.braintreegateway.WebhookNotificationGateway;
+import com.braintreegateway.WebhookTestingGateway;
+import com.braintreegateway.exceptions.DuplicateWebhookException;
+import com.braintreegateway.exceptions.InvalidSignatureException;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WebhookDeduplicationCacheTest {
+
+    @Test
+    public void recognizesPayloadsSeenBefore() {
+        WebhookDeduplicationCache cache = new WebhookDeduplicationCache(10, 1, TimeUnit.HOURS);
+
+        assertFalse(cache.contains("payload"));
+        assertTrue(cache.add("payload"));
+        assertTrue(cache.contains("payload"));
+        assertFalse(cache.add("payload"));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlySeenPayloads() {
+        WebhookDeduplicationCache cache = new WebhookDeduplicationCache(2, 1, TimeUnit.HOURS);
+        cache.add("first");
+        cache.add("second");
+        assertTrue(cache.contains("first"));
+
+        cache.add("third");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.contains("first"));
+        assertFalse(cache.contains("second"));
+        assertTrue(cache.contains("third"));
+    }
+
+    @Test
+    public void expiresPayloadsAfterTimeToLive() throws Exception {
+        WebhookDeduplicationCache cache = new WebhookDeduplicationCache(10, 20, TimeUnit.MILLISECONDS);
+        cache.add("payload");
+
+        Thread.sleep(50);
+
+        assertFalse(cache.contains("payload"));
+        assertTrue(cache.add("payload"));
+    }
+
+    @Test
+    public void forgottenPayloadsAreProcessedAgain() {
+        WebhookDeduplicationCache cache = new WebhookDeduplicationCache(10, 1, TimeUnit.HOURS);
+        cache.add("payload");
+
+        cache.forget("payload");
+
+        assertFalse(cache.contains("payload"));
+    }
+
+    @Test
+    public void gatewayRejectsRedeliveredWebhooks() {
+        Configuration configuration = new Configuration(Environment.DEVELOPMENT, "merchant_id", "public_key", "private_key");
+        WebhookDeduplicationCache cache = new WebhookDeduplicationCache(10, 1, TimeUnit.HOURS);
+        configuration.setWebhookDeduplicationCache(cache);
+        WebhookNotificationGateway gateway = new WebhookNotificationGateway(configuration);
+        HashMap<String, String> sample = new WebhookTestingGateway(configuration).sampleNotification(WebhookNotification.Kind.TRANSACTION_SETTLED, "txn");
+
+        WebhookNotification notification = gateway.parse(sample.get("bt_signature"), sample.get("bt_payload"));
+        assertEquals("txn", notification.getTransaction().getId());
+
+        try {
+            gateway.parse(sample.get("bt_signature"), sample.get("bt_payload"));
+            fail("expected the redelivered webhook to be rejected");
+        } catch (DuplicateWebhookException e) {
+            assertEquals(1, cache.getHitCount());
+        }
+    }
+
+    @Test
+    public void gatewayDoesNotRecordWebhooksWithInvalidSignatures() {
+        Configuration configuration = new Configuration(Environment.DEVELOPMENT, "merchant_id", "public_key", "private_key");
+        WebhookDeduplicationCache cache = new WebhookDeduplicationCache(10, 1, TimeUnit.HOURS);
+        configuration.setWebhookDeduplicationCache(cache);
+        WebhookNotificationGateway gateway = new WebhookNotificationGateway(configuration);
+        HashMap<String, String> sample = new WebhookTestingGateway(configuration).sampleNotification(WebhookNotification.Kind.CHECK, "check");
+
+        try {
+            gateway.parse("public_key|0000", sample.get("bt_payload"));
+            fail("expected the signature to be rejected");
+        } catch (InvalidSignatureException e) {
+            assertEquals(0, cache.size());
+        }
+        assertEquals(WebhookNotification.Kind.CHECK, gateway.parse(sample.get("bt_signature"), sample.get("bt_payload")).getKind());
+    }
+
+    @Test
+    public void gatewayVerifiesTheSignatureOfARedeliveryFirst() {
+        Configuration configuration = new Configuration(Environment.DEVELOPMENT, "merchant_id", "public_key", "private_key");
+        configuration.setWebhookDeduplicationCache(new WebhookDeduplicationCache(10, 1, TimeUnit.HOURS));
+        WebhookNotificationGateway gateway = new WebhookNotificationGateway(configuration);
+        HashMap<String, String> sample = new WebhookTestingGateway(configuration).sampleNotification(WebhookNotification.Kind.CHECK, "check");
+        gateway.parse(sample.get("bt_signature"), sample.get("bt_payload"));
+
+        try {
+            gateway.parse("public_key|0000", sample.get("bt_payload"));
+            fail("expected the forged signature to be rejected");
+        } catch (InvalidSignatureException e) {
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.braintreegateway.unittest;
+
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Environment;
+import com.braintreegateway.WebhookDeduplicationCache;
+import com.braintreegateway.WebhookFailureHandler;
+import com.braintreegateway.WebhookHandler;
+import com.braintreegateway.WebhookNotification;
+import com.braintreegateway.WebhookNotificationGateway;
+import com.braintreegateway.WebhookProcessor;
+import com.braintreegateway.WebhookTestingGateway;
+import com.braintreegateway.exceptions.InvalidSignatureException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WebhookProcessorTest {
+    private Configuration configuration;
+    private WebhookTestingGateway testing;
+
+    @Before
+    public void setup() {
+        configuration = new Configuration(Environment.DEVELOPMENT, "merchant_id", "public_key", "private_key");
+        testing = new WebhookTestingGateway(configuration);
+    }
+
+    @Test
+    public void dispatchesNotificationsByKind() throws Exception {
+        final List<String> disbursed = new CopyOnWriteArrayList<String>();
+        final List<WebhookNotification.Kind> others = new CopyOnWriteArrayList<WebhookNotification.Kind>();
+        WebhookProcessor processor = new WebhookProcessor(new WebhookNotificationGateway(configuration), 100, 4).
+            on(WebhookNotification.Kind.TRANSACTION_DISBURSED, new WebhookHandler() {
+                public void handle(WebhookNotification notification) {
+                    disbursed.add(notification.getTransaction().getId());
+                }
+            }).
+            onOtherKinds(new WebhookHandler() {
+                public void handle(WebhookNotification notification) {
+                    others.add(notification.getKind());
+                }
+            });
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(offer(processor, WebhookNotification.Kind.TRANSACTION_DISBURSED, "txn_" + i));
+        }
+        assertTrue(offer(processor, WebhookNotification.Kind.CHECK, "check"));
+        processor.shutdown();
+        assertTrue(processor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(20, disbursed.size());
+        assertTrue(disbursed.contains("txn_7"));
+        assertEquals(1, others.size());
+        assertEquals(WebhookNotification.Kind.CHECK, others.get(0));
+        assertEquals(21, processor.getProcessedCount());
+        assertEquals(0, processor.getFailedCount());
+    }
+
+    @Test
+    public void reportsInvalidSignatures() throws Exception {
+        final List<Throwable> failures = new CopyOnWriteArrayList<Throwable>();
+        WebhookProcessor processor = new WebhookProcessor(new WebhookNotificationGateway(configuration), 10, 1).
+            onFailure(new WebhookFailureHandler() {
+                public void onFailure(String signature, String payload, Throwable cause) {
+                    failures.add(cause);
+                }
+            });
+
+        HashMap<String, String> sample = testing.sampleNotification(WebhookNotification.Kind.CHECK, "check");
+        assertTrue(processor.offer("public_key|0000", sample.get("bt_payload")));
+        processor.shutdown();
+        assertTrue(processor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof InvalidSignatureException);
+        assertEquals(1, processor.getFailedCount());
+    }
+
+    @Test
+    public void refusesWebhooksWhenQueueIsFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        WebhookProcessor processor = new WebhookProcessor(new WebhookNotificationGateway(configuration), 4, 1).
+            onOtherKinds(new WebhookHandler() {
+                public void handle(WebhookNotification notification) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+        assertTrue(offer(processor, WebhookNotification.Kind.CHECK, "check"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (processor.getQueueSize() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertTrue(offer(processor, WebhookNotification.Kind.CHECK, "check"));
+        }
+
+        assertTrue(processor.isSaturated());
+        assertEquals(0, processor.getRemainingCapacity());
+        assertFalse(offer(processor, WebhookNotification.Kind.CHECK, "check"));
+        assertEquals(1, processor.getRejectedCount());
+
+        release.countDown();
+        processor.shutdown();
+        assertTrue(processor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(5, processor.getProcessedCount());
+    }
+
+    @Test
+    public void skipsRedeliveredWebhooks() throws Exception {
+        configuration.setWebhookDeduplicationCache(new WebhookDeduplicationCache(100, 1, TimeUnit.HOURS));
+        final List<String> settled = new CopyOnWriteArrayList<String>();
+        WebhookProcessor processor = new WebhookProcessor(new WebhookNotificationGateway(configuration), 10, 2).
+            on(WebhookNotification.Kind.TRANSACTION_SETTLED, new WebhookHandler() {
+                public void handle(WebhookNotification notification) {
+                    settled.add(notification.getTransaction().getId());
+                }
+            });
+
+        HashMap<String, String> sample = testing.sampleNotification(WebhookNotification.Kind.TRANSACTION_SETTLED, "txn");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(processor.offer(sample.get("bt_signature"), sample.get("bt_payload")));
+        }
+        processor.shutdown();
+        assertTrue(processor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, settled.size());
+        assertEquals(2, processor.getDuplicateCount());
+        assertEquals(0, processor.getFailedCount());
+    }
+
+    @Test
+    public void processesARedeliveryOfAWebhookWhoseHandlerFailed() throws Exception {
+        configuration.setWebhookDeduplicationCache(new WebhookDeduplicationCache(100, 1, TimeUnit.HOURS));
+        final List<String> settled = new CopyOnWriteArrayList<String>();
+        WebhookProcessor processor = new WebhookProcessor(new WebhookNotificationGateway(configuration), 10, 1).
+            on(WebhookNotification.Kind.TRANSACTION_SETTLED, new WebhookHandler() {
+                public void handle(WebhookNotification notification) {
+                    if (settled.isEmpty()) {
+                        settled.add("failed");
+                        throw new IllegalStateException("database unavailable");
+                    }
+                    settled.add(notification.getTransaction().getId());
+                }
+            }).
+            onFailure(new WebhookFailureHandler() {
+                public void onFailure(String signature, String payload, Throwable cause) {
+                }
+            });
+
+        HashMap<String, String> sample = testing.sampleNotification(WebhookNotification.Kind.TRANSACTION_SETTLED, "txn");
+        assertTrue(processor.offer(sample.get("bt_signature"), sample.get("bt_payload")));
+        assertTrue(processor.offer(sample.get("bt_signature"), sample.get("bt_payload")));
+        processor.shutdown();
+        assertTrue(processor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("failed", "txn"), settled);
+        assertEquals(1, processor.getFailedCount());
+        assertEquals(1, processor.getProcessedCount());
+        assertEquals(0, processor.getDuplicateCount());
+    }
+
+    @Test
+    public void handleReportsWhetherTheWebhookWasHandled() {
+        configuration.setWebhookDeduplicationCache(new WebhookDeduplicationCache(100, 1, TimeUnit.HOURS));
+        final List<String> settled = new CopyOnWriteArrayList<String>();
+        WebhookProcessor processor = new WebhookProcessor(new WebhookNotificationGateway(configuration), 10, 1).
+            on(WebhookNotification.Kind.TRANSACTION_SETTLED, new WebhookHandler() {
+                public void handle(WebhookNotification notification) {
+                    if (settled.isEmpty()) {
+                        settled.add("failed");
+                        throw new IllegalStateException("database unavailable");
+                    }
+                    settled.add(notification.getTransaction().getId());
+                }
+            }).
+            onFailure(new WebhookFailureHandler() {
+                public void onFailure(String signature, String payload, Throwable cause) {
+                }
+            });
+        HashMap<String, String> sample = testing.sampleNotification(WebhookNotification.Kind.TRANSACTION_SETTLED, "txn");
+
+        assertFalse(processor.handle(sample.get("bt_signature"), sample.get("bt_payload"), 5, TimeUnit.SECONDS));
+        assertTrue(processor.handle(sample.get("bt_signature"), sample.get("bt_payload"), 5, TimeUnit.SECONDS));
+        assertTrue(processor.handle(sample.get("bt_signature"), sample.get("bt_payload"), 5, TimeUnit.SECONDS));
+        assertFalse(processor.handle("public_key|0000", sample.get("bt_payload"), 5, TimeUnit.SECONDS));
+        processor.shutdown();
+
+        assertEquals(Arrays.asList("failed", "txn"), settled);
+        assertEquals(1, processor.getDuplicateCount());
+    }
+
+    private boolean offer(WebhookProcessor processor, WebhookNotification.Kind kind, String id) {
+        HashMap<String, String> sample = testing.sampleNotification(kind, id);
+        return processor.offer(sample.get("bt_signature"), sample.get("bt_payload"));
+    }
+}
@@ -0,0 +1,206 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Environment;
+import com.braintreegateway.exceptions.CircuitBreakerOpenException;
+import com.braintreegateway.exceptions.ServerException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    public void opensWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker("transactions", 10, 4, 0.5, 100, 1.0, 60000, 1);
+
+        record(breaker, FAST, false);
+        record(breaker, FAST, true);
+        record(breaker, FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        record(breaker, FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        try {
+            breaker.acquirePermission();
+            fail("expected the open breaker to fail fast");
+        } catch (CircuitBreakerOpenException e) {
+            assertEquals("transactions", e.getEndpointFamily());
+            assertEquals(1, breaker.getRejectedCount());
+        }
+    }
+
+    @Test
+    public void opensWhenSlowCallRateReachesThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker("search", 10, 2, 1.0, 100, 0.5, 60000, 1);
+
+        record(breaker, FAST, false);
+        record(breaker, SLOW, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate(), 0.001);
+        assertEquals(0.5, breaker.getSlowCallRate(), 0.001);
+    }
+
+    @Test
+    public void ratesOnlyCoverTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker("customers", 4, 4, 0.75, 100, 1.0, 60000, 1);
+
+        record(breaker, FAST, true);
+        record(breaker, FAST, true);
+        record(breaker, FAST, false);
+        record(breaker, FAST, false);
+        record(breaker, FAST, false);
+        record(breaker, FAST, false);
+
+        assertEquals(0.0, breaker.getFailureRate(), 0.001);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void closesAfterSuccessfulProbes() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(2);
+        Thread.sleep(30);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        long first = breaker.acquirePermission();
+        long second = breaker.acquirePermission();
+        try {
+            breaker.acquirePermission();
+            fail("expected only two probes to be let through");
+        } catch (CircuitBreakerOpenException e) {
+        }
+        breaker.record(first, FAST, false);
+        breaker.record(second, FAST, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate(), 0.001);
+    }
+
+    @Test
+    public void reopensWhenAProbeFails() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(2);
+        Thread.sleep(30);
+
+        long probe = breaker.acquirePermission();
+        breaker.record(probe, FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void ignoresCallsLetThroughBeforeTheStateChanged() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("transactions", 10, 1, 0.5, 100, 1.0, 20, 1);
+        long early = breaker.acquirePermission();
+        record(breaker, FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(30);
+
+        long probe = breaker.acquirePermission();
+        breaker.record(early, FAST, true);
+        breaker.releasePermission(early);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        try {
+            breaker.acquirePermission();
+            fail("expected the probe to still be taken");
+        } catch (CircuitBreakerOpenException e) {
+        }
+        breaker.record(probe, FAST, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void releasedProbesCanBeTakenAgain() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(1);
+        Thread.sleep(30);
+
+        breaker.releasePermission(breaker.acquirePermission());
+        long probe = breaker.acquirePermission();
+        breaker.record(probe, FAST, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void groupsUrlsByEndpointFamily() {
+        assertEquals("transactions", CircuitBreakerRegistry.endpointFamily("/merchants/m/transactions/abc/void"));
+        assertEquals("search", CircuitBreakerRegistry.endpointFamily("/merchants/m/transactions/advanced_search_ids"));
+        assertEquals("search", CircuitBreakerRegistry.endpointFamily("/merchants/m/customers/advanced_search"));
+        assertEquals("client_token", CircuitBreakerRegistry.endpointFamily("/merchants/m/client_token"));
+        assertEquals("payment_methods", CircuitBreakerRegistry.endpointFamily("/merchants/m/payment_methods/any/token?x=1"));
+        assertEquals("oauth", CircuitBreakerRegistry.endpointFamily("/oauth/access_tokens"));
+    }
+
+    @Test
+    public void httpFailsFastOnlyForTheFailingFamily() throws IOException {
+        final AtomicInteger transactionCalls = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/merchants/merchant_id/transactions", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                transactionCalls.incrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+            }
+        });
+        server.createContext("/merchants/merchant_id/customers", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = "<customer><id>c</id></customer>".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        try {
+            Environment environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+            Configuration configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+            CircuitBreakerRegistry registry = new CircuitBreakerRegistry(10, 2, 0.5, 10000, 1.0, 60000, 1);
+            configuration.setCircuitBreakerRegistry(registry);
+            Http http = new Http(configuration);
+
+            for (int i = 0; i < 2; i++) {
+                try {
+                    http.get("/merchants/merchant_id/transactions/t" + i);
+                    fail("expected the 500 to be thrown");
+                } catch (ServerException e) {
+                }
+            }
+            try {
+                http.get("/merchants/merchant_id/transactions/t2");
+                fail("expected the call to fail fast");
+            } catch (CircuitBreakerOpenException e) {
+                assertEquals(2, transactionCalls.get());
+            }
+
+            assertEquals("c", http.get("/merchants/merchant_id/customers/c").findString("id"));
+            assertEquals(CircuitBreaker.State.OPEN, registry.getState("transactions"));
+            assertEquals(CircuitBreaker.State.CLOSED, registry.getStates().get("customers"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private CircuitBreaker openBreaker(int halfOpenCalls) {
+        CircuitBreaker breaker = new CircuitBreaker("transactions", 10, 1, 0.5, 100, 1.0, 20, halfOpenCalls);
+        record(breaker, FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    private void record(CircuitBreaker breaker, long duration, boolean failed) {
+        breaker.record(breaker.acquirePermission(), duration, failed);
+    }
+}
@@ -0,0 +1,235 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Environment;
+import com.braintreegateway.exceptions.ConcurrencyLimitExceededException;
+import com.braintreegateway.exceptions.TooManyRequestsException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void shrinksOnOverloadAndGrowsBackWhenHealthy() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 100, 0.5, 2.0, 0, 0);
+
+        limiter.acquire();
+        limiter.release(1000, true);
+        assertEquals(4, limiter.getLimit());
+        assertEquals(1, limiter.getOverloadCount());
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                limiter.acquire();
+            }
+            while (limiter.getInFlight() > 0) {
+                limiter.release(1000, false);
+            }
+        }
+        assertTrue(limiter.getLimit() > 4);
+    }
+
+    @Test
+    public void doesNotGrowWhileMostlyIdle() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 100, 0.5, 2.0, 0, 0);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(1000, false);
+        }
+
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    public void shrinksOnLatencyGrowth() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 100, 0.5, 2.0, 0, 0);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(1000, false);
+        }
+
+        for (int i = 0; i < 10 && limiter.getOverloadCount() == 0; i++) {
+            limiter.acquire();
+            limiter.release(5000, false);
+        }
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(1, limiter.getOverloadCount());
+    }
+
+    @Test
+    public void doesNotShrinkOnASingleSlowResponse() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 100, 0.5, 2.0, 0, 0);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(1000, false);
+        }
+
+        limiter.acquire();
+        limiter.release(5000, false);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(1000, false);
+        }
+
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getOverloadCount());
+    }
+
+    @Test
+    public void toleratesNormalLatencySpread() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 100, 0.5, 2.0, 0, 0);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 500; i++) {
+            limiter.acquire();
+            limiter.release(i % 10 == 9 ? 3000 : 500 + random.nextInt(1000), false);
+        }
+
+        assertEquals(0, limiter.getOverloadCount());
+    }
+
+    @Test
+    public void shrinksOncePerBurstOfOverloadedResponses() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(16, 1, 100, 0.5, 2.0, 0, 0);
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < 6; i++) {
+            limiter.release(TimeUnit.SECONDS.toNanos(1), true);
+        }
+        assertEquals(8, limiter.getLimit());
+        assertEquals(1, limiter.getOverloadCount());
+
+        Thread.sleep(5);
+        limiter.acquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1), true);
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(2, limiter.getOverloadCount());
+    }
+
+    @Test
+    public void comparesLatencyWithinEachEndpointFamily() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 100, 0.5, 2.0, 0, 0);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release("customers", TimeUnit.MILLISECONDS.toNanos(60), false);
+            limiter.acquire();
+            limiter.release("transactions", TimeUnit.MILLISECONDS.toNanos(400), false);
+        }
+
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getOverloadCount());
+    }
+
+    @Test
+    public void slowResponsesMoveTheBaseline() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 100, 0.5, 2.0, 0, 0);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release("transactions", 1000, false);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release("transactions", 5000, false);
+        }
+        long overloads = limiter.getOverloadCount();
+        limiter.acquire();
+        limiter.release("transactions", 5000, false);
+
+        assertEquals(overloads, limiter.getOverloadCount());
+    }
+
+    @Test
+    public void shedsRequestsOverTheLimitWhenTheQueueIsFull() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1, 0.5, 2.0, 0, 1000);
+        limiter.acquire();
+        try {
+            limiter.acquire();
+            fail("expected the request to be shed");
+        } catch (ConcurrencyLimitExceededException e) {
+            assertEquals(1, limiter.getRejectedCount());
+            assertEquals(1, limiter.getInFlight());
+        }
+    }
+
+    @Test
+    public void queuedRequestsTimeOut() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1, 0.5, 2.0, 1, 50);
+        limiter.acquire();
+        long start = System.currentTimeMillis();
+        try {
+            limiter.acquire();
+            fail("expected the queued request to time out");
+        } catch (ConcurrencyLimitExceededException e) {
+            assertTrue(System.currentTimeMillis() - start >= 40);
+            assertEquals(0, limiter.getQueueDepth());
+            assertEquals(1, limiter.getRejectedCount());
+        }
+    }
+
+    @Test
+    public void queuedRequestsTakeReleasedSlots() throws InterruptedException {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1, 0.5, 2.0, 1, 5000);
+        final CountDownLatch acquired = new CountDownLatch(1);
+        limiter.acquire();
+        Thread waiter = new Thread(new Runnable() {
+            public void run() {
+                limiter.acquire();
+                acquired.countDown();
+            }
+        });
+        waiter.start();
+        while (limiter.getQueueDepth() == 0) {
+            Thread.sleep(5);
+        }
+
+        limiter.release(1000, false);
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueueDepth());
+    }
+
+    @Test
+    public void httpShrinksTheLimitOnTooManyRequests() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/throttled", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(429, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        try {
+            Environment environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+            Configuration configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 100, 0.5, 2.0, 0, 0);
+            configuration.setConcurrencyLimiter(limiter);
+
+            try {
+                new Http(configuration).get("/throttled");
+                fail("expected the 429 to be thrown");
+            } catch (TooManyRequestsException e) {
+                assertEquals(4, limiter.getLimit());
+                assertEquals(0, limiter.getInFlight());
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -22,4 +22,11 @@ public class CryptoTest {
     public void secureCompareWithLongerNotEqualStrings() {
         assertFalse(new Crypto().secureCompare("a_string", "a_string_that_is_longer"));
     }
+
+    @Test
+    public void secureCompareWithBytes() {
+        assertTrue(new Crypto().secureCompare(new byte[] { 1, 2, 3 }, new byte[] { 1, 2, 3 }));
+        assertFalse(new Crypto().secureCompare(new byte[] { 1, 2, 3 }, new byte[] { 1, 2, 4 }));
+        assertFalse(new Crypto().secureCompare(new byte[] { 1, 2, 3 }, new byte[] { 1, 2 }));
+    }
 }
@@ -0,0 +1,174 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class HedgePolicyTest {
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private AtomicInteger hits;
+    private Configuration configuration;
+
+    @Before
+    public void startServer() throws IOException {
+        hits = new AtomicInteger();
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/first-is-slow", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                int hit = hits.incrementAndGet();
+                if (hit == 1) {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                byte[] body = ("<hit>" + hit + "</hit>").getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.createContext("/fast", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = "<ok/>".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        Environment environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+        configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+        configuration.setConnectionPoolEnabled(true);
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void hedgesSlowGetsOnAnotherConnection() {
+        Http http = new Http(configuration);
+        http.get("/fast");
+        HedgePolicy hedging = new HedgePolicy(0.95, 200, 200, 1.0);
+        configuration.setHedgePolicy(hedging);
+        long start = System.currentTimeMillis();
+
+        assertEquals("2", http.get("/first-is-slow").findString("."));
+
+        assertTrue(System.currentTimeMillis() - start < 1500);
+        assertEquals(1, hedging.getHedgeCount());
+        assertEquals(1, hedging.getHedgeWinCount());
+        assertEquals(2, ((PooledHttpTransport) configuration.getHttpTransport()).getStatistics().getCreated());
+        hedging.shutdown();
+    }
+
+    @Test
+    public void doesNotHedgeOnceTheBudgetIsUsedUp() {
+        HedgePolicy hedging = new HedgePolicy(0.95, 50, 50, 0.0);
+        configuration.setHedgePolicy(hedging);
+
+        assertEquals("1", new Http(configuration).get("/first-is-slow").findString("."));
+
+        assertEquals(0, hedging.getHedgeCount());
+        assertEquals(1, hedging.getBudgetExhaustedCount());
+        assertEquals(1, hits.get());
+        hedging.shutdown();
+    }
+
+    @Test
+    public void cancelledHedgesDoNotFailCircuitBreakerProbes() throws InterruptedException {
+        server.createContext("/merchants/merchant_id/customers/slow", sleepingHandler(300));
+        server.createContext("/merchants/merchant_id/transactions/slow", sleepingHandler(600));
+        configuration.setMaxConnectionsPerHost(1);
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry(10, 1, 0.5, 10000, 1.0, 50, 2);
+        configuration.setCircuitBreakerRegistry(registry);
+        CircuitBreaker breaker = registry.forUrl("/merchants/merchant_id/customers/slow");
+        breaker.record(breaker.acquirePermission(), 0, true);
+        Thread.sleep(60);
+        HedgePolicy hedging = new HedgePolicy(0.95, 100, 100, 1.0);
+        configuration.setHedgePolicy(hedging);
+        final Http http = new Http(configuration);
+        Thread holder = new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                http.post("/merchants/merchant_id/transactions/slow");
+            }
+        };
+        holder.start();
+
+        http.get("/merchants/merchant_id/customers/slow");
+        holder.join();
+
+        assertEquals(1, hedging.getHedgeCount());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.record(breaker.acquirePermission(), 0, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        hedging.shutdown();
+    }
+
+    @Test
+    public void delayFollowsThePercentileOfRecentLatencies() {
+        HedgePolicy hedging = new HedgePolicy(0.9, 5, 1000, 0.1);
+        assertEquals(1000, hedging.getDelay());
+
+        for (int i = 1; i <= 32; i++) {
+            hedging.record(i <= 28 ? 10 : 500);
+        }
+        assertEquals(500, hedging.getDelay());
+
+        for (int i = 0; i < 256; i++) {
+            hedging.record(i % 10 == 0 ? 2000 : 1);
+        }
+        assertEquals(1000, hedging.getDelay());
+
+        for (int i = 0; i < 256; i++) {
+            hedging.record(1);
+        }
+        assertEquals(5, hedging.getDelay());
+        hedging.shutdown();
+    }
+
+    private static HttpHandler sleepingHandler(final long millis) {
+        return new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = "<ok/>".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        };
+    }
+}
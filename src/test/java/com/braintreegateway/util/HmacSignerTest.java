@@ -0,0 +1,64 @@
+package com.braintreegateway.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class HmacSignerTest {
+
+    @Test
+    public void hexSignMatchesSha1Hasher() {
+        assertEquals("d503d7a1a6adba1e6474e9ff2c4167f9dfdf4247", HmacSigner.sha1("secretKey").hexSign("hello world"));
+    }
+
+    @Test
+    public void hexSignMatchesSha256Hasher() {
+        assertEquals(new Sha256Hasher().hmacHash("secret-key", "hello world"), HmacSigner.sha256("secret-key").hexSign("hello world"));
+    }
+
+    @Test
+    public void verifiesMatchingSignature() {
+        HmacSigner signer = HmacSigner.sha1("secretKey");
+        assertTrue(signer.verify("hello world", "d503d7a1a6adba1e6474e9ff2c4167f9dfdf4247"));
+    }
+
+    @Test
+    public void rejectsModifiedOrMalformedSignatures() {
+        HmacSigner signer = HmacSigner.sha1("secretKey");
+        assertFalse(signer.verify("hello world", "d503d7a1a6adba1e6474e9ff2c4167f9dfdf4248"));
+        assertFalse(signer.verify("hello world", "d503d7a1a6adba1e6474e9ff2c4167f9dfdf424"));
+        assertFalse(signer.verify("hello world", "D503D7A1A6ADBA1E6474E9FF2C4167F9DFDF4247"));
+        assertFalse(signer.verify("hello world", "zz03d7a1a6adba1e6474e9ff2c4167f9dfdf4247"));
+        assertFalse(signer.verify("hello world", null));
+        assertFalse(signer.verify("hello world!", "d503d7a1a6adba1e6474e9ff2c4167f9dfdf4247"));
+    }
+
+    @Test
+    public void signsConcurrently() throws Exception {
+        final HmacSigner signer = HmacSigner.sha1("secretKey");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] results = new Future<?>[8];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = executor.submit(new Callable<Boolean>() {
+                    public Boolean call() {
+                        for (int j = 0; j < 500; j++) {
+                            assertEquals("d503d7a1a6adba1e6474e9ff2c4167f9dfdf4247", signer.hexSign("hello world"));
+                        }
+                        return true;
+                    }
+                });
+            }
+            for (Future<?> result : results) {
+                assertEquals(Boolean.TRUE, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
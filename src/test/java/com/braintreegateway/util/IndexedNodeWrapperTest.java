@@ -0,0 +1,89 @@
+package com.braintreegateway.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IndexedNodeWrapperTest {
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<customer>\n" +
+            "  <id>884969</id>\n" +
+            "  <first-name nil=\"true\"></first-name>\n" +
+            "  <custom-fields>\n" +
+            "  </custom-fields>\n" +
+            "  <credit-cards type=\"array\">\n" +
+            "    <credit-card><token>a</token><billing-address><zip>60606</zip></billing-address></credit-card>\n" +
+            "    <credit-card><token>b</token></credit-card>\n" +
+            "  </credit-cards>\n" +
+            "  <notes>one &amp; two</notes>\n" +
+            "</customer>";
+
+    @Test
+    public void matchesSimpleNodeWrapper() {
+        NodeWrapper simple = SimpleNodeWrapper.parse(XML);
+        NodeWrapper indexed = IndexedNodeWrapper.parse(XML);
+
+        assertEquals(simple.toString(), indexed.toString());
+        assertEquals(simple.getFormParameters(), indexed.getFormParameters());
+        for (String path : new String[] {"id", "./id", "first-name", "notes", "missing", "credit-cards/credit-card/token",
+                "credit-cards/*/token", "credit-cards/credit-card/billing-address/zip", "credit-cards/credit-card/missing", "."}) {
+            assertEquals(path, simple.findString(path), indexed.findString(path));
+        }
+        assertEquals(toStrings(simple.findAll("credit-cards/credit-card")), toStrings(indexed.findAll("credit-cards/credit-card")));
+        assertEquals(toStrings(simple.findAll("*/*/token")), toStrings(indexed.findAll("*/*/token")));
+        assertTrue(indexed.findFirst("first-name").isBlank());
+        assertFalse(indexed.findFirst("id").isBlank());
+    }
+
+    @Test
+    public void findFirstFollowsOnlyTheFirstMatch() {
+        NodeWrapper node = IndexedNodeWrapper.parse("<a><b><c>1</c></b><b><d>2</d></b></a>");
+
+        assertEquals("1", node.findString("b/c"));
+        assertNull(node.findString("b/d"));
+        assertEquals(2, node.findAll("b").size());
+    }
+
+    @Test
+    public void indexesWideNodes() {
+        StringBuilder xml = new StringBuilder("<items type=\"array\">");
+        for (int i = 0; i < 50; i++) {
+            xml.append("<item><id>").append(i).append("</id></item><other>").append(i).append("</other>");
+        }
+        xml.append("</items>");
+        NodeWrapper node = IndexedNodeWrapper.parse(xml.toString());
+
+        List<NodeWrapper> items = node.findAll("item");
+        assertEquals(50, items.size());
+        assertEquals("49", items.get(49).findString("id"));
+        assertEquals("0", node.findString("other"));
+        assertNull(node.findString("missing"));
+    }
+
+    @Test
+    public void findAllReturnsMutableList() {
+        List<NodeWrapper> nodes = IndexedNodeWrapper.parse("<a/>").findAll("missing");
+
+        nodes.add(IndexedNodeWrapper.parse("<b/>"));
+        assertEquals(1, nodes.size());
+    }
+
+    @Test
+    public void parsesFromStream() throws Exception {
+        NodeWrapper node = IndexedNodeWrapper.parse(new ByteArrayInputStream(XML.getBytes("UTF-8")));
+
+        assertEquals(SimpleNodeWrapper.parse(XML).toString(), node.toString());
+    }
+
+    private List<String> toStrings(List<NodeWrapper> nodes) {
+        List<String> strings = new ArrayList<String>();
+        for (NodeWrapper node : nodes) {
+            strings.add(node.toString());
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,329 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Environment;
+import com.braintreegateway.TransactionRequest;
+import com.braintreegateway.exceptions.TimeoutException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+public class PooledHttpTransportTest {
+    private HttpServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/fixed", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = "<ok>fixed</ok>".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.createContext("/chunked", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(201, 0);
+                OutputStream out = exchange.getResponseBody();
+                out.write("<ok>".getBytes("UTF-8"));
+                out.flush();
+                out.write("chunked</ok>".getBytes("UTF-8"));
+                out.close();
+            }
+        });
+        server.createContext("/empty", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = " \n".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.createContext("/echo", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                String transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+                String body = StringUtils.inputStreamToString(exchange.getRequestBody());
+                byte[] response = ("<echo><transfer-encoding>" + transferEncoding + "</transfer-encoding>" + body + "</echo>").getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, response.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(response);
+                out.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void reusesConnectionForSubsequentRequests() throws IOException {
+        PooledHttpTransport transport = new PooledHttpTransport(2, 30000, 2000, 1000);
+
+        assertEquals("<ok>fixed</ok>", execute(transport, "/fixed"));
+        assertEquals("<ok>fixed</ok>", execute(transport, "/fixed"));
+
+        ConnectionPoolStatistics statistics = transport.getStatistics();
+        assertEquals(1, statistics.getCreated());
+        assertEquals(1, statistics.getReused());
+        assertEquals(1, statistics.getIdle());
+        assertEquals(0, statistics.getLeased());
+    }
+
+    @Test
+    public void readsChunkedResponses() throws IOException {
+        PooledHttpTransport transport = new PooledHttpTransport(2, 30000, 2000, 1000);
+
+        assertEquals("<ok>chunked</ok>", execute(transport, "/chunked"));
+        assertEquals("<ok>chunked</ok>", execute(transport, "/chunked"));
+
+        assertEquals(1, transport.getStatistics().getCreated());
+    }
+
+    @Test
+    public void evictsConnectionsIdleLongerThanIdleTimeout() throws Exception {
+        PooledHttpTransport transport = new PooledHttpTransport(2, 50, 10, 1000);
+
+        execute(transport, "/fixed");
+        Thread.sleep(100);
+        execute(transport, "/fixed");
+
+        ConnectionPoolStatistics statistics = transport.getStatistics();
+        assertEquals(2, statistics.getCreated());
+        assertEquals(1, statistics.getEvicted());
+    }
+
+    @Test
+    public void timesOutWhenHostIsAtMaxConnections() throws IOException {
+        PooledHttpTransport transport = new PooledHttpTransport(1, 30000, 2000, 50);
+        HttpTransportResponse held = transport.execute(request("/fixed"));
+        try {
+            transport.execute(request("/fixed"));
+            fail("expected the second request to time out waiting for a connection");
+        } catch (TimeoutException e) {
+            assertEquals(1, transport.getStatistics().getLeased());
+        } finally {
+            held.close();
+        }
+        assertEquals(0, transport.getStatistics().getLeased());
+    }
+
+    @Test
+    public void shutdownClosesIdleConnections() throws IOException {
+        PooledHttpTransport transport = new PooledHttpTransport(2, 30000, 2000, 1000);
+        execute(transport, "/fixed");
+
+        transport.shutdown();
+
+        assertEquals(0, transport.getStatistics().getIdle());
+    }
+
+    @Test
+    public void httpUsesPooledTransportWhenEnabled() {
+        Environment environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+        Configuration configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+        configuration.setConnectionPoolEnabled(true);
+        Http http = new Http(configuration);
+
+        assertEquals("fixed", http.get("/fixed").findString("."));
+        assertEquals("chunked", http.get("/chunked").findString("."));
+
+        ConnectionPoolStatistics statistics = ((PooledHttpTransport) configuration.getHttpTransport()).getStatistics();
+        assertEquals(1, statistics.getCreated());
+        assertEquals(1, statistics.getReused());
+    }
+
+    @Test
+    public void httpUsesUrlConnectionTransportByDefault() {
+        Environment environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+        Configuration configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+        Http http = new Http(configuration);
+
+        assertEquals("fixed", http.get("/fixed").findString("."));
+        assertTrue(configuration.getHttpTransport() instanceof UrlConnectionTransport);
+    }
+
+    @Test
+    public void httpReturnsNullForBlankBody() {
+        Environment environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+        Configuration configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+        configuration.setConnectionPoolEnabled(true);
+        Http http = new Http(configuration);
+
+        assertNull(http.get("/empty"));
+        assertEquals("fixed", http.get("/fixed").findString("."));
+        assertEquals(1, ((PooledHttpTransport) configuration.getHttpTransport()).getStatistics().getCreated());
+    }
+
+    @Test
+    public void writesChunkedRequestBodies() throws IOException {
+        PooledHttpTransport transport = new PooledHttpTransport(2, 30000, 2000, 1000);
+        HttpTransportRequest request = request("POST", "/echo");
+        final byte[] body = "<body>streamed</body>".getBytes("UTF-8");
+        request.setBody(new HttpRequestBody() {
+            public long getContentLength() {
+                return -1;
+            }
+
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(body, 0, 6);
+                out.write(body, 6, body.length - 6);
+            }
+        });
+
+        assertEquals("<echo><transfer-encoding>chunked</transfer-encoding><body>streamed</body></echo>", execute(transport, request));
+        assertEquals("<ok>fixed</ok>", execute(transport, "/fixed"));
+        assertEquals(1, transport.getStatistics().getCreated());
+    }
+
+    @Test
+    public void httpStreamsRequestXmlWhenChunkedRequestsAreEnabled() {
+        Environment environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+        Configuration configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+        configuration.setConnectionPoolEnabled(true);
+        configuration.setChunkedRequestsEnabled(true);
+        Http http = new Http(configuration);
+
+        NodeWrapper echo = http.post("/echo", new TransactionRequest().amount(new BigDecimal("1.00")).orderId("a&b"));
+
+        assertEquals("chunked", echo.findString("transfer-encoding"));
+        assertEquals("a&b", echo.findString("transaction/orderId"));
+    }
+
+    @Test
+    public void httpSendsRequestXmlWithContentLengthByDefault() {
+        Environment environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+        Configuration configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+        Http http = new Http(configuration);
+
+        NodeWrapper echo = http.post("/echo", new TransactionRequest().amount(new BigDecimal("1.00")));
+
+        assertEquals("null", echo.findString("transfer-encoding"));
+        assertEquals("1.00", echo.findString("transaction/amount"));
+    }
+
+    @Test
+    public void resendsOnNewConnectionWhenServerClosedAnIdleOne() throws Exception {
+        ServerSocket closingServer = startClosingServer();
+        try {
+            PooledHttpTransport transport = new PooledHttpTransport(2, 30000, 60000, 1000);
+            URL url = new URL("http://127.0.0.1:" + closingServer.getLocalPort() + "/fixed");
+            HttpTransportRequest first = new HttpTransportRequest("GET", url);
+            first.setReadTimeout(5000);
+
+            assertEquals("<ok/>", execute(transport, first).trim());
+            Thread.sleep(50);
+            HttpTransportRequest second = new HttpTransportRequest("GET", url);
+            second.setReadTimeout(5000);
+            assertEquals("<ok/>", execute(transport, second).trim());
+
+            ConnectionPoolStatistics statistics = transport.getStatistics();
+            assertEquals(2, statistics.getCreated());
+            assertEquals(1, statistics.getInvalidated());
+        } finally {
+            closingServer.close();
+        }
+    }
+
+    @Test
+    public void doesNotResendAPostWhenServerClosedAnIdleConnection() throws Exception {
+        ServerSocket closingServer = startClosingServer();
+        try {
+            PooledHttpTransport transport = new PooledHttpTransport(2, 30000, 60000, 1000);
+            URL url = new URL("http://127.0.0.1:" + closingServer.getLocalPort() + "/fixed");
+            HttpTransportRequest first = new HttpTransportRequest("POST", url);
+            first.setReadTimeout(5000);
+            first.setBody("<sale/>".getBytes("UTF-8"));
+
+            assertEquals("<ok/>", execute(transport, first).trim());
+            Thread.sleep(50);
+            HttpTransportRequest second = new HttpTransportRequest("POST", url);
+            second.setReadTimeout(5000);
+            second.setBody("<sale/>".getBytes("UTF-8"));
+            try {
+                execute(transport, second);
+                fail("expected the POST on the closed connection to fail");
+            } catch (IOException e) {
+                assertEquals(1, transport.getStatistics().getCreated());
+            }
+        } finally {
+            closingServer.close();
+        }
+    }
+
+    /**
+     * Starts a server that answers one request per connection and then closes it.
+     */
+    private ServerSocket startClosingServer() throws IOException {
+        final ServerSocket closingServer = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        Thread acceptor = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    while (true) {
+                        Socket socket = closingServer.accept();
+                        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "ISO-8859-1"));
+                        String line = in.readLine();
+                        while (line != null && line.length() > 0) {
+                            line = in.readLine();
+                        }
+                        OutputStream out = socket.getOutputStream();
+                        out.write("HTTP/1.1 200 OK\r\nContent-Length: 9\r\n\r\n<ok/>\n\n\n\n".getBytes("ISO-8859-1"));
+                        out.flush();
+                        socket.close();
+                    }
+                } catch (IOException e) {
+                    // server stopped
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return closingServer;
+    }
+
+    private String execute(HttpTransport transport, String path) throws IOException {
+        return execute(transport, request(path));
+    }
+
+    private String execute(HttpTransport transport, HttpTransportRequest request) throws IOException {
+        HttpTransportResponse response = transport.execute(request);
+        try {
+            return StringUtils.inputStreamToString(response.getBody());
+        } finally {
+            response.close();
+        }
+    }
+
+    private HttpTransportRequest request(String path) throws IOException {
+        return request("GET", path);
+    }
+
+    private HttpTransportRequest request(String method, String path) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        HttpTransportRequest request = new HttpTransportRequest(method, url);
+        request.setHeader("Accept", "application/xml");
+        request.setReadTimeout(5000);
+        return request;
+    }
+}
@@ -0,0 +1,156 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Customer;
+import com.braintreegateway.CustomerGateway;
+import com.braintreegateway.Environment;
+import com.braintreegateway.exceptions.NotFoundException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RequestCoalescerTest {
+    private static final String URL = "/merchants/merchant_id/customers/cust";
+    private static final int CALLERS = 8;
+
+    private Http http;
+    private CountDownLatch started;
+    private CountDownLatch release;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        http = Mockito.mock(Http.class);
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @Test
+    public void concurrentCallersShareOneRequest() throws Exception {
+        final NodeWrapper node = NodeWrapperFactory.instance.create("<customer><id>cust</id></customer>");
+        Mockito.when(http.get(URL)).thenAnswer(blockingAnswer(node, null));
+        final RequestCoalescer coalescer = new RequestCoalescer();
+
+        List<Future<NodeWrapper>> results = submitCallers(coalescer);
+
+        for (Future<NodeWrapper> result : results) {
+            assertSame(node, result.get(5, TimeUnit.SECONDS));
+        }
+        Mockito.verify(http, Mockito.times(1)).get(URL);
+        assertEquals(1, coalescer.getRequestCount());
+        assertEquals(CALLERS - 1, coalescer.getCoalescedCount());
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void concurrentCallersShareFailure() throws Exception {
+        Mockito.when(http.get(URL)).thenAnswer(blockingAnswer(null, new NotFoundException()));
+        RequestCoalescer coalescer = new RequestCoalescer();
+
+        List<Future<NodeWrapper>> results = submitCallers(coalescer);
+
+        for (Future<NodeWrapper> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail("expected the shared request's exception");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof NotFoundException);
+            }
+        }
+        Mockito.verify(http, Mockito.times(1)).get(URL);
+    }
+
+    @Test
+    public void laterCallersMakeNewRequest() {
+        Mockito.when(http.get(URL)).thenReturn(NodeWrapperFactory.instance.create("<customer><id>cust</id></customer>"));
+        RequestCoalescer coalescer = new RequestCoalescer();
+
+        coalescer.get(http, URL);
+        coalescer.get(http, URL);
+
+        Mockito.verify(http, Mockito.times(2)).get(URL);
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void gatewayFindsShareRequestButNotCustomers() throws Exception {
+        final NodeWrapper node = NodeWrapperFactory.instance.create("<customer><id>cust</id><first-name>Jane</first-name></customer>");
+        Mockito.when(http.get(URL)).thenAnswer(blockingAnswer(node, null));
+        Configuration configuration = new Configuration(Environment.DEVELOPMENT, "merchant_id", "public_key", "private_key");
+        configuration.setRequestCoalescer(new RequestCoalescer());
+        final CustomerGateway gateway = new CustomerGateway(http, configuration);
+
+        Future<Customer> first = executor.submit(new Callable<Customer>() {
+            public Customer call() {
+                return gateway.find("cust");
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Customer> second = executor.submit(new Callable<Customer>() {
+            public Customer call() {
+                return gateway.find("cust");
+            }
+        });
+        awaitCoalesced(configuration.getRequestCoalescer(), 1);
+        release.countDown();
+
+        assertEquals("Jane", first.get(5, TimeUnit.SECONDS).getFirstName());
+        assertEquals("Jane", second.get(5, TimeUnit.SECONDS).getFirstName());
+        assertNotSame(first.get(), second.get());
+        Mockito.verify(http, Mockito.times(1)).get(URL);
+        executor.shutdown();
+    }
+
+    private List<Future<NodeWrapper>> submitCallers(final RequestCoalescer coalescer) throws Exception {
+        List<Future<NodeWrapper>> results = new ArrayList<Future<NodeWrapper>>();
+        Callable<NodeWrapper> call = new Callable<NodeWrapper>() {
+            public NodeWrapper call() {
+                return coalescer.get(http, URL);
+            }
+        };
+        results.add(executor.submit(call));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        awaitCoalesced(coalescer, CALLERS - 1);
+        release.countDown();
+        executor.shutdown();
+        return results;
+    }
+
+    private void awaitCoalesced(RequestCoalescer coalescer, int callers) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (coalescer.getCoalescedCount() < callers && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private Answer<NodeWrapper> blockingAnswer(final NodeWrapper node, final RuntimeException failure) {
+        return new Answer<NodeWrapper>() {
+            public NodeWrapper answer(InvocationOnMock invocation) throws Throwable {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                if (failure != null) {
+                    throw failure;
+                }
+                return node;
+            }
+        };
+    }
+}
@@ -0,0 +1,224 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.BraintreeGateway;
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Environment;
+import com.braintreegateway.GatewayFuture;
+import com.braintreegateway.RequestOptions;
+import com.braintreegateway.ResourceCollection;
+import com.braintreegateway.Transaction;
+import com.braintreegateway.TransactionSearchRequest;
+import com.braintreegateway.exceptions.DeadlineExceededException;
+import com.braintreegateway.exceptions.DownForMaintenanceException;
+import com.braintreegateway.exceptions.TimeoutException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RequestDeadlineTest {
+    private static final String TRANSACTION_XML =
+        "<transaction><id>abc123</id><status>settled</status><type>sale</type><amount>10.00</amount>" +
+        "<customer><id>cust</id></customer><billing></billing><shipping></shipping>" +
+        "<credit-card></credit-card><status-history type=\"array\"></status-history>" +
+        "<subscription></subscription><descriptor></descriptor><disbursement-details></disbursement-details>" +
+        "</transaction>";
+    private static final String TRANSACTIONS_XML = "<credit-card-transactions type=\"collection\">" +
+        TRANSACTION_XML + "</credit-card-transactions>";
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private AtomicInteger hits;
+    private Environment environment;
+    private Configuration configuration;
+
+    @Before
+    public void startServer() throws IOException {
+        hits = new AtomicInteger();
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/slow", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                hits.incrementAndGet();
+                sleep(2000);
+                respond(exchange, "<ok/>");
+            }
+        });
+        server.createContext("/down", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                hits.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+            }
+        });
+        server.createContext("/merchants/merchant_id/transactions/advanced_search_ids", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getRequestBody().close();
+                respond(exchange, "<search-results><page-size>1</page-size><ids type=\"array\"><item>abc123</item><item>def456</item><item>ghi789</item></ids></search-results>");
+            }
+        });
+        server.createContext("/merchants/merchant_id/transactions/advanced_search", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getRequestBody().close();
+                hits.incrementAndGet();
+                sleep(200);
+                respond(exchange, TRANSACTIONS_XML);
+            }
+        });
+        server.createContext("/merchants/merchant_id/transactions/slow", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                sleep(2000);
+                respond(exchange, TRANSACTION_XML);
+            }
+        });
+        server.createContext("/merchants/merchant_id/transactions/abc123", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                respond(exchange, TRANSACTION_XML);
+            }
+        });
+        server.start();
+        environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+        configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void failsWithoutSendingOnceTheDeadlineHasPassed() {
+        Calendar deadline = Calendar.getInstance();
+        deadline.add(Calendar.SECOND, -1);
+        try {
+            new Http(configuration, new RequestOptions().deadline(deadline)).get("/slow");
+            fail("expected the deadline to be exceeded");
+        } catch (DeadlineExceededException e) {
+            assertEquals(0, hits.get());
+        }
+    }
+
+    @Test
+    public void readTimeoutIsCutToTheTimeLeft() {
+        long start = System.currentTimeMillis();
+        try {
+            new Http(configuration, new RequestOptions().timeout(200)).get("/slow");
+            fail("expected the read to time out");
+        } catch (TimeoutException e) {
+            assertTrue(System.currentTimeMillis() - start < 1500);
+        }
+    }
+
+    @Test
+    public void waitForAPooledConnectionIsCutToTheTimeLeft() throws InterruptedException {
+        configuration.setConnectionPoolEnabled(true);
+        configuration.setMaxConnectionsPerHost(1);
+        final Http http = new Http(configuration);
+        Thread holder = new Thread() {
+            public void run() {
+                http.get("/slow");
+            }
+        };
+        holder.start();
+        Thread.sleep(200);
+        long start = System.currentTimeMillis();
+        try {
+            new Http(configuration, new RequestOptions().timeout(300)).get("/merchants/merchant_id/transactions/abc123");
+            fail("expected the wait for a connection to time out");
+        } catch (TimeoutException e) {
+            assertTrue(System.currentTimeMillis() - start < 1500);
+        } finally {
+            holder.join();
+        }
+    }
+
+    @Test
+    public void doesNotRetryPastTheDeadline() {
+        configuration.setRetryPolicy(new RetryPolicy(3, 1, 5000, new RetryBudget(10, 0)));
+        try {
+            new Http(configuration, new RequestOptions().timeout(500)).get("/down");
+            fail("expected the 503 to be thrown");
+        } catch (DownForMaintenanceException e) {
+            assertEquals(1, hits.get());
+            assertEquals(0, configuration.getRetryPolicy().getRetryCount());
+        }
+    }
+
+    @Test
+    public void boundsPagingThroughAResourceCollection() {
+        BraintreeGateway gateway = new BraintreeGateway(environment, "merchant_id", "public_key", "private_key");
+        gateway.transaction().search(new TransactionSearchRequest().orderId().is("order"));
+        ResourceCollection<Transaction> transactions = gateway.withOptions(new RequestOptions().timeout(400)).transaction()
+            .search(new TransactionSearchRequest().orderId().is("order"));
+        Iterator<Transaction> iterator = transactions.iterator();
+
+        assertTrue(iterator.hasNext());
+        assertEquals("abc123", iterator.next().getId());
+        try {
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+            fail("expected paging to stop at the deadline");
+        } catch (TimeoutException e) {
+            assertTrue(hits.get() < 3);
+        }
+    }
+
+    @Test
+    public void asyncTimeoutFreesTheWorkerThread() throws Exception {
+        BraintreeGateway gateway = new BraintreeGateway(environment, "merchant_id", "public_key", "private_key");
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        gateway.getConfiguration().setExecutorService(worker);
+        try {
+            gateway.transaction().find("abc123");
+
+            GatewayFuture<Transaction> slow = gateway.transactionAsync().withTimeout(200, TimeUnit.MILLISECONDS).find("slow");
+            try {
+                slow.get(5, TimeUnit.SECONDS);
+                fail("expected the call to exceed its deadline");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof TimeoutException);
+            }
+
+            long start = System.currentTimeMillis();
+            assertEquals("abc123", gateway.transactionAsync().find("abc123").get(5, TimeUnit.SECONDS).getId());
+            assertTrue(System.currentTimeMillis() - start < 1000);
+        } finally {
+            worker.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String xml) throws IOException {
+        byte[] body = xml.getBytes("UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+}
@@ -0,0 +1,211 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.Configuration;
+import com.braintreegateway.Environment;
+import com.braintreegateway.RequestOptions;
+import com.braintreegateway.exceptions.DownForMaintenanceException;
+import com.braintreegateway.exceptions.TooManyRequestsException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+    private HttpServer server;
+    private AtomicInteger hits;
+    private Configuration configuration;
+
+    @Before
+    public void startServer() throws IOException {
+        hits = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        HttpHandler flaky = new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getRequestBody().close();
+                if (hits.incrementAndGet() == 1) {
+                    exchange.getResponseHeaders().set("Retry-After", "0");
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                    return;
+                }
+                byte[] body = "<ok>recovered</ok>".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        };
+        server.createContext("/flaky", flaky);
+        server.createContext("/disputes/advanced_search", flaky);
+        server.createContext("/throttled", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getRequestBody().close();
+                hits.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "120");
+                exchange.sendResponseHeaders(429, -1);
+                exchange.close();
+            }
+        });
+        server.createContext("/down", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getRequestBody().close();
+                hits.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        Environment environment = new Environment("http://127.0.0.1:" + server.getAddress().getPort(), "", new String[] {}, "test");
+        configuration = new Configuration(environment, "merchant_id", "public_key", "private_key");
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void retriesIdempotentRequestsAfterRetryableStatus() {
+        RetryPolicy policy = new RetryPolicy(2, 1, 10, new RetryBudget(10, 0));
+        configuration.setRetryPolicy(policy);
+
+        assertEquals("recovered", new Http(configuration).get("/flaky").findString("."));
+        assertEquals(2, hits.get());
+        assertEquals(1, policy.getRetryCount());
+    }
+
+    @Test
+    public void doesNotRetryByDefault() {
+        try {
+            new Http(configuration).get("/flaky");
+            fail("expected the 503 to be thrown");
+        } catch (DownForMaintenanceException e) {
+            assertEquals(1, hits.get());
+        }
+    }
+
+    @Test
+    public void doesNotRetryNonIdempotentRequests() {
+        RetryPolicy policy = new RetryPolicy(2, 1, 10, new RetryBudget(10, 0));
+        configuration.setRetryPolicy(policy);
+        try {
+            new Http(configuration).post("/flaky", "<transaction/>");
+            fail("expected the 503 to be thrown");
+        } catch (DownForMaintenanceException e) {
+            assertEquals(1, hits.get());
+            assertEquals(0, policy.getRetryCount());
+        }
+    }
+
+    @Test
+    public void retriesSearchesWithAQueryString() {
+        RetryPolicy policy = new RetryPolicy(2, 1, 10, new RetryBudget(10, 0));
+        configuration.setRetryPolicy(policy);
+
+        assertEquals("recovered", new Http(configuration).post("/disputes/advanced_search?page=2", "<search/>").findString("."));
+        assertEquals(2, hits.get());
+        assertEquals(1, policy.getRetryCount());
+    }
+
+    @Test
+    public void retriesRequestsMarkedIdempotent() {
+        configuration.setRetryPolicy(new RetryPolicy(2, 1, 10, new RetryBudget(10, 0)));
+        Http http = new Http(configuration, new RequestOptions().idempotent(true));
+
+        assertEquals("recovered", http.post("/flaky", "<transaction/>").findString("."));
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    public void requestOptionsOverrideTheConfiguredPolicy() {
+        configuration.setRetryPolicy(new RetryPolicy(2, 1, 10, new RetryBudget(10, 0)));
+        Http http = new Http(configuration, new RequestOptions().retryPolicy(RetryPolicy.none()));
+        try {
+            http.get("/flaky");
+            fail("expected the 503 to be thrown");
+        } catch (DownForMaintenanceException e) {
+            assertEquals(1, hits.get());
+        }
+    }
+
+    @Test
+    public void stopsRetryingWhenBudgetIsExhausted() {
+        RetryPolicy policy = new RetryPolicy(5, 1, 10, new RetryBudget(2, 0));
+        configuration.setRetryPolicy(policy);
+        try {
+            new Http(configuration).get("/down");
+            fail("expected the 503 to be thrown");
+        } catch (DownForMaintenanceException e) {
+            assertEquals(3, hits.get());
+            assertEquals(2, policy.getRetryCount());
+            assertEquals(1, policy.getBudgetExhaustedCount());
+        }
+    }
+
+    @Test
+    public void givesUpWhenRetryAfterExceedsMaxDelay() {
+        RetryPolicy policy = new RetryPolicy(2, 1, 10, new RetryBudget(10, 0));
+        configuration.setRetryPolicy(policy);
+        try {
+            new Http(configuration).get("/throttled");
+            fail("expected the 429 to be thrown");
+        } catch (TooManyRequestsException e) {
+            assertEquals(1, hits.get());
+            assertEquals(0, policy.getRetryCount());
+        }
+    }
+
+    @Test
+    public void backoffIsJitteredBelowTheExponentialCeiling() {
+        RetryPolicy policy = new RetryPolicy(10, 100, 1000, new RetryBudget(10, 0));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.backoff(0) < 100);
+            assertTrue(policy.backoff(2) < 400);
+            assertTrue(policy.backoff(20) < 1000);
+        }
+    }
+
+    @Test
+    public void delayHonoursRetryAfter() {
+        RetryPolicy policy = new RetryPolicy(2, 1, 5000, new RetryBudget(10, 0));
+
+        assertTrue(policy.delayBeforeRetry(0, 3000) >= 3000);
+        assertEquals(-1, policy.delayBeforeRetry(2, -1));
+    }
+
+    @Test
+    public void parsesRetryAfterSecondsAndDates() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+        long inAMinute = Http.parseRetryAfter(dateFormat.format(new Date(System.currentTimeMillis() + 60000)));
+
+        assertEquals(2000, Http.parseRetryAfter("2"));
+        assertTrue(inAMinute > 55000 && inAMinute <= 60000);
+        assertEquals(0, Http.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertEquals(-1, Http.parseRetryAfter("soon"));
+        assertEquals(-1, Http.parseRetryAfter(null));
+    }
+
+    @Test
+    public void budgetRefillsOverTime() throws InterruptedException {
+        RetryBudget budget = new RetryBudget(1, 100);
+
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+        Thread.sleep(50);
+        assertTrue(budget.tryAcquire());
+    }
+}
@@ -2,6 +2,7 @@ package com.braintreegateway.util;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
 import java.util.Calendar;
 import java.util.List;
@@ -262,4 +263,13 @@ public class SimpleNodeWrapperTest {
         NodeWrapper node = SimpleNodeWrapper.parse(xml).findFirst("foo");
         assertFalse(node.isBlank());
     }
+
+    @Test
+    public void parsesFromInputStreamUsingDeclaredEncoding() throws Exception {
+        byte[] xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<customer><first-name>Jos\u00e9</first-name></customer>".getBytes("UTF-8");
+        SimpleNodeWrapper node = SimpleNodeWrapper.parse(new ByteArrayInputStream(xml));
+
+        assertEquals("customer", node.getElementName());
+        assertEquals("Jos\u00e9", node.findString("first-name"));
+    }
 }
@@ -0,0 +1,136 @@
+package com.braintreegateway.util;
+
+import com.braintreegateway.Customer;
+import com.braintreegateway.Transaction;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class StreamingRecordReaderTest {
+    private static final String TRANSACTION_XML =
+            "<transaction>\n" +
+            "  <id>%1$s</id>\n" +
+            "  <status>settled</status>\n" +
+            "  <type>sale</type>\n" +
+            "  <amount>10.00</amount>\n" +
+            "  <created-at type=\"datetime\">2017-01-02T03:04:05Z</created-at>\n" +
+            "  <customer><id>cust</id><first-name>Jane &amp; John</first-name></customer>\n" +
+            "  <billing><postal-code>60606</postal-code></billing>\n" +
+            "  <shipping></shipping>\n" +
+            "  <custom-fields><store-me>value</store-me></custom-fields>\n" +
+            "  <credit-card><bin>411111</bin><last-4>1111</last-4></credit-card>\n" +
+            "  <status-history type=\"array\">\n" +
+            "    <status-event><status>authorized</status><amount>10.00</amount><timestamp type=\"datetime\">2017-01-02T03:04:05Z</timestamp></status-event>\n" +
+            "    <status-event><status>settled</status><amount>10.00</amount><timestamp type=\"datetime\">2017-01-03T03:04:05Z</timestamp></status-event>\n" +
+            "  </status-history>\n" +
+            "  <add-ons type=\"array\"><add-on><id>a1</id><amount>1.00</amount><quantity type=\"integer\">2</quantity></add-on></add-ons>\n" +
+            "  <disputes type=\"array\"><dispute><id>d1</id><amount>5.00</amount><status>open</status><transaction><id>%1$s</id><amount>10.00</amount></transaction></dispute></disputes>\n" +
+            "  <subscription></subscription>\n" +
+            "  <descriptor><name>desc</name></descriptor>\n" +
+            "  <disbursement-details></disbursement-details>\n" +
+            "  <purchase-order-number nil=\"true\"/>\n" +
+            "  <payment-instrument-type>credit_card</payment-instrument-type>\n" +
+            "</transaction>\n";
+
+    private static final String PAGE_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<credit-card-transactions type=\"collection\">\n" +
+            "  <current-page-number type=\"integer\">1</current-page-number>\n" +
+            String.format(TRANSACTION_XML, "first") +
+            String.format(TRANSACTION_XML, "second") +
+            "</credit-card-transactions>\n";
+
+    private static final NodeBinder<Transaction> TRANSACTION_BINDER = new NodeBinder<Transaction>() {
+        public Transaction bind(NodeWrapper node) {
+            return new Transaction(node);
+        }
+    };
+
+    @Test
+    public void bindsSameTransactionsAsTreeParser() throws Exception {
+        List<NodeWrapper> nodes = SimpleNodeWrapper.parse(PAGE_XML).findAll("transaction");
+        List<Transaction> streamed = new StreamingRecordReader<Transaction>("credit-card-transactions", "transaction", TRANSACTION_BINDER)
+                .read(new ByteArrayInputStream(PAGE_XML.getBytes("UTF-8")));
+
+        assertEquals(2, streamed.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertSameState("transaction", new Transaction(nodes.get(i)), streamed.get(i));
+        }
+        assertEquals("second", streamed.get(1).getId());
+        assertEquals("Jane & John", streamed.get(0).getCustomer().getFirstName());
+    }
+
+    @Test
+    public void bindsFromReader() {
+        List<Transaction> streamed = new StreamingRecordReader<Transaction>(null, "transaction", TRANSACTION_BINDER)
+                .read(new StringReader(PAGE_XML));
+
+        assertEquals(2, streamed.size());
+        assertEquals("first", streamed.get(0).getId());
+    }
+
+    @Test
+    public void bindsSameCustomersAsTreeParser() throws Exception {
+        String xml = "<customers><customer><id>c1</id><first-name>Jane</first-name>" +
+                "<credit-cards type=\"array\"><credit-card><token>t1</token><default type=\"boolean\">true</default></credit-card></credit-cards>" +
+                "<addresses type=\"array\"><address><id>ad</id><postal-code>60606</postal-code></address></addresses>" +
+                "</customer></customers>";
+        List<Customer> streamed = new StreamingRecordReader<Customer>(null, "customer", new NodeBinder<Customer>() {
+            public Customer bind(NodeWrapper node) {
+                return new Customer(node);
+            }
+        }).read(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+
+        assertEquals(1, streamed.size());
+        assertSameState("customer", new Customer(SimpleNodeWrapper.parse(xml).findFirst("customer")), streamed.get(0));
+    }
+
+    @Test
+    public void returnsNullForUnexpectedRoot() throws Exception {
+        String xml = "<api-error-response><message>Down</message></api-error-response>";
+
+        assertNull(new StreamingRecordReader<Transaction>("credit-card-transactions", "transaction", TRANSACTION_BINDER)
+                .read(new ByteArrayInputStream(xml.getBytes("UTF-8"))));
+    }
+
+    private void assertSameState(String path, Object expected, Object actual) throws IllegalAccessException {
+        if (expected == null || actual == null) {
+            assertEquals(path, expected, actual);
+        } else if (expected instanceof List) {
+            List<?> expectedList = (List<?>) expected;
+            List<?> actualList = (List<?>) actual;
+            assertEquals(path, expectedList.size(), actualList.size());
+            for (int i = 0; i < expectedList.size(); i++) {
+                assertSameState(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+            }
+        } else if (expected instanceof Map) {
+            Map<?, ?> expectedMap = (Map<?, ?>) expected;
+            Map<?, ?> actualMap = (Map<?, ?>) actual;
+            assertEquals(path, expectedMap.keySet(), actualMap.keySet());
+            for (Object key : expectedMap.keySet()) {
+                assertSameState(path + "." + key, expectedMap.get(key), actualMap.get(key));
+            }
+        } else if (expected.getClass().getName().startsWith("com.braintreegateway.") && !expected.getClass().isEnum()) {
+            assertEquals(path, expected.getClass(), actual.getClass());
+            for (Class<?> type = expected.getClass(); type != Object.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        assertSameState(path + "." + field.getName(), field.get(expected), field.get(actual));
+                    }
+                }
+            }
+        } else if (expected instanceof Calendar) {
+            assertEquals(path, ((Calendar) expected).getTimeInMillis(), ((Calendar) actual).getTimeInMillis());
+        } else {
+            assertEquals(path, expected, actual);
+        }
+    }
+}